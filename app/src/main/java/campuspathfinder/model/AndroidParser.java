@@ -7,12 +7,27 @@ import java.util.*;
 
 /**
  * Methods to parse the campus data files using methods available on Android
- * (which does not support OpenCSV).
+ * (which does not support OpenCSV). Rows are read with a TsvTokenizer, which
+ * parses the coordinates and distances without splitting each row into
+ * Strings.
  */
 public class AndroidParser {
 
     // Not an ADT
 
+    /**
+     * Receives the rows of a campus data file, one at a time, as they are parsed.
+     * @param <T> the type each row is parsed into
+     */
+    public interface RowConsumer<T> {
+
+        /**
+         * Takes one parsed row of the file.
+         * @param row the row, in the order it appears in the file
+         */
+        void accept(T row);
+    }
+
     /**
      * Returns the rows from the given file, each of which should match the
      * shape defined by Location.
@@ -23,23 +38,40 @@ public class AndroidParser {
      */
     public static List<Location> parseBuildingData(InputStream blgsStream)
             throws IOException {
-        Scanner scanner = new Scanner(new InputStreamReader(blgsStream));
-        scanner.nextLine();     // Skipping header line
-        List<Location> buildings = new LinkedList<>();
-        while(scanner.hasNextLine()) {
-            String[] bits = scanner.nextLine().split("\t");
-            String shortName = bits[0];
-            String longName = bits[1];
-            Coordinate location = new Coordinate(Double.parseDouble(bits[2].split(",")[0]),
-                    Double.parseDouble(bits[2].split(",")[1]));
+        final List<Location> buildings = new LinkedList<>();
+        parseBuildingData(blgsStream, new RowConsumer<Location>() {
+            @Override
+            public void accept(Location building) {
+                buildings.add(building);
+            }
+        });
+        return buildings;
+    }
+
+    /**
+     * Parses the rows from the given file, each of which should match the
+     * shape defined by Location, and passes each to consumer as soon as it
+     * is parsed, so no more than one row is held at a time.
+     * @param blgsStream Stream containing the TSV file to read.
+     * @param consumer Receiver of each Location, in the order of the file.
+     * @throws IOException if any I/O error occurs reading the file
+     */
+    public static void parseBuildingData(InputStream blgsStream,
+            RowConsumer<Location> consumer) throws IOException {
+        TsvTokenizer tokens = new TsvTokenizer(new InputStreamReader(blgsStream));
+        tokens.nextRow();       // Skipping header line
+        while(tokens.nextRow()) {
+            String shortName = tokens.nextString();
+            String longName = tokens.nextString();
+            double x = tokens.nextDouble(',');
+            double y = tokens.nextDouble(',');
+            Coordinate location = new Coordinate(x, y);
             Location building = new Location();
             building.setShortName(shortName);
             building.setLongName(longName);
             building.setLocation(location);
-            buildings.add(building);
+            consumer.accept(building);
         }
-
-        return buildings;
     }
 
     /**
@@ -52,24 +84,56 @@ public class AndroidParser {
      */
     public static List<CampusPath> parsePathData(InputStream pathsStream)
             throws IOException {
-        Scanner scanner = new Scanner(new InputStreamReader(pathsStream));
-        scanner.nextLine();     // Skipping header line
-        List<CampusPath> paths = new LinkedList<>();
-        while(scanner.hasNextLine()) {
-            String[] bits = scanner.nextLine().split("\t");
-            Coordinate origin = new Coordinate(Double.parseDouble(bits[0].split(",")[0]),
-                    Double.parseDouble(bits[0].split(",")[1]));
-            Coordinate destination = new Coordinate(Double.parseDouble(bits[1].split(",")[0]),
-                    Double.parseDouble(bits[1].split(",")[1]));
-            Double distance = Double.parseDouble(bits[2]);
+        final List<CampusPath> paths = new LinkedList<>();
+        parsePathData(pathsStream, new RowConsumer<CampusPath>() {
+            @Override
+            public void accept(CampusPath path) {
+                paths.add(path);
+            }
+        });
+        return paths;
+    }
+
+    /**
+     * Parses the rows from the given file, each of which should match the
+     * shape defined by CampusPath, and passes each to consumer as soon as it
+     * is parsed, so no more than one row is held at a time.
+     * @param pathsStream Stream containing the TSV file to read.
+     * @param consumer Receiver of each CampusPath, in the order of the file.
+     * @throws IOException if any I/O error occurs reading the file
+     */
+    public static void parsePathData(InputStream pathsStream,
+            RowConsumer<CampusPath> consumer) throws IOException {
+        TsvTokenizer tokens = new TsvTokenizer(new InputStreamReader(pathsStream));
+        tokens.nextRow();       // Skipping header line
+        parsePathRows(tokens, consumer);
+    }
+
+    /**
+     * Parses every row left in tokens, each of which should match the shape
+     * defined by CampusPath, and passes each to consumer as it is parsed.
+     * @param tokens Tokenizer positioned before the first row to parse.
+     * @param consumer Receiver of each CampusPath, in the order of the rows.
+     * @throws IOException if any I/O error occurs reading the rows
+     */
+    static void parsePathRows(TsvTokenizer tokens, RowConsumer<CampusPath> consumer)
+            throws IOException {
+        while(tokens.nextRow()) {
+            double originX = tokens.nextDouble(',');
+            double originY = tokens.nextDouble(',');
+            tokens.finishField();
+            Coordinate origin = new Coordinate(originX, originY);
+            double destinationX = tokens.nextDouble(',');
+            double destinationY = tokens.nextDouble(',');
+            tokens.finishField();
+            Coordinate destination = new Coordinate(destinationX, destinationY);
+            Double distance = tokens.nextDouble();
             CampusPath path = new CampusPath();
             path.setDestination(destination);
             path.setDistance(distance);
             path.setOrigin(origin);
-            paths.add(path);
+            consumer.accept(path);
         }
-
-        return paths;
     }
 
 }
@@ -3,11 +3,27 @@ package campuspathfinder.model;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.TreeMap;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
 
 
 /**
@@ -21,17 +37,235 @@ import java.util.Map;
  * A Campus is mutable, but new buildings and paths can only be added by modifying the files that the campus
  * is loaded from and then calling loadCampus()
  * 
+ * A Campus can also be loaded in the background with loadCampusAsync, which builds the new
+ * campus on an executor and swaps it in whole once it is ready. Queries made while such a
+ * load is running either wait for it to finish or fail fast, as the LoadingPolicy says
+ * 
  * Specification Fields:
  * 		@specfield campus : Graph&lt;CampusBuilding, Double&gt; // A Graph representing the campus
  * 		@specfield campusBuildings : Map&lt;String, Location&gt; // A Map from the names of buildings to
  * 		themselves
  * 		@specfield locations : Map&lt;Coordinate, Location&gt; // A Map from Coordinate of buildings to
  * 		themselves
+ * 		@specfield router : CompactGraph&lt;Location&gt; // A read-only snapshot of campus that
+ * 		routes are found on, replaced as a whole each time campus is loaded so that routes
+ * 		can be found from many threads at once
+ * 		@specfield mode : RoutingMode // How routes are searched for
+ * 		@specfield policy : LoadingPolicy // What queries do while loadCampusAsync is running
  * 
  * 
  */
 public class Campus {
+	
+	/**
+	 * The ways a Campus can search for a route between two buildings
+	 */
+	public enum RoutingMode {
+		/** A lookup in the table of routes from buildings, searched the first time each is used */
+		ROUTE_TABLE,
+		/** Dijkstra's algorithm, which settles nodes in order of distance from the start */
+		DIJKSTRA,
+		/** A*, which is directed toward the destination by straight-line distance */
+		A_STAR,
+		/** Dijkstra's algorithm run from both buildings at once until the searches meet */
+		BIDIRECTIONAL,
+		/** An upward search on a contraction hierarchy, built the first time it is used */
+		CONTRACTION_HIERARCHY
+	}
+	
+	/**
+	 * What a query on a Campus does when it is made while loadCampusAsync is running
+	 */
+	public enum LoadingPolicy {
+		/** Block until the load finishes, then answer from the campus it loaded */
+		WAIT,
+		/** Throw an IllegalStateException rather than block */
+		FAIL_FAST
+	}
+	
+	/**
+	 * Parses part of a campus on an executor, reporting an IOException as the
+	 * CompletionException that completes its future exceptionally
+	 */
+	private abstract static class ParseTask<T> implements Supplier<T> {
+		
+		/**
+		 * Parses the data
+		 * 
+		 * @throws IOException if any I/O error occurs reading the data
+		 * @return what was parsed
+		 */
+		abstract T parse() throws IOException;
+		
+		@Override
+		public T get() {
+			try {
+				return parse();
+			} catch (IOException e) {
+				throw new CompletionException(e);
+			}
+		}
+	}
+	
+	/**
+	 * Estimates the walking distance between two nodes of the router as their 
+	 * straight-line distance, scaled so that it is never more than the length of
+	 * any path between them
+	 */
+	private static class DistanceHeuristic implements DijkstrasAlgorithm.Heuristic {
+		
+		//X coordinate of each node, indexed by id
+		private final double[] x;
+		
+		//Y coordinate of each node, indexed by id
+		private final double[] y;
+		
+		//walking distance per unit of straight-line distance on the shortest edge
+		private final double scale;
+		
+		/**
+		 * @param router The graph to estimate distances on
+		 * @spec.requires router != null
+		 * @spec.effects Constructs a new DistanceHeuristic for router
+		 */
+		DistanceHeuristic(CompactGraph<Location> router) {
+			x = new double[router.size()];
+			y = new double[router.size()];
+			for (int i = 0; i < router.size(); i++) {
+				x[i] = router.getData(i).getLocation().getX();
+				y[i] = router.getData(i).getLocation().getY();
+			}
+			double minScale = Double.POSITIVE_INFINITY;
+			// {{ Inv: minScale is the least ratio of weight to straight-line length of
+			//		every edge we have seen so far with nonzero length }}
+			for (int node = 0; node < router.size(); node++) {
+				for (int e = router.getEdgeStart(node); e < router.getEdgeEnd(node); e++) {
+					double length = straightLine(node, router.getTarget(e));
+					if (length > 0) {
+						minScale = Math.min(minScale, router.getWeight(e) / length);
+					}
+				}
+			}
+			//stays a little under the least ratio so rounding never overestimates
+			scale = (minScale == Double.POSITIVE_INFINITY) ? 0.0 : minScale * (1 - 1e-9);
+		}
+		
+		@Override
+		public double estimate(int node, int dest) {
+			return scale * straightLine(node, dest);
+		}
+		
+		/**
+		 * Returns the straight-line distance between two nodes
+		 * 
+		 * @param a The id of one node
+		 * @param b The id of the other node
+		 * @return the Euclidean distance between the coordinates of a and b
+		 */
+		private double straightLine(int a, int b) {
+			double dx = x[a] - x[b];
+			double dy = y[a] - y[b];
+			return Math.sqrt(dx * dx + dy * dy);
+		}
+	}
 
+	/**
+	 * Everything routes are found with, made from one snapshot of the campus. Nothing
+	 * in it changes once it is made, other than its route table and contraction
+	 * hierarchy being filled in the first time they are needed, so any number of threads can find routes with it
+	 * while loadCampus makes its replacement
+	 */
+	private static class RoutingState {
+		
+		//snapshot of campus that routes are found on
+		final CompactGraph<Location> router;
+		
+		//straight-line estimate of distances on router, used by A*
+		final DistanceHeuristic heuristic;
+		
+		//shortest routes from every building, found the first time each is asked for
+		final RouteTable<Location> routes;
+		
+		//maps the short name of each building to its id in router
+		private final Map<String, Integer> buildingIds;
+		
+		//contraction hierarchy over router, or null until it is first needed
+		private ContractionHierarchy<Location> hierarchy;
+		
+		/**
+		 * @param campus The campus to take a snapshot of
+		 * @param buildings Map from the short name of each building to itself
+		 * @spec.requires campus != null and buildings != null
+		 * @spec.effects Constructs a new RoutingState for campus as it is now
+		 */
+		RoutingState(Graph<Location, Double> campus, Map<String, Location> buildings) {
+			router = new CompactGraph<Location>(campus);
+			heuristic = new DistanceHeuristic(router);
+			buildingIds = new HashMap<String, Integer>();
+			int[] sources = new int[buildings.size()];
+			int count = 0;
+			for (Map.Entry<String, Location> building : buildings.entrySet()) {
+				int id = router.idOf(building.getValue());
+				if (id != -1) {
+					buildingIds.put(building.getKey(), id);
+					sources[count++] = id;
+				}
+			}
+			routes = new RouteTable<Location>(router, Arrays.copyOf(sources, count));
+		}
+		
+		/**
+		 * Returns the id in router of the building with the given short name
+		 * 
+		 * @param building The short name of the building
+		 * @return the id of the building, or -1 if there is no such building
+		 */
+		int idOf(String building) {
+			Integer id = buildingIds.get(building);
+			return (id == null) ? -1 : id;
+		}
+		
+		/**
+		 * Returns a tree of shortest routes from the given node if the route table does
+		 * not hold routes from it
+		 * 
+		 * @param src The id in router of the node routes start from
+		 * @spec.requires 0 &lt;= src &lt; router.size()
+		 * @return a new ShortestPathTree from src, or null if routes.hasRoutesFrom(src)
+		 */
+		ShortestPathTree<Location> treeFrom(int src) {
+			return routes.hasRoutesFrom(src) ? null
+					: DijkstrasAlgorithm.shortestPathTree(router, src);
+		}
+		
+		/**
+		 * Returns the shortest route between the given nodes, read off the given tree if
+		 * there is one and off the route table otherwise
+		 * 
+		 * @param tree The tree treeFrom(src) returned
+		 * @param src The id in router of the node the route starts from
+		 * @param dest The id in router of the node the route ends at
+		 * @spec.requires 0 &lt;= src, dest &lt; router.size()
+		 * @return the least weighted path from src to dest, or null if there is none
+		 */
+		CompactPath<Location> route(ShortestPathTree<Location> tree, int src, int dest) {
+			return (tree == null) ? routes.getRoute(src, dest) : tree.getPath(dest);
+		}
+		
+		/**
+		 * Returns the contraction hierarchy over router, building it if this is the
+		 * first time it is needed
+		 * 
+		 * @return the ContractionHierarchy over router
+		 */
+		synchronized ContractionHierarchy<Location> getHierarchy() {
+			if (hierarchy == null) {
+				hierarchy = new ContractionHierarchy<Location>(router);
+			}
+			return hierarchy;
+		}
+	}
+	
 	/*
 	 * Abstract Function: 
 	 * A Campus is a mathematical graph of buildings as nodes and paths as edges.
@@ -54,6 +288,18 @@ public class Campus {
 	
 	//maps
 	private Map<Coordinate, Location> locations;
+	
+	//everything routes are found with, made whenever campus is loaded
+	private volatile RoutingState routing;
+	
+	//how routes are searched for
+	private volatile RoutingMode mode;
+	
+	//what queries do while loadCampusAsync is running
+	private volatile LoadingPolicy policy;
+	
+	//the future of the load loadCampusAsync is running, or null if none is running
+	private volatile CompletableFuture<Campus> loading;
 		
 	/**
 	 * @spec.effects Constructs a new empty Campus object
@@ -62,6 +308,67 @@ public class Campus {
 		campus = new Graph<Location, Double>();
 		campusBuildings = new HashMap<String, Location>();
 		locations = new HashMap<Coordinate, Location>();
+		routing = new RoutingState(campus, campusBuildings);
+		mode = RoutingMode.ROUTE_TABLE;
+		policy = LoadingPolicy.WAIT;
+	}
+	
+	/**
+	 * Sets how routes between buildings are searched for. Every mode finds a
+	 * shortest route; they differ in how much of the campus they explore
+	 * 
+	 * @param mode The way to search for routes
+	 * @spec.requires mode != null
+	 * @throws IllegalArgumentException if mode == null
+	 * @spec.modifies the way this campus searches for routes
+	 */
+	public void setRoutingMode(RoutingMode mode) {
+		if (mode == null) {
+			throw new IllegalArgumentException("mode is null");
+		}
+		this.mode = mode;
+	}
+	
+	/**
+	 * Returns how routes between buildings are searched for
+	 * 
+	 * @return the RoutingMode of this campus
+	 */
+	public RoutingMode getRoutingMode() {
+		return mode;
+	}
+	
+	/**
+	 * Sets what queries do when they are made while loadCampusAsync is running
+	 * 
+	 * @param policy Whether queries wait for the load or fail fast
+	 * @spec.requires policy != null
+	 * @throws IllegalArgumentException if policy == null
+	 * @spec.modifies the way this campus answers queries while it is loading
+	 */
+	public void setLoadingPolicy(LoadingPolicy policy) {
+		if (policy == null) {
+			throw new IllegalArgumentException("policy is null");
+		}
+		this.policy = policy;
+	}
+	
+	/**
+	 * Returns what queries do when they are made while loadCampusAsync is running
+	 * 
+	 * @return the LoadingPolicy of this campus
+	 */
+	public LoadingPolicy getLoadingPolicy() {
+		return policy;
+	}
+	
+	/**
+	 * Returns whether loadCampusAsync is running
+	 * 
+	 * @return true if a load started by loadCampusAsync has not yet finished
+	 */
+	public boolean isLoading() {
+		return loading != null;
 	}
 	
 	/**
@@ -81,6 +388,43 @@ public class Campus {
 		campus = new Graph<Location, Double>();
 		initializeNodes(buildingFileName);
 		initializePaths(pathFileName);
+		routing = new RoutingState(campus, campusBuildings);
+	}
+	
+	/**
+	 * Loads the campus from given files, parsing the paths on a pool of the given
+	 * number of threads. Each range of the file is added as soon as it and every range
+	 * before it are parsed, in the order of the file, so the campus is the same one
+	 * loadCampus(buildingFileName, pathFileName) loads
+	 * 
+	 * @param buildingFileName The file name of the buildings
+	 * @param pathFileName The file name of the paths
+	 * @param parallelism The number of threads to parse the paths with
+	 * @throws IOException if any I/O error occurs reading the file
+	 * @throws IllegalArgumentException if buildingFileName or pathFileName is null, or
+	 * 		parallelism &lt;= 0
+	 * @spec.effects Loads the campus from given building and path files
+	 */
+	public void loadCampus(String buildingFileName, String pathFileName, int parallelism)
+			throws IOException {
+		checkRep();
+		if (buildingFileName == null || pathFileName == null) {
+			throw new IllegalArgumentException("a file path is null");
+		}
+		if (parallelism <= 0) {
+			throw new IllegalArgumentException("parallelism is not positive");
+		}
+		campus = new Graph<Location, Double>();
+		initializeNodes(buildingFileName);
+		// {{ Inv: every path handed on so far has been added to campus, in file order }}
+		ChunkedPathParser.parse(pathFileName, parallelism,
+				new AndroidParser.RowConsumer<CampusPath>() {
+			@Override
+			public void accept(CampusPath path) {
+				addPath(path);
+			}
+		});
+		routing = new RoutingState(campus, campusBuildings);
 	}
 	
 	/**
@@ -100,6 +444,425 @@ public class Campus {
 		campus = new Graph<Location, Double>();
 		initializeNodes(buildingFile);
 		initializePaths(pathFile);
+		routing = new RoutingState(campus, campusBuildings);
+	}
+	
+	/**
+	 * Loads the campus from a snapshot CampusSnapshot wrote, without parsing any text
+	 * 
+	 * @param snapshot The buffer holding the snapshot from its position to its limit
+	 * @throws IOException if snapshot does not hold a campus snapshot of the current
+	 * 		version with a matching checksum, in which case this campus is unchanged
+	 * @throws IllegalArgumentException if snapshot is null
+	 * @spec.modifies snapshot's position
+	 * @spec.effects Loads the campus the snapshot was made from
+	 */
+	public void loadCampus(ByteBuffer snapshot) throws IOException {
+		checkRep();
+		if (snapshot == null) {
+			throw new IllegalArgumentException("snapshot is null");
+		}
+		initializeSnapshot(CampusSnapshot.read(snapshot));
+	}
+	
+	/**
+	 * Loads the campus from a snapshot CampusSnapshot wrote, without parsing any text
+	 * 
+	 * @param snapshot The stream holding the snapshot, which is read to its end
+	 * @throws IOException if any I/O error occurs reading the stream, or it does not
+	 * 		hold a campus snapshot of the current version with a matching checksum, in
+	 * 		which case this campus is unchanged
+	 * @throws IllegalArgumentException if snapshot is null
+	 * @spec.effects Loads the campus the snapshot was made from
+	 */
+	public void loadCampus(InputStream snapshot) throws IOException {
+		checkRep();
+		if (snapshot == null) {
+			throw new IllegalArgumentException("snapshot is null");
+		}
+		initializeSnapshot(CampusSnapshot.read(snapshot));
+	}
+	
+	/**
+	 * Loads the campus from a snapshot CampusSnapshot wrote, checking that it was made
+	 * from the given files. The files are only read to check the snapshot, not parsed
+	 * 
+	 * @param snapshot The stream holding the snapshot, which is read to its end
+	 * @param buildingFile The InputStream file of the buildings the snapshot should be
+	 * 		made from, which is read to its end
+	 * @param pathFile The InputStream file of the paths the snapshot should be made
+	 * 		from, which is read to its end
+	 * @throws IOException if any I/O error occurs reading the streams, or snapshot does
+	 * 		not hold a campus snapshot of the current version with a matching checksum
+	 * 		made from buildingFile and pathFile, in which case this campus is unchanged
+	 * @throws IllegalArgumentException if snapshot, buildingFile or pathFile is null
+	 * @spec.effects Loads the campus the snapshot was made from
+	 */
+	public void loadCampus(InputStream snapshot, InputStream buildingFile, InputStream pathFile)
+			throws IOException {
+		checkRep();
+		if (snapshot == null || buildingFile == null || pathFile == null) {
+			throw new IllegalArgumentException("a stream is null");
+		}
+		initializeSnapshot(CampusSnapshot.read(snapshot, buildingFile, pathFile));
+	}
+	
+	/**
+	 * Starts loading the campus from given files on the given executor, and returns at
+	 * once. The buildings and the paths are parsed at the same time, and the graph and
+	 * everything routes are found with are built once both are parsed, all on executor.
+	 * The new campus replaces this one whole once it is built, so until then queries
+	 * see the campus as it was, waiting or failing fast as the LoadingPolicy says. The
+	 * files are read with the same parsers loadCampus(buildingFileName, pathFileName)
+	 * uses, so the campus loaded is the one it loads into a new Campus
+	 * 
+	 * @param buildingFileName The file name of the buildings
+	 * @param pathFileName The file name of the paths
+	 * @param executor The executor to parse and build on, which must not need the
+	 * 		thread of a query waiting for the load to run its tasks
+	 * @spec.requires no other loadCampus method is called until the future completes
+	 * @throws IllegalArgumentException if buildingFileName, pathFileName or executor is
+	 * 		null
+	 * @throws IllegalStateException if loadCampusAsync is already running
+	 * @spec.effects Loads the campus from given building and path files once the
+	 * 		returned future completes normally, and leaves it unchanged if the future
+	 * 		completes exceptionally
+	 * @return a CompletableFuture that completes with this campus once it is loaded,
+	 * 		or exceptionally with the IOException that stopped it from loading
+	 */
+	public CompletableFuture<Campus> loadCampusAsync(final String buildingFileName,
+			final String pathFileName, final Executor executor) {
+		checkRep();
+		if (buildingFileName == null || pathFileName == null || executor == null) {
+			throw new IllegalArgumentException("a file path or executor is null");
+		}
+		return loadAsync(new Supplier<CompletableFuture<Campus>>() {
+			@Override
+			public CompletableFuture<Campus> get() {
+				return buildAsync(new ParseTask<List<Location>>() {
+					@Override
+					List<Location> parse() throws IOException {
+						InputStream file = new FileInputStream(buildingFileName);
+						try {
+							return AndroidParser.parseBuildingData(file);
+						} finally {
+							file.close();
+						}
+					}
+				}, new ParseTask<List<CampusPath>>() {
+					@Override
+					List<CampusPath> parse() throws IOException {
+						InputStream file = new FileInputStream(pathFileName);
+						try {
+							return AndroidParser.parsePathData(file);
+						} finally {
+							file.close();
+						}
+					}
+				}, executor);
+			}
+		});
+	}
+	
+	/**
+	 * Starts loading the campus from given files on the given executor, and returns at
+	 * once, as loadCampusAsync(String, String, Executor) does. Each stream is read to
+	 * its end on executor, and closed once it has been
+	 * 
+	 * @param buildingFile The InputStream file of the buildings
+	 * @param pathFile The InputStream file of the paths
+	 * @param executor The executor to parse and build on, which must not need the
+	 * 		thread of a query waiting for the load to run its tasks
+	 * @spec.requires no other loadCampus method is called until the future completes
+	 * @throws IllegalArgumentException if buildingFile, pathFile or executor is null
+	 * @throws IllegalStateException if loadCampusAsync is already running
+	 * @spec.effects Loads the campus from given building and path files once the
+	 * 		returned future completes normally, and leaves it unchanged if the future
+	 * 		completes exceptionally
+	 * @return a CompletableFuture that completes with this campus once it is loaded,
+	 * 		or exceptionally with the IOException that stopped it from loading
+	 */
+	public CompletableFuture<Campus> loadCampusAsync(final InputStream buildingFile,
+			final InputStream pathFile, final Executor executor) {
+		checkRep();
+		if (buildingFile == null || pathFile == null || executor == null) {
+			throw new IllegalArgumentException("a file or executor is null");
+		}
+		return loadAsync(new Supplier<CompletableFuture<Campus>>() {
+			@Override
+			public CompletableFuture<Campus> get() {
+				return buildAsync(new ParseTask<List<Location>>() {
+					@Override
+					List<Location> parse() throws IOException {
+						try {
+							return AndroidParser.parseBuildingData(buildingFile);
+						} finally {
+							buildingFile.close();
+						}
+					}
+				}, new ParseTask<List<CampusPath>>() {
+					@Override
+					List<CampusPath> parse() throws IOException {
+						try {
+							return AndroidParser.parsePathData(pathFile);
+						} finally {
+							pathFile.close();
+						}
+					}
+				}, executor);
+			}
+		});
+	}
+	
+	/**
+	 * Starts loading the campus from a snapshot CampusSnapshot wrote on the given
+	 * executor, and returns at once. The snapshot is decoded and the campus built on
+	 * executor, and it replaces this one whole once it is built, as
+	 * loadCampusAsync(String, String, Executor) describes
+	 * 
+	 * @param snapshot The stream holding the snapshot, which is read to its end and
+	 * 		closed on executor
+	 * @param executor The executor to decode and build on, which must not need the
+	 * 		thread of a query waiting for the load to run its tasks
+	 * @spec.requires no other loadCampus method is called until the future completes
+	 * @throws IllegalArgumentException if snapshot or executor is null
+	 * @throws IllegalStateException if loadCampusAsync is already running
+	 * @spec.effects Loads the campus the snapshot was made from once the returned
+	 * 		future completes normally, and leaves it unchanged if the future completes
+	 * 		exceptionally
+	 * @return a CompletableFuture that completes with this campus once it is loaded,
+	 * 		or exceptionally with the IOException raised if the stream could not be read
+	 * 		or does not hold a campus snapshot of the current version
+	 */
+	public CompletableFuture<Campus> loadCampusAsync(final InputStream snapshot,
+			final Executor executor) {
+		checkRep();
+		if (snapshot == null || executor == null) {
+			throw new IllegalArgumentException("snapshot or executor is null");
+		}
+		return loadAsync(new Supplier<CompletableFuture<Campus>>() {
+			@Override
+			public CompletableFuture<Campus> get() {
+				return CompletableFuture.supplyAsync(new ParseTask<Campus>() {
+					@Override
+					Campus parse() throws IOException {
+						CampusSnapshot decoded;
+						try {
+							decoded = CampusSnapshot.read(snapshot);
+						} finally {
+							snapshot.close();
+						}
+						Campus loaded = new Campus();
+						loaded.initializeSnapshot(decoded);
+						return loaded;
+					}
+				}, executor);
+			}
+		});
+	}
+	
+	/**
+	 * Starts loading the campus from a snapshot CampusSnapshot wrote on the given
+	 * executor, checking that it was made from the given files, and returns at once.
+	 * The files are read and the snapshot decoded and the campus built on executor, and
+	 * it replaces this one whole once it is built, as
+	 * loadCampusAsync(String, String, Executor) describes
+	 * 
+	 * @param snapshot The stream holding the snapshot, which is read to its end and
+	 * 		closed on executor
+	 * @param buildingFile The InputStream file of the buildings the snapshot should be
+	 * 		made from, which is read to its end and closed on executor
+	 * @param pathFile The InputStream file of the paths the snapshot should be made
+	 * 		from, which is read to its end and closed on executor
+	 * @param executor The executor to decode and build on, which must not need the
+	 * 		thread of a query waiting for the load to run its tasks
+	 * @spec.requires no other loadCampus method is called until the future completes
+	 * @throws IllegalArgumentException if snapshot, buildingFile, pathFile or executor
+	 * 		is null
+	 * @throws IllegalStateException if loadCampusAsync is already running
+	 * @spec.effects Loads the campus the snapshot was made from once the returned
+	 * 		future completes normally, and leaves it unchanged if the future completes
+	 * 		exceptionally
+	 * @return a CompletableFuture that completes with this campus once it is loaded,
+	 * 		or exceptionally with the IOException raised if a stream could not be read
+	 * 		or snapshot does not hold a campus snapshot of the current version made from
+	 * 		buildingFile and pathFile
+	 */
+	public CompletableFuture<Campus> loadCampusAsync(final InputStream snapshot,
+			final InputStream buildingFile, final InputStream pathFile,
+			final Executor executor) {
+		checkRep();
+		if (snapshot == null || buildingFile == null || pathFile == null
+				|| executor == null) {
+			throw new IllegalArgumentException("a stream or executor is null");
+		}
+		return loadAsync(new Supplier<CompletableFuture<Campus>>() {
+			@Override
+			public CompletableFuture<Campus> get() {
+				return CompletableFuture.supplyAsync(new ParseTask<Campus>() {
+					@Override
+					Campus parse() throws IOException {
+						CampusSnapshot decoded;
+						try {
+							decoded = CampusSnapshot.read(snapshot, buildingFile, pathFile);
+						} finally {
+							try {
+								snapshot.close();
+							} finally {
+								try {
+									buildingFile.close();
+								} finally {
+									pathFile.close();
+								}
+							}
+						}
+						Campus loaded = new Campus();
+						loaded.initializeSnapshot(decoded);
+						return loaded;
+					}
+				}, executor);
+			}
+		});
+	}
+	
+	/**
+	 * Runs a load for loadCampusAsync, marking this campus as loading until it finishes
+	 * and then swapping in the campus it built
+	 * 
+	 * @param start Starts the load, returning the future of the new Campus it builds
+	 * @spec.requires start != null
+	 * @throws IllegalStateException if loadCampusAsync is already running
+	 * @spec.effects replaces the state of this campus with that of the campus the load
+	 * 		built, if the load completes normally and the returned future was not
+	 * 		cancelled
+	 * @return a CompletableFuture that completes with this campus once the new state
+	 * 		has been swapped in, or exceptionally as the load does
+	 */
+	private CompletableFuture<Campus> loadAsync(Supplier<CompletableFuture<Campus>> start) {
+		final CompletableFuture<Campus> result = new CompletableFuture<Campus>();
+		synchronized (this) {
+			if (loading != null) {
+				throw new IllegalStateException("campus is already loading");
+			}
+			loading = result;
+		}
+		CompletableFuture<Campus> built;
+		try {
+			built = start.get();
+		} catch (RuntimeException e) {
+			loading = null;
+			throw e;
+		}
+		built.whenComplete(new BiConsumer<Campus, Throwable>() {
+			@Override
+			public void accept(Campus loaded, Throwable error) {
+				if (error == null && !result.isCancelled()) {
+					campus = loaded.campus;
+					campusBuildings = loaded.campusBuildings;
+					locations = loaded.locations;
+					routing = loaded.routing;
+				}
+				//cleared only once the new state is in, so no query can see it half done
+				loading = null;
+				if (error == null) {
+					result.complete(Campus.this);
+				} else {
+					result.completeExceptionally(error);
+				}
+			}
+		});
+		return result;
+	}
+	
+	/**
+	 * Parses buildings and paths at the same time on the given executor, and then
+	 * builds a new Campus from them on it
+	 * 
+	 * @param buildings Parses the buildings
+	 * @param paths Parses the paths
+	 * @param executor The executor to parse and build on
+	 * @spec.requires buildings, paths and executor are not null
+	 * @return a CompletableFuture of a new Campus with the buildings and then the paths
+	 * 		added in order, as loadCampus adds them
+	 */
+	private static CompletableFuture<Campus> buildAsync(ParseTask<List<Location>> buildings,
+			ParseTask<List<CampusPath>> paths, Executor executor) {
+		return CompletableFuture.supplyAsync(buildings, executor).thenCombineAsync(
+				CompletableFuture.supplyAsync(paths, executor),
+				new BiFunction<List<Location>, List<CampusPath>, Campus>() {
+			@Override
+			public Campus apply(List<Location> buildings, List<CampusPath> paths) {
+				Campus loaded = new Campus();
+				for (Location building : buildings) {
+					loaded.addBuilding(building);
+				}
+				// {{ Inv: every path before path has been added to loaded, in order }}
+				for (CampusPath path : paths) {
+					loaded.addPath(path);
+				}
+				loaded.routing = new RoutingState(loaded.campus, loaded.campusBuildings);
+				return loaded;
+			}
+		}, executor);
+	}
+	
+	/**
+	 * Waits for loadCampusAsync to finish if it is running and the policy is WAIT
+	 * 
+	 * @throws IllegalStateException if loadCampusAsync is running and the policy is
+	 * 		FAIL_FAST
+	 */
+	private void awaitLoading() {
+		CompletableFuture<Campus> pending = loading;
+		if (pending == null) {
+			return;
+		}
+		if (policy == LoadingPolicy.FAIL_FAST) {
+			throw new IllegalStateException("campus is still loading");
+		}
+		try {
+			pending.join();
+		} catch (CompletionException e) {
+			//the load failed, so the campus is as it was
+		} catch (CancellationException e) {
+			//the caller gave up on the load, so the campus is as it was
+		}
+	}
+	
+	/**
+	 * Replaces the campus with the one a snapshot holds
+	 * 
+	 * @param snapshot The decoded snapshot
+	 * @spec.requires snapshot != null
+	 * @spec.effects Loads the campus with the buildings, points and paths of snapshot
+	 */
+	private void initializeSnapshot(CampusSnapshot snapshot) {
+		campus = new Graph<Location, Double>();
+		List<GraphNode<Location, Double>> nodes =
+				new ArrayList<GraphNode<Location, Double>>(snapshot.x.length);
+		// {{ Inv: a node has been added to campus for every point before i, named and
+		//		listed in campusBuildings if it is a building, and listed in locations }}
+		for (int i = 0; i < snapshot.x.length; i++) {
+			Location location = new Location();
+			boolean building = i < snapshot.shortNames.length;
+			location.setShortName(building ? snapshot.shortNames[i] : "");
+			location.setLongName(building ? snapshot.longNames[i] : "");
+			location.setLocation(new Coordinate(snapshot.x[i], snapshot.y[i]));
+			GraphNode<Location, Double> node = new GraphNode<Location, Double>(location);
+			campus.addNode(node);
+			nodes.add(node);
+			if (building) {
+				campusBuildings.put(location.getShortName(), location);
+			}
+			locations.put(location.getLocation(), location);
+		}
+		for (int i = 0; i < nodes.size(); i++) {
+			for (int e = snapshot.offsets[i]; e < snapshot.offsets[i + 1]; e++) {
+				campus.addEdge(nodes.get(i), new WeightedEdge<Location>(snapshot.weights[e],
+						nodes.get(snapshot.targets[e])));
+			}
+		}
+		routing = new RoutingState(campus, campusBuildings);
 	}
 	
 	/**
@@ -110,20 +873,17 @@ public class Campus {
 	 * @spec.effects Loads the campus with given buildings
 	 */
 	private void initializeNodes(String fileName) throws IOException {
-		checkRep();
-		List<Location> buildings = AndroidParser.parseBuildingData(new FileInputStream(fileName));
-		// {{ Inv: for each building in buildings that we have seen so far, it has been 
-		//		added to campus, campusBuildings, and locations in the appropriate forms }}
-		for (Location building : buildings) {
-			GraphNode<Location, Double> node = new GraphNode<Location, Double>(building);
-			campus.addNode(node);
-			campusBuildings.put(building.getShortName(), building);
-			locations.put(building.getLocation(), building);
+		InputStream file = new FileInputStream(fileName);
+		try {
+			initializeNodes(file);
+		} finally {
+			file.close();
 		}
 	}
 	
 	/**
-	 * Loads the campus with buildings from given file
+	 * Loads the campus with buildings from given file, adding each building as soon as
+	 * it is parsed
 	 * 
 	 * @param file The InputStream file of the buildings
 	 * @throws IOException if any I/O error occurs reading the file
@@ -131,58 +891,51 @@ public class Campus {
 	 */
 	private void initializeNodes(InputStream file) throws IOException {
 		checkRep();
-		List<Location> buildings = AndroidParser.parseBuildingData(file);
-		// {{ Inv: for each building in buildings that we have seen so far, it has been 
-		//		added to campus, campusBuildings, and locations in the appropriate forms }}
-		for (Location building : buildings) {
-			GraphNode<Location, Double> node = new GraphNode<Location, Double>(building);
-			campus.addNode(node);
-			campusBuildings.put(building.getShortName(), building);
-			locations.put(building.getLocation(), building);
-		}
+		// {{ Inv: each building parsed so far has been added to campus, campusBuildings,
+		//		and locations in the appropriate forms }}
+		AndroidParser.parseBuildingData(file, new AndroidParser.RowConsumer<Location>() {
+			@Override
+			public void accept(Location building) {
+				addBuilding(building);
+			}
+		});
 	}
 	
 	/**
-	 * Loads the campus with buildings from given file
+	 * Adds a building to campus as a node of its own
+	 * 
+	 * @param building The building to add
+	 * @spec.requires building != null
+	 * @spec.modifies campus, campusBuildings, locations
+	 * @spec.effects adds a GraphNode of building to campus, and maps its short name and
+	 * 		its coordinate to it
+	 */
+	private void addBuilding(Location building) {
+		GraphNode<Location, Double> node = new GraphNode<Location, Double>(building);
+		campus.addNode(node);
+		campusBuildings.put(building.getShortName(), building);
+		locations.put(building.getLocation(), building);
+	}
+	
+	/**
+	 * Loads the campus with paths from given file
 	 * 
 	 * @param fileName The file name of the paths
 	 * @throws IOException If any I/O error occurs reading the file
 	 * @spec.effects Loads the campus with given paths
 	 */
 	private void initializePaths(String fileName) throws IOException {
-		checkRep();
-		List<CampusPath> paths = AndroidParser.parsePathData(new FileInputStream(fileName));
-		// {{ Inv: for each path in paths that we have seen so far, its starting and ending 
-		//		points have been added as GraphNodes to campus and a GraphEdge with the distance
-		//		as its label as been added to the starting node, with it pointing to the 
-		//		end node }}
-		for (CampusPath path : paths) {
-			GraphNode<Location, Double> start = campus.getNode(locations.get(path.getOrigin()));
-			GraphNode<Location, Double> end = campus.getNode(locations.get(path.getDestination()));
-			if (start == null) {
-				Location st = new Location();
-				st.setShortName("");
-				st.setLongName("");
-				st.setLocation(path.getOrigin());
-				start = new GraphNode<Location, Double>(st);
-				campus.addNode(start);
-				locations.put(path.getOrigin(), st);
-			}
-			if (end == null) {
-				Location ed = new Location();
-				ed.setShortName("");
-				ed.setLongName("");
-				ed.setLocation(path.getDestination());
-				end = new GraphNode<Location, Double>(ed);
-				campus.addNode(end);
-				locations.put(path.getDestination(), ed);
-			}
-			campus.addEdge(start, end, path.getDistance());
+		InputStream file = new FileInputStream(fileName);
+		try {
+			initializePaths(file);
+		} finally {
+			file.close();
 		}
 	}
 	
 	/**
-	 * Loads the campus with buildings from given file
+	 * Loads the campus with paths from given file, adding each path as soon as it is
+	 * parsed, so the rows of the file are never all held at once
 	 * 
 	 * @param file The InputStream file of the paths
 	 * @throws IOException If any I/O error occurs reading the file
@@ -190,34 +943,53 @@ public class Campus {
 	 */
 	private void initializePaths(InputStream file) throws IOException {
 		checkRep();
-		List<CampusPath> paths = AndroidParser.parsePathData(file);
-		// {{ Inv: for each path in paths that we have seen so far, its starting and ending 
-		//		points have been added as GraphNodes to campus and a GraphEdge with the distance
-		//		as its label as been added to the starting node, with it pointing to the 
-		//		end node }}
-		for (CampusPath path : paths) {
-			GraphNode<Location, Double> start = campus.getNode(locations.get(path.getOrigin()));
-			GraphNode<Location, Double> end = campus.getNode(locations.get(path.getDestination()));
-			if (start == null) {
-				Location st = new Location();
-				st.setShortName("");
-				st.setLongName("");
-				st.setLocation(path.getOrigin());
-				start = new GraphNode<Location, Double>(st);
-				campus.addNode(start);
-				locations.put(path.getOrigin(), st);
+		// {{ Inv: for each path parsed so far, its starting and ending points have been
+		//		added as GraphNodes to campus and a WeightedEdge with the distance as its
+		//		weight has been added to the starting node, with it pointing to the end node }}
+		AndroidParser.parsePathData(file, new AndroidParser.RowConsumer<CampusPath>() {
+			@Override
+			public void accept(CampusPath path) {
+				addPath(path);
 			}
-			if (end == null) {
-				Location ed = new Location();
-				ed.setShortName("");
-				ed.setLongName("");
-				ed.setLocation(path.getDestination());
-				end = new GraphNode<Location, Double>(ed);
-				campus.addNode(end);
-				locations.put(path.getDestination(), ed);
-			}
-			campus.addEdge(start, end, path.getDistance());
+		});
+	}
+	
+	/**
+	 * Adds the edge a path describes to campus, adding nodes at its ends if needed
+	 * 
+	 * @param path The path to add
+	 * @spec.requires path != null
+	 * @spec.modifies campus, locations
+	 * @spec.effects adds a WeightedEdge with the distance of path as its weight from the
+	 * 		node at its origin to the node at its destination
+	 */
+	private void addPath(CampusPath path) {
+		GraphNode<Location, Double> start = nodeAt(path.getOrigin());
+		GraphNode<Location, Double> end = nodeAt(path.getDestination());
+		campus.addEdge(start, new WeightedEdge<Location>(path.getDistance(), end));
+	}
+	
+	/**
+	 * Returns the node of campus at the given point, adding an unnamed location there
+	 * if there is none
+	 * 
+	 * @param point The coordinate of the node
+	 * @spec.requires point != null
+	 * @spec.modifies campus, locations
+	 * @return the GraphNode of campus whose location is point
+	 */
+	private GraphNode<Location, Double> nodeAt(Coordinate point) {
+		GraphNode<Location, Double> node = campus.getNode(locations.get(point));
+		if (node == null) {
+			Location location = new Location();
+			location.setShortName("");
+			location.setLongName("");
+			location.setLocation(point);
+			node = new GraphNode<Location, Double>(location);
+			campus.addNode(node);
+			locations.put(point, location);
 		}
+		return node;
 	}
 	
 	/**
@@ -226,6 +998,8 @@ public class Campus {
 	 * @param src The starting building
 	 * @param dest The destination building
 	 * @spec.requires src and dest are valid buildings
+	 * @throws IllegalStateException if loadCampusAsync is running and the LoadingPolicy is
+	 * 		FAIL_FAST
 	 * @return a List&lt;double[]&gt; containing the path, where each double[] represents an 
 	 * 		intermediate location or the destination, and within each double[], the 0th index
 	 * 		represents the X coordinate of the location, the 1st index represents the Y
@@ -234,20 +1008,145 @@ public class Campus {
 	 */
 	public List<double[]> findPath(String src, String dest) {
 		checkRep();
+		awaitLoading();
+		RoutingState current = routing;
+		RoutingMode mode = this.mode;
+		int st = current.idOf(src);
+		int ed = current.idOf(dest);
+		CompactPath<Location> route;
+		if (mode == RoutingMode.CONTRACTION_HIERARCHY) {
+			route = current.getHierarchy().shortestPath(st, ed);
+		} else if (mode == RoutingMode.ROUTE_TABLE && current.routes.hasRoutesFrom(st)) {
+			route = current.routes.getRoute(st, ed);
+		} else if (mode == RoutingMode.BIDIRECTIONAL) {
+			route = DijkstrasAlgorithm.bidirectionalPath(current.router, st, ed);
+		} else {
+			route = DijkstrasAlgorithm.shortestPath(current.router, st, ed,
+					(mode == RoutingMode.A_STAR) ? current.heuristic : null);
+		}
+		return toSteps(current.router, route);
+	}
+	
+	/**
+	 * Finds the paths from a src building to each of the given dest buildings, with
+	 * one search from src shared by every destination
+	 * 
+	 * @param src The starting building
+	 * @param dests The destination buildings
+	 * @spec.requires src and every element of dests are valid buildings
+	 * @throws IllegalStateException if loadCampusAsync is running and the LoadingPolicy is
+	 * 		FAIL_FAST
+	 * @return a Map&lt;String, List&lt;double[]&gt;&gt; from each destination that can be 
+	 * 		reached to the path to it, sorted alphabetically by destination, where each path
+	 * 		is in the form findPath returns
+	 */
+	public Map<String, List<double[]>> findPathsFrom(String src, Collection<String> dests) {
+		checkRep();
+		awaitLoading();
+		RoutingState current = routing;
+		int st = current.idOf(src);
+		ShortestPathTree<Location> tree = current.treeFrom(st);
+		Map<String, List<double[]>> paths = new TreeMap<String, List<double[]>>();
+		// {{ Inv: every destination before dest that can be reached from src has been 
+		//		mapped to the path to it }}
+		for (String dest : dests) {
+			CompactPath<Location> route = current.route(tree, st, current.idOf(dest));
+			if (route != null) {
+				paths.put(dest, toSteps(current.router, route));
+			}
+		}
+		return paths;
+	}
+	
+	/**
+	 * Finds the path between each pair of buildings in the given list. Pairs are grouped
+	 * by their starting building so that each group needs at most one search, and the
+	 * groups are run on the given executor. Every path is the same one findPath gives
+	 * in ROUTE_TABLE mode. This can be called from many threads at once
+	 * 
+	 * @param pairs The pairs of buildings, each an array of the starting building and
+	 * 		then the destination building
+	 * @param executor The executor to run the groups on
+	 * @spec.requires every building named in pairs is a valid building
+	 * @throws IllegalArgumentException if pairs or executor is null
+	 * @throws InterruptedException if interrupted while waiting for the groups to finish
+	 * @throws IllegalStateException if loadCampusAsync is running and the LoadingPolicy is
+	 * 		FAIL_FAST
+	 * @return a List&lt;List&lt;double[]&gt;&gt; holding, at the index of each pair, the 
+	 * 		path between them in the form findPath returns, or null if there is none
+	 */
+	public List<List<double[]>> findPaths(final List<String[]> pairs, ExecutorService executor)
+			throws InterruptedException {
+		checkRep();
+		if (pairs == null || executor == null) {
+			throw new IllegalArgumentException("pairs or executor is null");
+		}
+		awaitLoading();
+		final RoutingState current = routing;
+		Map<String, List<Integer>> groups = new LinkedHashMap<String, List<Integer>>();
+		for (int i = 0; i < pairs.size(); i++) {
+			List<Integer> group = groups.get(pairs.get(i)[0]);
+			if (group == null) {
+				group = new ArrayList<Integer>();
+				groups.put(pairs.get(i)[0], group);
+			}
+			group.add(i);
+		}
+		//each index is written by exactly one task, and read once every task is done
+		List<double[]> none = null;
+		final List<List<double[]>> paths = 
+				new ArrayList<List<double[]>>(Collections.nCopies(pairs.size(), none));
+		List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(groups.size());
+		for (final Map.Entry<String, List<Integer>> group : groups.entrySet()) {
+			tasks.add(new Callable<Void>() {
+				@Override
+				public Void call() {
+					int st = current.idOf(group.getKey());
+					ShortestPathTree<Location> tree = current.treeFrom(st);
+					for (int i : group.getValue()) {
+						CompactPath<Location> route = 
+								current.route(tree, st, current.idOf(pairs.get(i)[1]));
+						paths.set(i, (route == null) ? null : toSteps(current.router, route));
+					}
+					return null;
+				}
+			});
+		}
+		for (Future<Void> done : executor.invokeAll(tasks)) {
+			try {
+				done.get();
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof RuntimeException) {
+					throw (RuntimeException) e.getCause();
+				}
+				throw new IllegalStateException("could not find paths", e.getCause());
+			}
+		}
+		return paths;
+	}
+	
+	/**
+	 * Returns the steps of the given route in the form findPath returns
+	 * 
+	 * @param router The snapshot of campus route runs through
+	 * @param route The route through router
+	 * @spec.requires router != null and route != null
+	 * @return a List&lt;double[]&gt; with a double[] of the X coordinate, Y coordinate, and
+	 * 		distance from the previous location for each step of route
+	 */
+	private static List<double[]> toSteps(CompactGraph<Location> router, 
+			CompactPath<Location> route) {
 		List<double[]> path = new ArrayList<double[]>();
-		Location st = campusBuildings.get(src);
-		Location ed = campusBuildings.get(dest);
-		List<GraphEdge<Location, Double>> route = DijkstrasAlgorithm.shortestPath(campus, st, ed);
-		// {{ Inv: for each edge in route that we have seen so far, it has been added to path
+		// {{ Inv: for each step in route that we have seen so far, it has been added to path
 		//		as a new double[] with the 0th index as the X coordinate of the destination, 
 		//		the 1st index as the Y coordinate of the destination, and the 2nd index as the
 		//		distance to the destination }}
-		for (GraphEdge<Location, Double> edge : route) {
+		for (int i = 0; i < route.size(); i++) {
 			double[] data = new double[3];
-			Location b = edge.getNode().getData();
+			Location b = router.getData(route.getNode(i));
 			data[0] = b.getLocation().getX();
 			data[1] = b.getLocation().getY();
-			data[2] = edge.getLabel();
+			data[2] = route.getWeight(i);
 			path.add(data);
 		}
 		return path;
@@ -256,11 +1155,14 @@ public class Campus {
 	/**
 	 * Gets the buildings in the campus, sorted alphabetically by its abbreviated name
 	 * 
+	 * @throws IllegalStateException if loadCampusAsync is running and the LoadingPolicy is
+	 * 		FAIL_FAST
 	 * @return a Map&lt;String, String&gt; of buildings, where abbreviated names are mapped
 	 * 		to long names, sorted alphabetically by abbreviated names
 	 */
 	public Map<String, String> getBuildings() {
 		checkRep();
+		awaitLoading();
 		Map<String, String> buildings = new TreeMap<String, String>();
 		for (Location b: campusBuildings.values()) {
 			buildings.put(b.getShortName(), b.getLongName());
@@ -272,9 +1174,12 @@ public class Campus {
 	 * Gets the long name of a building from its abbreviated name
 	 * 
 	 * @param shortName The abbreviated name of the building
+	 * @throws IllegalStateException if loadCampusAsync is running and the LoadingPolicy is
+	 * 		FAIL_FAST
 	 * @return The long name of the building, or null if the building does not exist
 	 */
 	public String getLongName(String shortName) {
+		awaitLoading();
 		if (!campusBuildings.containsKey(shortName)) {
 			return null;
 		}
@@ -285,9 +1190,12 @@ public class Campus {
 	 * Gets the Location of a building from its abbreviated name
 	 * 
 	 * @param shortName The abbreviated name of the building
+	 * @throws IllegalStateException if loadCampusAsync is running and the LoadingPolicy is
+	 * 		FAIL_FAST
 	 * @return The Location of the building, or null if the building does not exist
 	 */
 	public Location getLocation(String shortName) {
+		awaitLoading();
 		return campusBuildings.get(shortName);
 	}
 	
@@ -298,5 +1206,8 @@ public class Campus {
 		assert(campus != null) : "campus is null";
 		assert(campusBuildings != null) : "campusBuildings is null";
 		assert(locations != null) : "locations is null";
+		assert(routing != null) : "routing is null";
+		assert(mode != null) : "mode is null";
+		assert(policy != null) : "policy is null";
 	}
 }
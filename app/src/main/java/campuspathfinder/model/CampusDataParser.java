@@ -3,13 +3,12 @@ package campuspathfinder.model;
 import java.io.*;
 import java.util.*;
 
-import com.opencsv.bean.CsvToBean;
-import com.opencsv.bean.CsvToBeanBuilder;
-
 
 /**
  * Methods to parse the campus data files, campus_paths.tsv and
- * campus_buildings.tsv. This uses the Open CSV library for parsing.
+ * campus_buildings.tsv. The columns are bound to fields as the Open CSV
+ * annotations on CampusPath and Location describe, by a RowBinder that
+ * resolves them once rather than by reflection on every row.
  */
 public class CampusDataParser {
 
@@ -24,9 +23,32 @@ public class CampusDataParser {
   public static List<CampusPath> parsePathData(String fileName)
       throws IOException {
     FileReader reader = new FileReader(fileName);
-    CsvToBean<CampusPath> csvToBean = new CsvToBeanBuilder<CampusPath>(reader)
-        .withType(CampusPath.class).withSeparator('\t').build();
-    return csvToBean.parse();
+    try {
+      return RowBinder.forType(CampusPath.class).parse(reader);
+    } finally {
+      reader.close();
+    }
+  }
+  
+  /**
+   * Returns the rows from the given file, each of which should match the shape
+   * defined by CampusPath, parsed on a pool of the given number of threads.
+   * The file is split into ranges of whole lines that are parsed at once and
+   * joined in the order of the file.
+   * @param fileName Path to the TSV file to read. (This should be a relative
+   *     path from the root directory.)
+   * @param parallelism The number of threads to parse with.
+   * @throws IOException if any I/O error occurs reading the file
+   * @throws IllegalArgumentException if parallelism &lt;= 0
+   * @return List of CampusPath objects, one describing each row, in the same
+   *     order AndroidParser.parsePathData gives them.
+   */
+  public static List<CampusPath> parsePathData(String fileName, int parallelism)
+      throws IOException {
+    if (parallelism <= 0) {
+      throw new IllegalArgumentException("parallelism is not positive");
+    }
+    return ChunkedPathParser.parse(fileName, parallelism);
   }
   
   /**
@@ -40,9 +62,11 @@ public class CampusDataParser {
   public static List<Location> parseBuildingData(String fileName) 
   	throws IOException {
 	  FileReader reader = new FileReader(fileName);
-	  CsvToBean<Location> csvToBean = new CsvToBeanBuilder<Location>(reader)
-			  .withType(Location.class).withSeparator('\t').build();
-	  return csvToBean.parse();
+	  try {
+		  return RowBinder.forType(Location.class).parse(reader);
+	  } finally {
+		  reader.close();
+	  }
   }
 
 }
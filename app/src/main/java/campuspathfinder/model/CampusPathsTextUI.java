@@ -3,6 +3,7 @@ package campuspathfinder.model;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.io.Reader;
@@ -12,6 +13,11 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.StringTokenizer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiConsumer;
 
 
 /**
@@ -46,8 +52,11 @@ public class CampusPathsTextUI {
 	//writes output
 	private final PrintWriter output;
 	
-	//the campus
-	private Campus campus;
+	//the campus, loaded in the background while the menu is shown
+	private final Campus campus;
+	
+	//completes once the campus has loaded
+	private final CompletableFuture<Campus> loaded;
 	
 	//file path to read from
 	private final String FILE_PATH = "../cse331-19wi-tane1999/src/main/resources/hw8/";
@@ -57,10 +66,10 @@ public class CampusPathsTextUI {
 	 * 
 	 * @param r The Reader to read from
 	 * @param w The Writer to write to
-	 * @throws IOException If there are any I/O problems reading the files
-	 * @spec.effects Constructs a new CampusPathsTextUI object
+	 * @spec.effects Constructs a new CampusPathsTextUI object, and starts loading the
+	 * 		campus in the background
 	 */
-	public CampusPathsTextUI(Reader r, Writer w) throws IOException {
+	public CampusPathsTextUI(Reader r, Writer w) {
 		this(r, w, "campus_buildings_new.tsv", "campus_paths.tsv");
 	}
 	
@@ -71,20 +80,28 @@ public class CampusPathsTextUI {
 	 * @param w The Writer to write to
 	 * @param building The building file to read from
 	 * @param path The path file to read from
-	 * @throws IOException If there are any I/O problems reading the files
-	 * @spec.effects Constructs a new CampusPathsTextUI object
+	 * @spec.effects Constructs a new CampusPathsTextUI object, and starts loading the
+	 * 		campus in the background, parsing the two files at the same time
 	 */
-	public CampusPathsTextUI(Reader r, Writer w, String building, String path) throws IOException {
+	public CampusPathsTextUI(Reader r, Writer w, String building, String path) {
 		input = new BufferedReader(r);
 		output = new PrintWriter(w);
 		campus = new Campus();
-		campus.loadCampus(FILE_PATH + building, FILE_PATH + path);
+		final ExecutorService loader = Executors.newFixedThreadPool(2);
+		loaded = campus.loadCampusAsync(FILE_PATH + building, FILE_PATH + path, loader);
+		loaded.whenComplete(new BiConsumer<Campus, Throwable>() {
+			@Override
+			public void accept(Campus result, Throwable error) {
+				loader.shutdown();
+			}
+		});
 	}
 	
 	/**
 	 * Runs the program by continuously reading inputs until the quit command
 	 * 
-	 * @throws IOException If there are any I/O problems
+	 * @throws IOException If there are any I/O problems, including reading the files
+	 * 		the campus is loaded from
 	 */
 	public void runFinder() throws IOException {
 		String inputLine;
@@ -137,8 +154,10 @@ public class CampusPathsTextUI {
 			if (command.equals("m")) {
 				printMenu();
 			} else if (command.equals("r")) {
+				awaitCampus();
 				route();
 			} else if (command.equals("b")) {
+				awaitCampus();
 				list();
 			} else {
 				output.println("Unknown option");
@@ -151,6 +170,29 @@ public class CampusPathsTextUI {
 		output.flush();
 	}
 	
+	/**
+	 * Waits for the campus to finish loading
+	 * 
+	 * @throws IOException If there were any I/O problems reading the files, or the wait
+	 * 		was interrupted
+	 */
+	private void awaitCampus() throws IOException {
+		try {
+			loaded.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("interrupted while loading the campus");
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IOException("could not load the campus", e.getCause());
+		}
+	}
+	
 	/**
 	 * Prints the menu for commands
 	 */
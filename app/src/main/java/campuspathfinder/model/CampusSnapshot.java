@@ -0,0 +1,569 @@
+package campuspathfinder.model;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+
+/**
+ * A CampusSnapshot is a campus decoded from its compact binary form, which holds the
+ * buildings, the table of coordinates, and the paths with primitive weights, so that
+ * Campus.loadCampus can load it without parsing any text.
+ *
+ * A snapshot is made from campus_buildings_new.tsv and campus_paths.tsv, ahead of time,
+ * by running this class:
+ *
+ * <pre>java campuspathfinder.model.CampusSnapshot buildings.tsv paths.tsv snapshot.bin</pre>
+ *
+ * The snapshot is laid out in big-endian order as
+ * <pre>
+ * header:  int MAGIC, int VERSION, int CRC32 of the building file,
+ *          int CRC32 of the path file, int payload length, int CRC32 of the payload
+ * payload: int nodes, int buildings, int edges,
+ *          double x of each node, double y of each node,
+ *          the short and long name of each building, each an int length and UTF-8 bytes,
+ *          int first edge of each node and one past the last edge of the last node,
+ *          int destination of each edge, double weight of each edge
+ * </pre>
+ * The first nodes are the buildings, in the order of the building file, and the rest
+ * are the unnamed points paths meet at, in the order they first appear in the path
+ * file. The edges of each node are in the order of the path file. A snapshot whose
+ * magic number, version, length or checksum does not match is rejected, so one made
+ * in an older format or damaged is never loaded. When it is read along with the files
+ * it should have been made from, a snapshot made from any other files is rejected as
+ * well, so one left behind after the files change is never loaded either.
+ *
+ * Specification fields:
+ * 		@specfield nodes : List&lt;Coordinate&gt; // The point of every node
+ * 		@specfield buildings : List&lt;(String, String)&gt; // The short and long name of
+ * 											// each of the first nodes
+ * 		@specfield edges : List&lt;(int, int, double)&gt; // (start, end, distance) of
+ * 											// every path
+ *
+ */
+public final class CampusSnapshot {
+
+	/*Abstraction Function:
+	 * A CampusSnapshot, s, has a node at (x[i], y[i]) for each 0 <= i < x.length, the
+	 * first shortNames.length of which are buildings named shortNames[i] and
+	 * longNames[i], and an edge from i to targets[e] of distance weights[e] for each
+	 * offsets[i] <= e < offsets[i + 1]
+	 *
+	 * Representation Invariant:
+	 * x.length == y.length && shortNames.length == longNames.length <= x.length
+	 * && offsets.length == x.length + 1 && offsets[0] == 0 && offsets is non-decreasing
+	 * && offsets[x.length] == targets.length == weights.length
+	 * && 0 <= targets[e] < x.length for every e
+	 *
+	 */
+
+	//the first bytes of every snapshot, "CPSN"
+	public static final int MAGIC = 0x4350534E;
+
+	//the version of the layout written and read, raised whenever the layout changes
+	public static final int VERSION = 2;
+
+	//bytes in the header before the payload
+	private static final int HEADER_SIZE = 24;
+
+	//x coordinate of each node
+	final double[] x;
+
+	//y coordinate of each node
+	final double[] y;
+
+	//short name of each building
+	final String[] shortNames;
+
+	//long name of each building
+	final String[] longNames;
+
+	//first index into targets of each node, with one extra entry holding its length
+	final int[] offsets;
+
+	//destination of each edge, grouped by start
+	final int[] targets;
+
+	//distance of each edge
+	final double[] weights;
+
+	/**
+	 * @spec.effects Constructs a new CampusSnapshot of the given arrays, which it keeps
+	 */
+	private CampusSnapshot(double[] x, double[] y, String[] shortNames, String[] longNames,
+			int[] offsets, int[] targets, double[] weights) {
+		this.x = x;
+		this.y = y;
+		this.shortNames = shortNames;
+		this.longNames = longNames;
+		this.offsets = offsets;
+		this.targets = targets;
+		this.weights = weights;
+		checkRep();
+	}
+
+	/**
+	 * Makes a snapshot from the given files, exiting with status 1 if it cannot
+	 *
+	 * @param args The building file, the path file, and the file to write the snapshot to
+	 */
+	public static void main(String[] args) {
+		if (args.length != 3) {
+			System.err.println("Usage: CampusSnapshot buildings.tsv paths.tsv snapshot.bin");
+			System.exit(1);
+		}
+		try {
+			InputStream buildings = new FileInputStream(args[0]);
+			try {
+				InputStream paths = new FileInputStream(args[1]);
+				try {
+					OutputStream out = new FileOutputStream(args[2]);
+					try {
+						write(buildings, paths, out);
+					} finally {
+						out.close();
+					}
+				} finally {
+					paths.close();
+				}
+			} finally {
+				buildings.close();
+			}
+		} catch (IOException e) {
+			System.err.println(e.toString());
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Writes the snapshot of the campus the given files describe
+	 *
+	 * @param buildings The building file, in the shape defined by Location, which is
+	 * 		read to its end
+	 * @param paths The path file, in the shape defined by CampusPath, which is read to
+	 * 		its end
+	 * @param out The stream to write the snapshot to
+	 * @spec.requires buildings, paths and out are not null
+	 * @throws IOException if any I/O error occurs reading the files or writing out
+	 * @spec.effects writes to out a snapshot that loads as the same campus
+	 * 		Campus.loadCampus(buildings, paths) loads
+	 */
+	public static void write(InputStream buildings, InputStream paths, OutputStream out)
+			throws IOException {
+		final Builder builder = new Builder();
+		CheckedInputStream buildingBytes = new CheckedInputStream(buildings, new CRC32());
+		CheckedInputStream pathBytes = new CheckedInputStream(paths, new CRC32());
+		AndroidParser.parseBuildingData(buildingBytes, new AndroidParser.RowConsumer<Location>() {
+			@Override
+			public void accept(Location building) {
+				builder.addBuilding(building);
+			}
+		});
+		AndroidParser.parsePathData(pathBytes, new AndroidParser.RowConsumer<CampusPath>() {
+			@Override
+			public void accept(CampusPath path) {
+				builder.addPath(path);
+			}
+		});
+		byte[] payload = builder.build().encode();
+		CRC32 crc = new CRC32();
+		crc.update(payload, 0, payload.length);
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		header.putInt(MAGIC).putInt(VERSION)
+				.putInt(checksum(buildingBytes)).putInt(checksum(pathBytes))
+				.putInt(payload.length).putInt((int) crc.getValue());
+		out.write(header.array());
+		out.write(payload);
+		out.flush();
+	}
+
+	/**
+	 * Reads a whole snapshot from the given stream
+	 *
+	 * @param in The stream holding the snapshot, which is read to its end
+	 * @spec.requires in != null
+	 * @throws IOException if any I/O error occurs reading in, or it does not hold a
+	 * 		snapshot of this version with a matching checksum
+	 * @return the snapshot in
+	 */
+	static CampusSnapshot read(InputStream in) throws IOException {
+		return read(ByteBuffer.wrap(readAll(in)), null);
+	}
+
+	/**
+	 * Reads a whole snapshot from the given stream, checking that it was made from the
+	 * given files
+	 *
+	 * @param in The stream holding the snapshot, which is read to its end
+	 * @param buildings The building file the snapshot should be made from, which is
+	 * 		read to its end
+	 * @param paths The path file the snapshot should be made from, which is read to
+	 * 		its end
+	 * @spec.requires in, buildings and paths are not null
+	 * @throws IOException if any I/O error occurs reading the streams, or in does not
+	 * 		hold a snapshot of this version with a matching checksum made from buildings
+	 * 		and paths
+	 * @return the snapshot in
+	 */
+	static CampusSnapshot read(InputStream in, InputStream buildings, InputStream paths)
+			throws IOException {
+		byte[] bytes = readAll(in);
+		CheckedInputStream buildingBytes = new CheckedInputStream(buildings, new CRC32());
+		CheckedInputStream pathBytes = new CheckedInputStream(paths, new CRC32());
+		int[] sources = {checksum(buildingBytes), checksum(pathBytes)};
+		return read(ByteBuffer.wrap(bytes), sources);
+	}
+
+	/**
+	 * Reads a snapshot from the given buffer
+	 *
+	 * @param buffer The buffer holding the snapshot from its position to its limit
+	 * @spec.requires buffer != null
+	 * @spec.modifies buffer's position
+	 * @throws IOException if buffer does not hold a snapshot of this version with a
+	 * 		matching checksum
+	 * @return the snapshot in buffer
+	 */
+	static CampusSnapshot read(ByteBuffer buffer) throws IOException {
+		return read(buffer, null);
+	}
+
+	/**
+	 * Reads a snapshot from the given buffer, checking the files it was made from if
+	 * their checksums are given
+	 *
+	 * @param buffer The buffer holding the snapshot from its position to its limit
+	 * @param sources The CRC32 of the building file and then of the path file the
+	 * 		snapshot should be made from, or null to accept any
+	 * @spec.requires buffer != null
+	 * @spec.modifies buffer's position
+	 * @throws IOException if buffer does not hold a snapshot of this version with a
+	 * 		matching checksum, made from files with the given checksums
+	 * @return the snapshot in buffer
+	 */
+	private static CampusSnapshot read(ByteBuffer buffer, int[] sources) throws IOException {
+		ByteBuffer in = buffer.slice();
+		if (in.remaining() < HEADER_SIZE || in.getInt() != MAGIC) {
+			throw new IOException("not a campus snapshot");
+		}
+		int version = in.getInt();
+		if (version != VERSION) {
+			throw new IOException("campus snapshot is version " + version + ", expected "
+					+ VERSION);
+		}
+		int buildingChecksum = in.getInt();
+		int pathChecksum = in.getInt();
+		if (sources != null && (buildingChecksum != sources[0] || pathChecksum != sources[1])) {
+			throw new IOException("campus snapshot was made from other files");
+		}
+		int length = in.getInt();
+		int checksum = in.getInt();
+		if (length < 0 || length != in.remaining()) {
+			throw new IOException("campus snapshot holds " + in.remaining()
+					+ " bytes, expected " + length);
+		}
+		CRC32 crc = new CRC32();
+		crc.update(in.duplicate());
+		if ((int) crc.getValue() != checksum) {
+			throw new IOException("campus snapshot checksum does not match");
+		}
+		try {
+			CampusSnapshot snapshot = decode(in);
+			buffer.position(buffer.position() + HEADER_SIZE + length);
+			return snapshot;
+		} catch (BufferUnderflowException | IllegalStateException
+				| IllegalArgumentException | NegativeArraySizeException e) {
+			throw new IOException("campus snapshot is malformed", e);
+		}
+	}
+
+	/**
+	 * Reads the given stream to its end
+	 *
+	 * @param in The stream to read
+	 * @spec.requires in != null
+	 * @throws IOException if any I/O error occurs reading in
+	 * @return the bytes of in
+	 */
+	private static byte[] readAll(InputStream in) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		byte[] chunk = new byte[1 << 16];
+		int read;
+		while ((read = in.read(chunk)) != -1) {
+			bytes.write(chunk, 0, read);
+		}
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Reads the rest of the given stream and returns the checksum of every byte read
+	 * through it
+	 *
+	 * @param in The stream to finish reading
+	 * @spec.requires in != null
+	 * @throws IOException if any I/O error occurs reading in
+	 * @return the CRC32 of all of in
+	 */
+	private static int checksum(CheckedInputStream in) throws IOException {
+		byte[] chunk = new byte[1 << 16];
+		while (in.read(chunk) != -1) {
+			//only the checksum is needed
+		}
+		return (int) in.getChecksum().getValue();
+	}
+
+	/**
+	 * Decodes a payload
+	 *
+	 * @param in The buffer holding the payload from its position
+	 * @spec.modifies in's position
+	 * @throws BufferUnderflowException if in ends before the payload does
+	 * @throws IllegalStateException if the arrays of the payload do not fit together
+	 * @return the snapshot the payload holds
+	 */
+	private static CampusSnapshot decode(ByteBuffer in) {
+		int nodes = in.getInt();
+		int buildings = in.getInt();
+		int edges = in.getInt();
+		double[] x = new double[nodes];
+		double[] y = new double[nodes];
+		in.asDoubleBuffer().get(x);
+		in.position(in.position() + 8 * nodes);
+		in.asDoubleBuffer().get(y);
+		in.position(in.position() + 8 * nodes);
+		String[] shortNames = new String[buildings];
+		String[] longNames = new String[buildings];
+		for (int i = 0; i < buildings; i++) {
+			shortNames[i] = getString(in);
+			longNames[i] = getString(in);
+		}
+		int[] offsets = new int[nodes + 1];
+		int[] targets = new int[edges];
+		double[] weights = new double[edges];
+		in.asIntBuffer().get(offsets);
+		in.position(in.position() + 4 * offsets.length);
+		in.asIntBuffer().get(targets);
+		in.position(in.position() + 4 * edges);
+		in.asDoubleBuffer().get(weights);
+		in.position(in.position() + 8 * edges);
+		return new CampusSnapshot(x, y, shortNames, longNames, offsets, targets, weights);
+	}
+
+	/**
+	 * Returns the encoded form of this, without the header
+	 *
+	 * @return the payload bytes of this
+	 */
+	private byte[] encode() {
+		byte[][] shortBytes = new byte[shortNames.length][];
+		byte[][] longBytes = new byte[longNames.length][];
+		int size = 12 + 16 * x.length + 4 * offsets.length + 12 * targets.length;
+		for (int i = 0; i < shortNames.length; i++) {
+			shortBytes[i] = shortNames[i].getBytes(StandardCharsets.UTF_8);
+			longBytes[i] = longNames[i].getBytes(StandardCharsets.UTF_8);
+			size += 8 + shortBytes[i].length + longBytes[i].length;
+		}
+		ByteBuffer out = ByteBuffer.allocate(size);
+		out.putInt(x.length).putInt(shortNames.length).putInt(targets.length);
+		for (double value : x) {
+			out.putDouble(value);
+		}
+		for (double value : y) {
+			out.putDouble(value);
+		}
+		for (int i = 0; i < shortNames.length; i++) {
+			out.putInt(shortBytes[i].length).put(shortBytes[i]);
+			out.putInt(longBytes[i].length).put(longBytes[i]);
+		}
+		for (int offset : offsets) {
+			out.putInt(offset);
+		}
+		for (int target : targets) {
+			out.putInt(target);
+		}
+		for (double weight : weights) {
+			out.putDouble(weight);
+		}
+		return out.array();
+	}
+
+	/**
+	 * Reads a String written as its length and UTF-8 bytes
+	 *
+	 * @param in The buffer to read from
+	 * @spec.modifies in's position
+	 * @throws BufferUnderflowException if in ends before the String does
+	 * @return the String
+	 */
+	private static String getString(ByteBuffer in) {
+		byte[] bytes = new byte[in.getInt()];
+		in.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Gathers the nodes and edges of a campus as its rows are parsed, numbering nodes
+	 * the way Campus adds them
+	 */
+	private static class Builder {
+
+		//the node at each point, the last building there if there are several
+		private final Map<Coordinate, Integer> ids = new HashMap<Coordinate, Integer>();
+
+		//x, y of each node, in pairs
+		private double[] points = new double[256];
+
+		//the number of nodes
+		private int nodes;
+
+		//the buildings added, in order
+		private String[] names = new String[128];
+
+		//the number of buildings
+		private int buildings;
+
+		//start and end of each edge, in pairs
+		private int[] ends = new int[256];
+
+		//distance of each edge
+		private double[] distances = new double[128];
+
+		//the number of edges
+		private int edges;
+
+		/**
+		 * Adds a building as the next node
+		 *
+		 * @param building The building to add
+		 * @spec.requires no path has been added yet
+		 */
+		void addBuilding(Location building) {
+			if (2 * buildings + 1 >= names.length) {
+				names = Arrays.copyOf(names, names.length * 2);
+			}
+			names[2 * buildings] = building.getShortName();
+			names[2 * buildings + 1] = building.getLongName();
+			buildings++;
+			ids.put(building.getLocation(), addNode(building.getLocation()));
+		}
+
+		/**
+		 * Adds an edge for a path, adding a node at each end that has none
+		 *
+		 * @param path The path to add
+		 */
+		void addPath(CampusPath path) {
+			int start = nodeAt(path.getOrigin());
+			int end = nodeAt(path.getDestination());
+			if (2 * edges + 1 >= ends.length) {
+				ends = Arrays.copyOf(ends, ends.length * 2);
+				distances = Arrays.copyOf(distances, distances.length * 2);
+			}
+			ends[2 * edges] = start;
+			ends[2 * edges + 1] = end;
+			distances[edges] = path.getDistance();
+			edges++;
+		}
+
+		/**
+		 * Returns the node at the given point, adding one if there is none
+		 *
+		 * @param point The point of the node
+		 * @return the id of the node at point
+		 */
+		private int nodeAt(Coordinate point) {
+			Integer id = ids.get(point);
+			if (id == null) {
+				id = addNode(point);
+				ids.put(point, id);
+			}
+			return id;
+		}
+
+		/**
+		 * Adds a node at the given point
+		 *
+		 * @param point The point of the node
+		 * @return the id of the new node
+		 */
+		private int addNode(Coordinate point) {
+			if (2 * nodes + 1 >= points.length) {
+				points = Arrays.copyOf(points, points.length * 2);
+			}
+			points[2 * nodes] = point.getX();
+			points[2 * nodes + 1] = point.getY();
+			return nodes++;
+		}
+
+		/**
+		 * Returns the snapshot of what has been added, with the edges grouped by start
+		 * in the order they were added
+		 *
+		 * @return a new CampusSnapshot
+		 */
+		CampusSnapshot build() {
+			double[] x = new double[nodes];
+			double[] y = new double[nodes];
+			for (int i = 0; i < nodes; i++) {
+				x[i] = points[2 * i];
+				y[i] = points[2 * i + 1];
+			}
+			String[] shortNames = new String[buildings];
+			String[] longNames = new String[buildings];
+			for (int i = 0; i < buildings; i++) {
+				shortNames[i] = names[2 * i];
+				longNames[i] = names[2 * i + 1];
+			}
+			int[] offsets = new int[nodes + 1];
+			for (int e = 0; e < edges; e++) {
+				offsets[ends[2 * e] + 1]++;
+			}
+			for (int i = 0; i < nodes; i++) {
+				offsets[i + 1] += offsets[i];
+			}
+			int[] next = Arrays.copyOf(offsets, nodes);
+			int[] targets = new int[edges];
+			double[] weights = new double[edges];
+			// {{ Inv: every edge before e has been placed after the earlier edges of its start }}
+			for (int e = 0; e < edges; e++) {
+				int slot = next[ends[2 * e]]++;
+				targets[slot] = ends[2 * e + 1];
+				weights[slot] = distances[e];
+			}
+			return new CampusSnapshot(x, y, shortNames, longNames, offsets, targets, weights);
+		}
+	}
+
+	/**
+	 * Checks representation of this
+	 * @throws IllegalStateException if rep invariant is not satisfied
+	 */
+	private void checkRep() {
+		if (x.length != y.length || shortNames.length != longNames.length
+				|| shortNames.length > x.length || offsets.length != x.length + 1
+				|| offsets[0] != 0 || offsets[x.length] != targets.length
+				|| targets.length != weights.length) {
+			throw new IllegalStateException("snapshot arrays do not match");
+		}
+		for (int i = 0; i < x.length; i++) {
+			if (offsets[i] > offsets[i + 1]) {
+				throw new IllegalStateException("edge offsets are not in order");
+			}
+		}
+		for (int target : targets) {
+			if (target < 0 || target >= x.length) {
+				throw new IllegalStateException("edge leads to no node");
+			}
+		}
+	}
+}
@@ -0,0 +1,269 @@
+package campuspathfinder.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Parses a campus paths file on several threads. The rows after the header are split
+ * into byte ranges that each start and end on a line boundary, each range is parsed on
+ * its own by a task on a ForkJoinPool, and the rows of the ranges are handed on in the
+ * order of the ranges, so they are the same rows, in the same order, that
+ * AndroidParser.parsePathData gives for the file. Only a few ranges are parsed ahead
+ * of the one being handed on, and each is dropped once its rows are handed on, so the
+ * rows of the whole file are never held at once.
+ *
+ * Line boundaries are found in the raw bytes, so the file must be in a charset that
+ * encodes '\n' and '\r' as the single bytes ASCII does, as UTF-8 and the ISO-8859
+ * charsets do. Each range is decoded with the platform's default charset.
+ *
+ * <p>This is not an ADT.</p>
+ */
+class ChunkedPathParser {
+
+	//the most bytes a single range holds, unless one line is longer
+	static final int MAX_CHUNK = 8 << 20;
+
+	//bytes read at a time when looking for the end of a line
+	private static final int PROBE_SIZE = 4096;
+
+	//ranges parsed ahead of the one being handed on, for each thread
+	private static final int CHUNKS_AHEAD = 2;
+
+	/**
+	 * Parses the rows of one byte range of the file
+	 */
+	static class ChunkTask extends RecursiveTask<List<CampusPath>> {
+
+		private static final long serialVersionUID = 1L;
+
+		//the open file, read with positional reads so that tasks can share it
+		private final FileChannel channel;
+
+		//the offset of the first byte of the range
+		private final long from;
+
+		//one past the offset of the last byte of the range
+		private final long to;
+
+		/**
+		 * @param channel The file to read
+		 * @param from The offset of the first byte of the range, the start of a line
+		 * @param to One past the offset of the last byte of the range, the start of a
+		 * 		line or the end of the file
+		 * @spec.effects Constructs a new ChunkTask over the given range
+		 */
+		ChunkTask(FileChannel channel, long from, long to) {
+			this.channel = channel;
+			this.from = from;
+			this.to = to;
+		}
+
+		/**
+		 * Parses the rows of the range
+		 *
+		 * @throws UncheckedIOException if any I/O error occurs reading the file
+		 * @return List of one CampusPath for each row of the range, in order
+		 */
+		@Override
+		protected List<CampusPath> compute() {
+			try {
+				ByteBuffer bytes = ByteBuffer.allocate((int) (to - from));
+				readFully(channel, bytes, from);
+				TsvTokenizer tokens = new TsvTokenizer(new InputStreamReader(
+						new ByteArrayInputStream(bytes.array())));
+				final List<CampusPath> paths = new ArrayList<CampusPath>();
+				AndroidParser.parsePathRows(tokens, new AndroidParser.RowConsumer<CampusPath>() {
+					@Override
+					public void accept(CampusPath path) {
+						paths.add(path);
+					}
+				});
+				return paths;
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+
+	/**
+	 * Returns the rows of the given paths file, parsed on a pool of the given number
+	 * of threads
+	 *
+	 * @param fileName The path of the TSV file to read
+	 * @param parallelism The number of threads to parse with
+	 * @spec.requires fileName != null and parallelism &gt; 0
+	 * @throws IOException if any I/O error occurs reading the file
+	 * @throws NumberFormatException if a coordinate or distance is not a number
+	 * @return List of CampusPath objects, one describing each row after the header,
+	 * 		in the order of the file
+	 */
+	static List<CampusPath> parse(String fileName, int parallelism) throws IOException {
+		final List<CampusPath> paths = new ArrayList<CampusPath>();
+		parse(fileName, parallelism, new AndroidParser.RowConsumer<CampusPath>() {
+			@Override
+			public void accept(CampusPath path) {
+				paths.add(path);
+			}
+		});
+		return paths;
+	}
+
+	/**
+	 * Parses the rows of the given paths file on a pool of the given number of
+	 * threads, handing each to consumer on the calling thread in the order of the file
+	 *
+	 * @param fileName The path of the TSV file to read
+	 * @param parallelism The number of threads to parse with
+	 * @param consumer Takes each CampusPath, one describing each row after the header
+	 * @spec.requires fileName != null, parallelism &gt; 0 and consumer != null
+	 * @throws IOException if any I/O error occurs reading the file
+	 * @throws NumberFormatException if a coordinate or distance is not a number
+	 */
+	static void parse(String fileName, int parallelism,
+			AndroidParser.RowConsumer<CampusPath> consumer) throws IOException {
+		FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ);
+		try {
+			long[] bounds = chunkBounds(channel, parallelism);
+			ChunkTask[] tasks = new ChunkTask[bounds.length - 1];
+			int ahead = parallelism * CHUNKS_AHEAD;
+			ForkJoinPool pool = new ForkJoinPool(parallelism);
+			try {
+				int submitted = 0;
+				// {{ Inv: the rows of every range before i have been handed to consumer in
+				//		order, and tasks[i],...,tasks[submitted - 1] are on the pool }}
+				for (int i = 0; i < tasks.length; i++) {
+					for (; submitted < tasks.length && submitted <= i + ahead; submitted++) {
+						tasks[submitted] = new ChunkTask(channel, bounds[submitted],
+								bounds[submitted + 1]);
+						pool.execute(tasks[submitted]);
+					}
+					List<CampusPath> rows = tasks[i].join();
+					tasks[i] = null;
+					for (CampusPath path : rows) {
+						consumer.accept(path);
+					}
+				}
+			} catch (UncheckedIOException e) {
+				throw e.getCause();
+			} finally {
+				pool.shutdownNow();
+			}
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * Splits the rows of a file after its header into ranges of about equal size,
+	 * each starting on a line boundary
+	 *
+	 * @param channel The file to split
+	 * @param parallelism The number of threads that will parse the ranges
+	 * @throws IOException if any I/O error occurs reading the file
+	 * @return the offsets of the range boundaries in ascending order, the first being
+	 * 		the start of the line after the header and the last the size of the file,
+	 * 		with no offset repeated
+	 */
+	static long[] chunkBounds(FileChannel channel, int parallelism) throws IOException {
+		long size = channel.size();
+		long start = lineAfter(channel, 0);
+		long span = size - start;
+		long chunks = Math.max((long) parallelism * 4, (span + MAX_CHUNK - 1) / MAX_CHUNK);
+		chunks = Math.max(1, Math.min(chunks, span));
+		List<Long> bounds = new ArrayList<Long>();
+		bounds.add(start);
+		// {{ Inv: bounds holds ascending line starts, the last of which is before the
+		//		nominal start of range i }}
+		for (long i = 1; i < chunks; i++) {
+			long bound = lineAfter(channel, start + span * i / chunks);
+			if (bound > bounds.get(bounds.size() - 1) && bound < size) {
+				bounds.add(bound);
+			}
+		}
+		if (size > start) {
+			bounds.add(size);
+		}
+		long[] result = new long[bounds.size()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = bounds.get(i);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the start of the first line that begins at or after the given offset.
+	 * A line boundary is right after a '\n', or after a '\r' not followed by '\n'
+	 *
+	 * @param channel The file to search
+	 * @param offset The offset to search from
+	 * @throws IOException if any I/O error occurs reading the file
+	 * @return the smallest line start &gt;= offset, or the size of the file if no line
+	 * 		starts at or after offset
+	 */
+	static long lineAfter(FileChannel channel, long offset) throws IOException {
+		long size = channel.size();
+		if (offset == 0) {
+			//the header is always skipped, so the first line never starts the file
+			offset = 1;
+		}
+		long pos = offset - 1;
+		ByteBuffer probe = ByteBuffer.allocate(PROBE_SIZE);
+		// {{ Inv: no byte from offset - 1 to before pos is '\n' or '\r' }}
+		while (pos < size) {
+			probe.clear();
+			probe.limit((int) Math.min(PROBE_SIZE, size - pos));
+			readFully(channel, probe, pos);
+			for (int i = 0; i < probe.limit(); i++) {
+				byte b = probe.get(i);
+				if (b == '\n') {
+					return pos + i + 1;
+				} else if (b == '\r') {
+					long end = pos + i + 1;
+					if (end < size) {
+						ByteBuffer one = ByteBuffer.allocate(1);
+						readFully(channel, one, end);
+						if (one.get(0) == '\n') {
+							end++;
+						}
+					}
+					return end;
+				}
+			}
+			pos += probe.limit();
+		}
+		return size;
+	}
+
+	/**
+	 * Fills the remaining space of a buffer with bytes of the file from the given offset
+	 *
+	 * @param channel The file to read
+	 * @param buffer The buffer to fill
+	 * @param offset The offset of the first byte to read
+	 * @spec.modifies buffer
+	 * @throws IOException if any I/O error occurs reading the file, or it ends before
+	 * 		the buffer is full
+	 */
+	private static void readFully(FileChannel channel, ByteBuffer buffer, long offset)
+			throws IOException {
+		long position = offset;
+		while (buffer.hasRemaining()) {
+			int read = channel.read(buffer, position);
+			if (read < 0) {
+				throw new EOFException("file ended at " + position);
+			}
+			position += read;
+		}
+	}
+}
@@ -0,0 +1,309 @@
+package campuspathfinder.model;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * A CoAppearanceGraph is an immutable, compact form of the Marvel multigraph that
+ * DijkstrasAlgorithm.buildGraphFromFile makes, where two characters are joined by
+ * one edge in each direction for every book they appear in together, labeled with
+ * the title of the book.
+ *
+ * Instead of an object per edge, the characters and books are each given dense
+ * int ids in ascending order of name, and the graph is held in a few int arrays:
+ * the neighbors of each character, sorted, and for each neighbor the sorted ids of
+ * the books they share. Titles are held once, however many edges carry them. The
+ * queries of Graph and GraphNode are answered by read-only views over the arrays.
+ * A character listed more than once in a book is counted once, as CoOccurrenceBuilder
+ * does, so no edge joins a character to itself and no two edges are identical.
+ *
+ * Specification fields:
+ * 		@specfield nodes : List&lt;String&gt; // Names of every character, sorted
+ * 		@specfield edges : Set&lt;(String, String, String)&gt; // (character, character,
+ * 														// book) of every edge
+ *
+ */
+public class CoAppearanceGraph {
+
+	/*Abstraction Function:
+	 * A CoAppearanceGraph, g, has a node named names[c] for each 0 <= c < names.length.
+	 * The neighbors of c are neighbors[neighborOffsets[c]],...,
+	 * neighbors[neighborOffsets[c + 1] - 1], and for the neighbor at index s of
+	 * neighbors there is an edge from c to it labeled titles[b] for every b among
+	 * bookIds[bookOffsets[s]],...,bookIds[bookOffsets[s + 1] - 1]
+	 *
+	 * Representation Invariant:
+	 * names, titles, ids, neighborOffsets, neighbors, bookOffsets, bookIds != null
+	 * && names and titles are sorted with no repeats && ids maps names[c] to c
+	 * && neighborOffsets.length == names.length + 1 && neighborOffsets[0] == 0
+	 * && neighborOffsets[names.length] == neighbors.length
+	 * && bookOffsets.length == neighbors.length + 1 && bookOffsets[0] == 0
+	 * && bookOffsets[neighbors.length] == bookIds.length
+	 * && each run of neighbors and of bookIds is strictly ascending and non-empty
+	 * && the books between c and d are the books between d and c
+	 *
+	 */
+
+	//name of each character, indexed by id
+	private final String[] names;
+
+	//title of each book, indexed by id
+	private final String[] titles;
+
+	//maps the name of each character to its id
+	private final Map<String, Integer> ids;
+
+	//first index into neighbors of each character, with one extra entry holding its length
+	private final int[] neighborOffsets;
+
+	//ids of the characters each character shares a book with, grouped by character
+	private final int[] neighbors;
+
+	//first index into bookIds of each entry of neighbors, with one extra entry holding
+	//its length
+	private final int[] bookOffsets;
+
+	//ids of the books shared with each entry of neighbors, grouped by entry
+	private final int[] bookIds;
+
+	/**
+	 * @param characters Names of every character, each of which becomes a node
+	 * @param books Map from titles of comic books to characters that appear in them
+	 * @spec.requires characters != null, books != null, and every character in books
+	 * 		is in characters
+	 * @throws IllegalArgumentException if characters == null or books == null
+	 * @spec.effects Constructs a new CoAppearanceGraph with the same nodes and edges as
+	 * 		the Graph buildGraphFromFile makes from the file books was parsed from
+	 */
+	public CoAppearanceGraph(Set<String> characters, Map<String, List<String>> books) {
+		if (characters == null || books == null) {
+			throw new IllegalArgumentException("characters is null or books is null");
+		}
+		names = characters.toArray(new String[characters.size()]);
+		Arrays.sort(names);
+		ids = new HashMap<String, Integer>();
+		for (int c = 0; c < names.length; c++) {
+			ids.put(names[c], c);
+		}
+		titles = books.keySet().toArray(new String[books.size()]);
+		Arrays.sort(titles);
+
+		//the distinct, sorted character ids of each book, indexed by book id
+		int[][] casts = new int[titles.length][];
+		//first index into entries of each character, with one extra entry holding its length
+		int[] entryOffsets = new int[names.length + 1];
+		for (int b = 0; b < titles.length; b++) {
+			casts[b] = CoOccurrenceBuilder.castIds(books.get(titles[b]), ids);
+			for (int c : casts[b]) {
+				entryOffsets[c + 1] += casts[b].length - 1;
+			}
+		}
+		for (int c = 0; c < names.length; c++) {
+			entryOffsets[c + 1] += entryOffsets[c];
+		}
+		//(neighbor, book) of every edge, packed into one long so that sorting a
+		//character's entries sorts them by neighbor and then by book
+		long[] entries = new long[entryOffsets[names.length]];
+		int[] next = Arrays.copyOf(entryOffsets, names.length);
+		// {{ Inv: for every book before b, an entry has been made for each ordered pair
+		//		of distinct characters in its cast }}
+		for (int b = 0; b < titles.length; b++) {
+			int[] cast = casts[b];
+			for (int i = 0; i < cast.length; i++) {
+				for (int j = 0; j < cast.length; j++) {
+					if (i != j) {
+						entries[next[cast[i]]++] = ((long) cast[j] << 32) | b;
+					}
+				}
+			}
+		}
+
+		neighborOffsets = new int[names.length + 1];
+		int neighborCount = 0;
+		for (int c = 0; c < names.length; c++) {
+			Arrays.sort(entries, entryOffsets[c], entryOffsets[c + 1]);
+			for (int e = entryOffsets[c]; e < entryOffsets[c + 1]; e++) {
+				if (e == entryOffsets[c] || (entries[e] >>> 32) != (entries[e - 1] >>> 32)) {
+					neighborCount++;
+				}
+			}
+			neighborOffsets[c + 1] = neighborCount;
+		}
+		neighbors = new int[neighborCount];
+		bookOffsets = new int[neighborCount + 1];
+		bookIds = new int[entries.length];
+		int s = 0;
+		// {{ Inv: the entries of every character before c have been split into
+		//		neighbors, and bookIds[0],...,bookIds[e - 1] hold their books }}
+		for (int c = 0; c < names.length; c++) {
+			for (int e = entryOffsets[c]; e < entryOffsets[c + 1]; e++) {
+				int neighbor = (int) (entries[e] >>> 32);
+				if (e == entryOffsets[c] || neighbor != neighbors[s - 1]) {
+					neighbors[s] = neighbor;
+					bookOffsets[s] = e;
+					s++;
+				}
+				bookIds[e] = (int) entries[e];
+			}
+		}
+		bookOffsets[neighborCount] = entries.length;
+		checkRep();
+	}
+
+	/**
+	 * Returns the number of characters in the graph
+	 *
+	 * @return the number of nodes
+	 */
+	public int size() {
+		return names.length;
+	}
+
+	/**
+	 * Returns the number of edges in the graph, one for each direction between two
+	 * characters for each book they share
+	 *
+	 * @return the number of edges
+	 */
+	public int edgeCount() {
+		return bookIds.length;
+	}
+
+	/**
+	 * Returns the number of distinct books in the graph
+	 *
+	 * @return the number of books
+	 */
+	public int bookCount() {
+		return titles.length;
+	}
+
+	/**
+	 * Checks if a character is in the graph
+	 *
+	 * @param name The name of the character
+	 * @return true if and only if name is a node in the graph
+	 */
+	public boolean isNode(String name) {
+		return ids.containsKey(name);
+	}
+
+	/**
+	 * Returns a read-only list of the characters in the graph
+	 *
+	 * @return List&lt;String&gt; of the names of every node, sorted alphabetically
+	 */
+	public List<String> getNodes() {
+		return Collections.unmodifiableList(Arrays.asList(names));
+	}
+
+	/**
+	 * Returns a read-only view of the characters that share a book with the given one
+	 *
+	 * @param name The name of the character
+	 * @spec.requires isNode(name)
+	 * @return List&lt;String&gt; of the children of name, sorted alphabetically
+	 */
+	public List<String> getChildren(String name) {
+		final int c = ids.get(name);
+		return new AbstractList<String>() {
+			@Override
+			public String get(int index) {
+				if (index < 0 || index >= size()) {
+					throw new IndexOutOfBoundsException("index " + index);
+				}
+				return names[neighbors[neighborOffsets[c] + index]];
+			}
+
+			@Override
+			public int size() {
+				return neighborOffsets[c + 1] - neighborOffsets[c];
+			}
+		};
+	}
+
+	/**
+	 * Returns a read-only view of the books the two given characters appear in together
+	 *
+	 * @param start The name of one character
+	 * @param end The name of the other character
+	 * @spec.requires isNode(start) and isNode(end)
+	 * @return List&lt;String&gt; of the titles of the shared books, sorted alphabetically,
+	 * 		which is empty if they share none
+	 */
+	public List<String> getSharedBooks(String start, String end) {
+		int s = slotOf(ids.get(start), ids.get(end));
+		final int from = (s < 0) ? 0 : bookOffsets[s];
+		final int to = (s < 0) ? 0 : bookOffsets[s + 1];
+		return new AbstractList<String>() {
+			@Override
+			public String get(int index) {
+				if (index < 0 || index >= size()) {
+					throw new IndexOutOfBoundsException("index " + index);
+				}
+				return titles[bookIds[from + index]];
+			}
+
+			@Override
+			public int size() {
+				return to - from;
+			}
+		};
+	}
+
+	/**
+	 * Returns the edges from one character to another, as GraphNode.getEdgesFromNode
+	 * does for the graph buildGraphFromFile makes. The edges are made when this is
+	 * called, and point to a new GraphNode holding end with no edges of its own
+	 *
+	 * @param start The name of the character the edges leave from
+	 * @param end The name of the character the edges point to
+	 * @spec.requires isNode(start) and isNode(end)
+	 * @return Set&lt;GraphEdge&gt; of the edges from start to end, sorted
+	 * 		lexicographically by label, or null if no edge points to end
+	 */
+	public Set<GraphEdge<String, String>> getEdgesFromNode(String start, String end) {
+		List<String> shared = getSharedBooks(start, end);
+		if (shared.isEmpty()) {
+			return null;
+		}
+		GraphNode<String, String> node = new GraphNode<String, String>(end);
+		Set<GraphEdge<String, String>> edges = new TreeSet<GraphEdge<String, String>>();
+		for (String book : shared) {
+			edges.add(new GraphEdge<String, String>(book, node));
+		}
+		return edges;
+	}
+
+	/**
+	 * Returns the index into neighbors of one character's entry for another
+	 *
+	 * @param start The id of the character whose entries are searched
+	 * @param end The id of the neighbor to find
+	 * @return the index s with neighbors[s] == end among the entries of start, or a
+	 * 		negative number if end is not a neighbor of start
+	 */
+	private int slotOf(int start, int end) {
+		int s = Arrays.binarySearch(neighbors, neighborOffsets[start],
+				neighborOffsets[start + 1], end);
+		return (s < 0) ? -1 : s;
+	}
+
+	/**
+	 * Checks representation of this
+	 * @throws IllegalStateException if rep invariant is not satisfied
+	 */
+	private void checkRep() {
+		if (neighborOffsets.length != names.length + 1
+				|| bookOffsets.length != neighbors.length + 1
+				|| bookOffsets[neighbors.length] != bookIds.length) {
+			throw new IllegalStateException("graph arrays do not match");
+		}
+	}
+}
@@ -0,0 +1,220 @@
+package campuspathfinder.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Builds the weighted Marvel graph straight from the books each character appears
+ * in. Every pair of characters that appear together in n different books is joined
+ * by an edge of weight 1 / n in each direction.
+ *
+ * <p>This is not an ADT.</p>
+ */
+public class CoOccurrenceBuilder {
+
+	//most books a single counting task takes on before splitting its range in two
+	private static final int BOOKS_PER_TASK = 512;
+
+	/**
+	 * Counts the pairs of characters in a range of books, splitting the range across
+	 * the pool when it holds more than BOOKS_PER_TASK books. Each task counts into its
+	 * own PairCounter and the two halves are merged when both are done, so no counter
+	 * is shared between threads
+	 */
+	static class CountTask extends RecursiveTask<PairCounter> {
+
+		private static final long serialVersionUID = 1L;
+
+		//the distinct, sorted character ids of each book
+		private final List<int[]> casts;
+
+		//the index of the first book to count
+		private final int from;
+
+		//one past the index of the last book to count
+		private final int to;
+
+		//the number of characters, used to size counters
+		private final int characters;
+
+		/**
+		 * @param casts The distinct, sorted character ids of each book
+		 * @param from The index of the first book to count
+		 * @param to One past the index of the last book to count
+		 * @param characters The number of characters
+		 * @spec.effects Constructs a new CountTask over the given range of books
+		 */
+		CountTask(List<int[]> casts, int from, int to, int characters) {
+			this.casts = casts;
+			this.from = from;
+			this.to = to;
+			this.characters = characters;
+		}
+
+		/**
+		 * Counts the pairs of characters in the range of books
+		 *
+		 * @return a PairCounter holding the count of every pair in the range
+		 */
+		@Override
+		protected PairCounter compute() {
+			if (to - from <= BOOKS_PER_TASK) {
+				PairCounter counter = new PairCounter(characters);
+				countPairs(casts, from, to, counter);
+				return counter;
+			}
+			int mid = (from + to) >>> 1;
+			CountTask left = new CountTask(casts, from, mid, characters);
+			CountTask right = new CountTask(casts, mid, to, characters);
+			left.fork();
+			PairCounter counter = right.compute();
+			counter.addAll(left.join());
+			return counter;
+		}
+	}
+
+	/**
+	 * Returns a weighted graph of the given characters, where edges between characters
+	 * have labels that represent their "weight," or the inverse of the number of books
+	 * they appear in together
+	 *
+	 * @param characters Names of every character, each of which becomes a node
+	 * @param books Map from titles of comic books to characters that appear in them
+	 * @spec.requires characters != null, books != null, and every character in books
+	 * 		is in characters
+	 * @return A Graph&lt;String, Double&gt; of the characters, the same as the one
+	 * 		DijkstrasAlgorithm.buildGraph makes from the file books was parsed from
+	 */
+	public static Graph<String, Double> buildGraph(Set<String> characters,
+			Map<String, List<String>> books) {
+		return buildGraph(characters, books, 1);
+	}
+
+	/**
+	 * Returns a weighted graph of the given characters, where edges between characters
+	 * have labels that represent their "weight," or the inverse of the number of books
+	 * they appear in together. The books are counted on a pool of the given number of
+	 * threads
+	 *
+	 * @param characters Names of every character, each of which becomes a node
+	 * @param books Map from titles of comic books to characters that appear in them
+	 * @param parallelism The number of threads to count with
+	 * @spec.requires characters != null, books != null, every character in books
+	 * 		is in characters, and parallelism &gt; 0
+	 * @throws IllegalArgumentException if parallelism &lt;= 0
+	 * @return A Graph&lt;String, Double&gt; of the characters, identical to the one
+	 * 		buildGraph(characters, books) returns
+	 */
+	public static Graph<String, Double> buildGraph(Set<String> characters,
+			Map<String, List<String>> books, int parallelism) {
+		if (parallelism <= 0) {
+			throw new IllegalArgumentException("parallelism is not positive");
+		}
+		List<String> names = new ArrayList<String>(characters);
+		Collections.sort(names);
+		Map<String, Integer> ids = new HashMap<String, Integer>();
+		for (int i = 0; i < names.size(); i++) {
+			ids.put(names.get(i), i);
+		}
+		List<int[]> casts = new ArrayList<int[]>(books.size());
+		for (List<String> cast : books.values()) {
+			casts.add(castIds(cast, ids));
+		}
+		if (parallelism == 1) {
+			PairCounter counter = new PairCounter(names.size());
+			countPairs(casts, 0, casts.size(), counter);
+			return emitGraph(names, counter);
+		}
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			PairCounter counter = pool.invoke(
+					new CountTask(casts, 0, casts.size(), names.size()));
+			return emitGraph(names, counter);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Returns the distinct ids of the given characters, in ascending order
+	 *
+	 * @param cast The characters that appear in one book
+	 * @param ids Map from the name of each character to its id
+	 * @spec.requires every character in cast is in ids
+	 * @return a fresh sorted array of the ids of cast with no repeats
+	 */
+	static int[] castIds(List<String> cast, Map<String, Integer> ids) {
+		int[] members = new int[cast.size()];
+		for (int i = 0; i < members.length; i++) {
+			members[i] = ids.get(cast.get(i));
+		}
+		Arrays.sort(members);
+		int distinct = 0;
+		for (int i = 0; i < members.length; i++) {
+			if (i == 0 || members[i] != members[i - 1]) {
+				members[distinct++] = members[i];
+			}
+		}
+		return Arrays.copyOf(members, distinct);
+	}
+
+	/**
+	 * Counts every pair of characters that appear together in casts.get(from),...,
+	 * casts.get(to - 1)
+	 *
+	 * @param casts The distinct, sorted character ids of each book
+	 * @param from The index of the first book to count
+	 * @param to One past the index of the last book to count
+	 * @param counter The counter to add the pairs to
+	 * @spec.modifies counter
+	 * @spec.effects adds one to the count of each pair of characters for every book
+	 * 		in the range they both appear in
+	 */
+	static void countPairs(List<int[]> casts, int from, int to, PairCounter counter) {
+		// {{ Inv: every pair of characters in casts.get(from),...,casts.get(b - 1) has
+		//		been counted once for each of those books }}
+		for (int b = from; b < to; b++) {
+			int[] cast = casts.get(b);
+			for (int i = 0; i < cast.length; i++) {
+				for (int j = i + 1; j < cast.length; j++) {
+					counter.add(PairCounter.key(cast[i], cast[j]), 1);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns a graph with a node for every name and an edge of weight 1 / n in each
+	 * direction between each pair counted n times. Edges are added in ascending order
+	 * of pair, so equal counts always give identical graphs
+	 *
+	 * @param names Name of every character, indexed by id
+	 * @param counter The count of each pair of characters
+	 * @return A Graph&lt;String, Double&gt; of the weighted connections
+	 */
+	static Graph<String, Double> emitGraph(List<String> names, PairCounter counter) {
+		List<GraphNode<String, Double>> nodes = new ArrayList<GraphNode<String, Double>>();
+		for (String name : names) {
+			nodes.add(new GraphNode<String, Double>(name));
+		}
+		// {{ Inv: every pair of characters before key in sorted order has been joined
+		//		by an edge in each direction weighted by its count }}
+		for (long key : counter.sortedKeys()) {
+			double numConnections = counter.get(key);
+			double cost = 1.0 / numConnections;
+			GraphNode<String, Double> start = nodes.get(PairCounter.first(key));
+			GraphNode<String, Double> end = nodes.get(PairCounter.second(key));
+			start.addEdge(new WeightedEdge<String>(cost, end));
+			end.addEdge(new WeightedEdge<String>(cost, start));
+		}
+		return new Graph<String, Double>(new HashSet<GraphNode<String, Double>>(nodes));
+	}
+}
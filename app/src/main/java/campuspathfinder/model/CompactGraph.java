@@ -0,0 +1,344 @@
+package campuspathfinder.model;
+
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.util.*;
+
+/**
+ * A CompactGraph is an immutable snapshot of a Graph with Double labeled edges,
+ * meant for graphs that are only read after they are loaded.
+ *
+ * Every node is given a dense int id from 0 to size() - 1, in ascending order of
+ * the data each node holds, so that comparing ids compares nodes lexicographically.
+ * The edges are stored in compressed sparse row form: the outgoing edges of a node
+ * are numbered getEdgeStart(node) to getEdgeEnd(node) - 1, sorted by the id of the
+ * node they point to and then by weight. The same edges can also be walked backwards:
+ * the edges into a node are listed from getReverseEdgeStart(node) to
+ * getReverseEdgeEnd(node) - 1, sorted by the id of the node they leave from.
+ *
+ * The arrays are held in int and double buffers, which wrap arrays on the heap for a
+ * graph made from a Graph, and are views of a mapped file for a graph MappedGraph
+ * loads, so that a loaded graph is read straight from the file's pages. A graph
+ * loaded that way has no map from data to id; idOf searches the sorted nodes instead.
+ *
+ * @param <K> The key/name/data of a node/the data that a node holds
+ *
+ * Specification fields:
+ * 		@specfield nodes : List&lt;K&gt; // Data of every node, indexed by id
+ * 		@specfield edges : List&lt;(int, int, double)&gt; // (source, target, weight) of every
+ * 													 // edge, indexed by edge number
+ *
+ */
+public class CompactGraph<K extends Comparable<K>> {
+
+	/*Abstraction Function:
+	 * A CompactGraph, g, represents a directed graph whose node with id i holds
+	 * keys.get(i), and whose edge with number e goes from the node n with
+	 * offsets[n] <= e < offsets[n + 1] to the node targets[e] with weight weights[e],
+	 * where b[i] is b.get(i) for each buffer b
+	 *
+	 * Representation Invariant:
+	 * keys != null && offsets != null && targets != null && weights != null
+	 * && keys is sorted with no repeats && (ids == null || ids maps keys.get(i) to i)
+	 * && offsets.length == keys.size() + 1 && offsets[0] == 0
+	 * && offsets[keys.size()] == targets.length == weights.length
+	 * && for (0 <= i < keys.size(), offsets[i] <= offsets[i + 1])
+	 * && for (0 <= e < targets.length, 0 <= targets[e] < keys.size())
+	 * && sources.length == targets.length
+	 * && for (0 <= e < targets.length, offsets[sources[e]] <= e < offsets[sources[e] + 1])
+	 * && reverseOffsets.length == keys.size() + 1 && reverseEdges.length == targets.length
+	 * && for (0 <= n < keys.size(), reverseOffsets[n] <= i < reverseOffsets[n + 1],
+	 * 		targets[reverseEdges[i]] == n)
+	 *
+	 */
+
+	//data of each node, indexed by id
+	private final List<K> keys;
+
+	//maps the data of each node to its id, or null to search keys instead
+	private final Map<K, Integer> ids;
+
+	//first edge number of each node, with one extra entry holding the edge count
+	private final IntBuffer offsets;
+
+	//node each edge points to, indexed by edge number
+	private final IntBuffer targets;
+
+	//weight of each edge, indexed by edge number
+	private final DoubleBuffer weights;
+	
+	//node each edge leaves from, indexed by edge number
+	private final IntBuffer sources;
+	
+	//first index into reverseEdges of each node, with one extra entry holding the edge count
+	private final IntBuffer reverseOffsets;
+	
+	//numbers of the edges into each node, grouped by the node they point to
+	private final IntBuffer reverseEdges;
+
+	/**
+	 * @param graph The Graph to take a snapshot of
+	 * @spec.requires graph != null
+	 * @throws IllegalArgumentException if graph == null
+	 * @spec.effects Constructs a new CompactGraph holding the nodes and edges that graph
+	 * 		holds now. Edges that point to nodes no longer in graph are left out
+	 */
+	public CompactGraph(Graph<K, Double> graph) {
+		if (graph == null) {
+			throw new IllegalArgumentException("graph is null");
+		}
+		List<GraphNode<K, Double>> nodes = new ArrayList<GraphNode<K, Double>>(graph.getNodes());
+		Collections.sort(nodes);
+		List<K> keys = new ArrayList<K>(nodes.size());
+		ids = new HashMap<K, Integer>();
+		// {{ Inv: every node in nodes that we have seen so far has been given the next id }}
+		for (GraphNode<K, Double> node : nodes) {
+			ids.put(node.getData(), keys.size());
+			keys.add(node.getData());
+		}
+		this.keys = Collections.unmodifiableList(keys);
+
+		List<List<GraphEdge<K, Double>>> edges = new ArrayList<List<GraphEdge<K, Double>>>();
+		Comparator<GraphEdge<K, Double>> byTarget = new Comparator<GraphEdge<K, Double>>() {
+			@Override
+			public int compare(GraphEdge<K, Double> o1, GraphEdge<K, Double> o2) {
+				int t1 = ids.get(o1.getNode().getData());
+				int t2 = ids.get(o2.getNode().getData());
+				if (t1 != t2) {
+					return (t1 < t2) ? -1 : 1;
+				}
+				return Double.compare(WeightedEdge.weightOf(o1), WeightedEdge.weightOf(o2));
+			}
+		};
+		int[] offsets = new int[nodes.size() + 1];
+		// {{ Inv: for each node we have seen so far, its edges that point into graph
+		//		have been sorted into edges and offsets marks where they end }}
+		for (int i = 0; i < nodes.size(); i++) {
+			List<GraphEdge<K, Double>> out = new ArrayList<GraphEdge<K, Double>>();
+			for (GraphEdge<K, Double> edge : nodes.get(i).getEdges()) {
+				if (ids.containsKey(edge.getNode().getData())) {
+					out.add(edge);
+				}
+			}
+			Collections.sort(out, byTarget);
+			edges.add(out);
+			offsets[i + 1] = offsets[i] + out.size();
+		}
+		int[] targets = new int[offsets[nodes.size()]];
+		double[] weights = new double[offsets[nodes.size()]];
+		int[] sources = new int[offsets[nodes.size()]];
+		int e = 0;
+		for (int i = 0; i < edges.size(); i++) {
+			for (GraphEdge<K, Double> edge : edges.get(i)) {
+				targets[e] = ids.get(edge.getNode().getData());
+				weights[e] = WeightedEdge.weightOf(edge);
+				sources[e] = i;
+				e++;
+			}
+		}
+		
+		int[] reverseOffsets = new int[nodes.size() + 1];
+		int[] reverseEdges = new int[targets.length];
+		for (int target : targets) {
+			reverseOffsets[target + 1]++;
+		}
+		for (int i = 0; i < nodes.size(); i++) {
+			reverseOffsets[i + 1] += reverseOffsets[i];
+		}
+		int[] next = Arrays.copyOf(reverseOffsets, nodes.size());
+		// {{ Inv: every edge before e has been listed under the node it points to, after
+		//		the edges into that node that leave from lower ids }}
+		for (e = 0; e < targets.length; e++) {
+			reverseEdges[next[targets[e]]++] = e;
+		}
+		this.offsets = IntBuffer.wrap(offsets);
+		this.targets = IntBuffer.wrap(targets);
+		this.weights = DoubleBuffer.wrap(weights);
+		this.sources = IntBuffer.wrap(sources);
+		this.reverseOffsets = IntBuffer.wrap(reverseOffsets);
+		this.reverseEdges = IntBuffer.wrap(reverseEdges);
+		checkRep();
+	}
+
+	/**
+	 * @param keys Data of every node, sorted with no repeats, indexed by id
+	 * @param offsets First edge number of each node, then the edge count
+	 * @param targets Node each edge points to
+	 * @param weights Weight of each edge
+	 * @param sources Node each edge leaves from
+	 * @param reverseOffsets First index into reverseEdges of each node, then the edge count
+	 * @param reverseEdges Numbers of the edges into each node, grouped by node
+	 * @spec.requires the arguments describe a graph as the rep invariant does, and the
+	 * 		buffers are never changed
+	 * @throws IllegalStateException if the buffers do not fit together
+	 * @spec.effects Constructs a new CompactGraph over the given buffers, which it keeps
+	 */
+	CompactGraph(List<K> keys, IntBuffer offsets, IntBuffer targets, DoubleBuffer weights,
+			IntBuffer sources, IntBuffer reverseOffsets, IntBuffer reverseEdges) {
+		this.keys = Collections.unmodifiableList(keys);
+		this.ids = null;
+		this.offsets = offsets;
+		this.targets = targets;
+		this.weights = weights;
+		this.sources = sources;
+		this.reverseOffsets = reverseOffsets;
+		this.reverseEdges = reverseEdges;
+		checkRep();
+	}
+
+	/**
+	 * Returns the number of nodes in the graph
+	 *
+	 * @return int that represents the number of nodes in the graph
+	 */
+	public int size() {
+		return keys.size();
+	}
+
+	/**
+	 * Returns the number of edges in the graph
+	 *
+	 * @return int that represents the number of edges in the graph
+	 */
+	public int edgeCount() {
+		return targets.limit();
+	}
+
+	/**
+	 * Returns the id of the node holding the given data
+	 *
+	 * @param data The data to be searched for
+	 * @return the id of the node whose data matches with argument, or -1 if no
+	 * 		   nodes match
+	 */
+	public int idOf(K data) {
+		if (ids == null) {
+			int id = Collections.binarySearch(keys, data);
+			return (id < 0) ? -1 : id;
+		}
+		Integer id = ids.get(data);
+		return (id == null) ? -1 : id;
+	}
+
+	/**
+	 * Returns the data of the node with given id
+	 *
+	 * @param node The id of the node
+	 * @spec.requires 0 &lt;= node &lt; size()
+	 * @return the data the node holds
+	 */
+	public K getData(int node) {
+		return keys.get(node);
+	}
+
+	/**
+	 * Returns a read-only list of the data of every node, indexed by id
+	 *
+	 * @return List&lt;K&gt; of node data in ascending order
+	 */
+	public List<K> getNodes() {
+		return keys;
+	}
+
+	/**
+	 * Returns the number of the first edge out of the given node
+	 *
+	 * @param node The id of the node
+	 * @spec.requires 0 &lt;= node &lt; size()
+	 * @return the number of the first edge out of node
+	 */
+	public int getEdgeStart(int node) {
+		return offsets.get(node);
+	}
+
+	/**
+	 * Returns one past the number of the last edge out of the given node
+	 *
+	 * @param node The id of the node
+	 * @spec.requires 0 &lt;= node &lt; size()
+	 * @return one past the number of the last edge out of node
+	 */
+	public int getEdgeEnd(int node) {
+		return offsets.get(node + 1);
+	}
+
+	/**
+	 * Returns the node the given edge points to
+	 *
+	 * @param edge The number of the edge
+	 * @spec.requires 0 &lt;= edge &lt; edgeCount()
+	 * @return the id of the node edge points to
+	 */
+	public int getTarget(int edge) {
+		return targets.get(edge);
+	}
+
+	/**
+	 * Returns the weight of the given edge
+	 *
+	 * @param edge The number of the edge
+	 * @spec.requires 0 &lt;= edge &lt; edgeCount()
+	 * @return the weight of edge
+	 */
+	public double getWeight(int edge) {
+		return weights.get(edge);
+	}
+
+	/**
+	 * Returns the node the given edge leaves from
+	 * 
+	 * @param edge The number of the edge
+	 * @spec.requires 0 &lt;= edge &lt; edgeCount()
+	 * @return the id of the node edge leaves from
+	 */
+	public int getSource(int edge) {
+		return sources.get(edge);
+	}
+	
+	/**
+	 * Returns the index of the first edge into the given node, to be passed to
+	 * getReverseEdge
+	 * 
+	 * @param node The id of the node
+	 * @spec.requires 0 &lt;= node &lt; size()
+	 * @return the index of the first edge into node
+	 */
+	public int getReverseEdgeStart(int node) {
+		return reverseOffsets.get(node);
+	}
+	
+	/**
+	 * Returns one past the index of the last edge into the given node
+	 * 
+	 * @param node The id of the node
+	 * @spec.requires 0 &lt;= node &lt; size()
+	 * @return one past the index of the last edge into node
+	 */
+	public int getReverseEdgeEnd(int node) {
+		return reverseOffsets.get(node + 1);
+	}
+	
+	/**
+	 * Returns the number of the edge at the given index of the reverse adjacency
+	 * 
+	 * @param index The index of the edge among the edges into nodes
+	 * @spec.requires 0 &lt;= index &lt; edgeCount()
+	 * @return the number of the edge, which points to the node whose range holds index
+	 */
+	public int getReverseEdge(int index) {
+		return reverseEdges.get(index);
+	}
+	
+	/**
+	 * Checks representation of this
+	 * @throws IllegalStateException if rep invariant is not satisfied
+	 */
+	private void checkRep() {
+		if (offsets.limit() != keys.size() + 1 || offsets.get(keys.size()) != targets.limit()
+				|| targets.limit() != weights.limit() || sources.limit() != targets.limit()
+				|| reverseOffsets.limit() != keys.size() + 1
+				|| reverseOffsets.get(keys.size()) != reverseEdges.limit()) {
+			throw new IllegalStateException("edge arrays do not match");
+		}
+	}
+}
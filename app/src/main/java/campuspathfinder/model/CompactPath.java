@@ -0,0 +1,130 @@
+package campuspathfinder.model;
+
+/**
+ * A CompactPath is an immutable path through a CompactGraph, represented by the
+ * start node and the numbers of the edges taken from it, in order of steps.
+ *
+ * @param <K> The key/name/data of a node/the data that a node holds
+ *
+ * Specification fields:
+ * 		@specfield graph : CompactGraph // The graph the path runs through
+ * 		@specfield start : int // The id of the node the path starts at
+ * 		@specfield edges : int[] // The edges of the path, in order of steps
+ * 		@specfield settled : int // The number of nodes the search that found the path
+ * 								 // settled
+ *
+ */
+public class CompactPath<K extends Comparable<K>> {
+
+	/*Abstraction Function:
+	 * A CompactPath, p, represents the walk through graph that starts at start
+	 * and follows edges[0],...,edges[edges.length - 1]
+	 *
+	 * Representation Invariant:
+	 * graph != null && edges != null &&
+	 * for (0 <= i < edges.length, 0 <= edges[i] < graph.edgeCount())
+	 *
+	 */
+
+	//the graph the path runs through
+	private final CompactGraph<K> graph;
+
+	//the id of the node the path starts at
+	private final int start;
+
+	//the edges of the path, in order of steps
+	private final int[] edges;
+
+	//the number of nodes settled by the search that found the path
+	private final int settled;
+
+	/**
+	 * @param graph The graph the path runs through
+	 * @param start The id of the node the path starts at
+	 * @param edges The edges of the path, in order of steps
+	 * @param settled The number of nodes settled by the search that found the path
+	 * @spec.requires graph != null and edges != null and each edge leaves the node
+	 * 		the previous edge points to, starting from start
+	 * @spec.effects Constructs a new CompactPath with given start and edges
+	 */
+	CompactPath(CompactGraph<K> graph, int start, int[] edges, int settled) {
+		this.graph = graph;
+		this.start = start;
+		this.edges = edges;
+		this.settled = settled;
+	}
+
+	/**
+	 * Returns the id of the node the path starts at
+	 *
+	 * @return the id of the starting node
+	 */
+	public int getStart() {
+		return start;
+	}
+
+	/**
+	 * Returns the number of steps in the path
+	 *
+	 * @return the number of edges in the path
+	 */
+	public int size() {
+		return edges.length;
+	}
+
+	/**
+	 * Returns the edge taken at the given step
+	 *
+	 * @param step The index of the step
+	 * @spec.requires 0 &lt;= step &lt; size()
+	 * @return the number of the edge taken at step
+	 */
+	public int getEdge(int step) {
+		return edges[step];
+	}
+
+	/**
+	 * Returns the node reached at the given step
+	 *
+	 * @param step The index of the step
+	 * @spec.requires 0 &lt;= step &lt; size()
+	 * @return the id of the node reached at step
+	 */
+	public int getNode(int step) {
+		return graph.getTarget(edges[step]);
+	}
+
+	/**
+	 * Returns the weight of the edge taken at the given step
+	 *
+	 * @param step The index of the step
+	 * @spec.requires 0 &lt;= step &lt; size()
+	 * @return the weight of the edge taken at step
+	 */
+	public double getWeight(int step) {
+		return graph.getWeight(edges[step]);
+	}
+
+	/**
+	 * Returns the number of nodes the search that found the path settled before
+	 * reaching the end of the path, a measure of how much of the graph it explored
+	 *
+	 * @return the number of nodes settled
+	 */
+	public int getSettledCount() {
+		return settled;
+	}
+
+	/**
+	 * Returns the total weight of the path
+	 *
+	 * @return the sum of the weights of every edge in the path
+	 */
+	public double getCost() {
+		double cost = 0.0;
+		for (int edge : edges) {
+			cost += graph.getWeight(edge);
+		}
+		return cost;
+	}
+}
@@ -0,0 +1,574 @@
+package campuspathfinder.model;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+/**
+ * A ContractionHierarchy is an immutable index over a CompactGraph that answers
+ * shortest path queries by searching only a small part of the graph.
+ *
+ * When it is built, nodes are contracted one at a time, least important first. A
+ * contracted node is taken out of the graph, and a shortcut is added between each
+ * pair of its remaining neighbors whose shortest connection ran through it, so the
+ * cost between every pair of remaining nodes is unchanged. Each node's rank is the
+ * order it was contracted in. A query searches from both ends only along arcs that
+ * lead to higher ranks, and the shortcuts on the path found are unpacked back into
+ * the edges of the graph they stand for.
+ *
+ * @param <K> The key/name/data of a node/the data that a node holds
+ *
+ * Specification fields:
+ * 		@specfield graph : CompactGraph // The graph queries are answered on
+ * 		@specfield rank : List&lt;int&gt; // The order each node was contracted in
+ * 		@specfield shortcuts : List&lt;(int, int, double)&gt; // (source, target, weight) of
+ * 														 // every shortcut added
+ *
+ */
+public class ContractionHierarchy<K extends Comparable<K>> {
+
+	/*Abstraction Function:
+	 * A ContractionHierarchy, h, holds arcs 0,...,arcCount - 1, where arc a goes from
+	 * arcFrom[a] to arcTo[a] with weight arcWeight[a]. Arcs below graph.edgeCount() are
+	 * the edges of graph with the same numbers, and every other arc a is a shortcut
+	 * standing for arc arcFirst[a] followed by arc arcSecond[a]. h.rank = rank
+	 *
+	 * Representation Invariant:
+	 * graph != null && rank.length == graph.size() && rank is a permutation of
+	 * 0,...,graph.size() - 1
+	 * && for (0 <= a < graph.edgeCount(), arcFirst[a] == arcSecond[a] == -1)
+	 * && for (graph.edgeCount() <= a < arcCount, arcFirst[a], arcSecond[a] < a
+	 * 		&& arcTo[arcFirst[a]] == arcFrom[arcSecond[a]]
+	 * 		&& arcWeight[a] == arcWeight[arcFirst[a]] + arcWeight[arcSecond[a]])
+	 * && upArcs holds, grouped by arcFrom, every arc a with rank[arcTo[a]] > rank[arcFrom[a]]
+	 * && downArcs holds, grouped by arcTo, every arc a with rank[arcFrom[a]] > rank[arcTo[a]]
+	 *
+	 */
+
+	//most nodes a witness search settles before giving up and allowing a shortcut
+	private static final int WITNESS_LIMIT = 500;
+
+	//the graph queries are answered on
+	private final CompactGraph<K> graph;
+
+	//order each node was contracted in, indexed by id
+	private final int[] rank;
+
+	//number of arcs, counting the edges of graph and the shortcuts
+	private int arcCount;
+
+	//node each arc leaves from
+	private int[] arcFrom;
+
+	//node each arc points to
+	private int[] arcTo;
+
+	//weight of each arc
+	private double[] arcWeight;
+
+	//first arc each shortcut stands for, or -1 for an edge of graph
+	private int[] arcFirst;
+
+	//second arc each shortcut stands for, or -1 for an edge of graph
+	private int[] arcSecond;
+
+	//first index into upArcs of each node, with one extra entry holding its length
+	private int[] upOffsets;
+
+	//arcs that lead to a higher rank, grouped by the node they leave from
+	private int[] upArcs;
+
+	//first index into downArcs of each node, with one extra entry holding its length
+	private int[] downOffsets;
+
+	//arcs that lead to a lower rank, grouped by the node they point to
+	private int[] downArcs;
+
+	//tentative distances of the current witness search, valid where witnessStamp
+	//matches stamp
+	private double[] witnessDistance;
+
+	//the witness search that last wrote each entry of witnessDistance
+	private int[] witnessStamp;
+
+	//the number of the current witness search
+	private int stamp;
+
+	/**
+	 * A growable list of arc numbers, used for the adjacency of the graph while it
+	 * is being contracted
+	 */
+	private static class ArcList {
+
+		//the arc numbers held, in the order they were added
+		int[] arcs = new int[4];
+
+		//the number of arcs held
+		int size;
+
+		/**
+		 * Adds arc to the end of this list
+		 *
+		 * @param arc The number of the arc to be added
+		 * @spec.modifies this
+		 */
+		void add(int arc) {
+			if (size == arcs.length) {
+				arcs = Arrays.copyOf(arcs, size * 2);
+			}
+			arcs[size++] = arc;
+		}
+	}
+
+	/**
+	 * @param graph The graph to answer queries on
+	 * @spec.requires graph != null and no edge of graph has a negative weight
+	 * @throws IllegalArgumentException if graph == null
+	 * @spec.effects Constructs a new ContractionHierarchy over graph, contracting every
+	 * 		node of it
+	 */
+	public ContractionHierarchy(CompactGraph<K> graph) {
+		if (graph == null) {
+			throw new IllegalArgumentException("graph is null");
+		}
+		this.graph = graph;
+		int size = graph.size();
+		rank = new int[size];
+		int capacity = Math.max(16, graph.edgeCount() * 2);
+		arcFrom = new int[capacity];
+		arcTo = new int[capacity];
+		arcWeight = new double[capacity];
+		arcFirst = new int[capacity];
+		arcSecond = new int[capacity];
+		witnessDistance = new double[size];
+		witnessStamp = new int[size];
+
+		ArcList[] out = new ArcList[size];
+		ArcList[] in = new ArcList[size];
+		for (int node = 0; node < size; node++) {
+			out[node] = new ArcList();
+			in[node] = new ArcList();
+		}
+		for (int e = 0; e < graph.edgeCount(); e++) {
+			addArc(graph.getSource(e), graph.getTarget(e), graph.getWeight(e), -1, -1, out, in);
+		}
+
+		boolean[] contracted = new boolean[size];
+		int[] contractedNeighbors = new int[size];
+		PriorityQueue<DijkstrasAlgorithm.IdEntry> order =
+				new PriorityQueue<DijkstrasAlgorithm.IdEntry>();
+		for (int node = 0; node < size; node++) {
+			order.add(new DijkstrasAlgorithm.IdEntry(node,
+					priority(node, out, in, contracted, contractedNeighbors)));
+		}
+		int next = 0;
+		// {{ Inv: the nodes ranked 0,...,next - 1 have been contracted, and the cost of
+		//		the cheapest path between any two other nodes using only arcs between
+		//		nodes that are not contracted is the cost between them in graph }}
+		while (!order.isEmpty()) {
+			DijkstrasAlgorithm.IdEntry min = order.remove();
+			double current = priority(min.node, out, in, contracted, contractedNeighbors);
+			if (!order.isEmpty() && current > order.peek().cost) {
+				//its neighbors changed since it was queued, so it may no longer be least
+				order.add(new DijkstrasAlgorithm.IdEntry(min.node, current));
+				continue;
+			}
+			contract(min.node, false, out, in, contracted);
+			contracted[min.node] = true;
+			rank[min.node] = next++;
+			for (int i = 0; i < out[min.node].size; i++) {
+				contractedNeighbors[arcTo[out[min.node].arcs[i]]]++;
+			}
+			for (int i = 0; i < in[min.node].size; i++) {
+				contractedNeighbors[arcFrom[in[min.node].arcs[i]]]++;
+			}
+		}
+		witnessDistance = null;
+		witnessStamp = null;
+		buildSearchGraph();
+		checkRep();
+	}
+
+	/**
+	 * Returns the number of shortcuts added while contracting the graph
+	 *
+	 * @return the number of shortcuts in this hierarchy
+	 */
+	public int getShortcutCount() {
+		return arcCount - graph.edgeCount();
+	}
+
+	/**
+	 * Returns the order the given node was contracted in
+	 *
+	 * @param node The id of the node
+	 * @spec.requires 0 &lt;= node &lt; graph.size()
+	 * @return the rank of node, from 0 for the first contracted to graph.size() - 1
+	 */
+	public int getRank(int node) {
+		return rank[node];
+	}
+
+	/**
+	 * Returns the shortest path from the given source node to the given destination
+	 * node via edges in the graph, found by searching upward in rank from both ends
+	 *
+	 * @param src Id of the node in the graph where the path must start.
+	 * @param dest Id of the node in the graph where the path must end.
+	 * @spec.requires src and dest are ids of nodes in graph
+	 * @return Returns a least weighted path from src to dest made of edges of graph,
+	 * 		or null if no path exists between src and dest
+	 */
+	public CompactPath<K> shortestPath(int src, int dest) {
+		return shortestPath(src, dest, SearchWorkspace.forCurrentThread(graph.size()));
+	}
+
+	/**
+	 * Returns the shortest path from the given source node to the given destination
+	 * node via edges in the graph, searching upward as above in the given workspace
+	 *
+	 * @param src Id of the node in the graph where the path must start.
+	 * @param dest Id of the node in the graph where the path must end.
+	 * @param workspace The scratch space to search in
+	 * @spec.requires src and dest are ids of nodes in graph, and workspace.capacity()
+	 * 		&gt;= graph.size()
+	 * @spec.modifies workspace
+	 * @return Returns a least weighted path from src to dest made of edges of graph,
+	 * 		or null if no path exists between src and dest
+	 */
+	public CompactPath<K> shortestPath(int src, int dest, SearchWorkspace workspace) {
+		//links of the forward side are the last arc of the best upward path found from
+		//src to each node, and of the backward side the first arc of the best downward
+		//path found from each node to dest
+		SearchWorkspace.Side forward = workspace.forward();
+		SearchWorkspace.Side backward = workspace.backward();
+		workspace.begin();
+		int settled = 0;
+		forward.reach(src, 0.0, -1);
+		backward.reach(dest, 0.0, -1);
+		forward.queue.offer(src, 0.0);
+		backward.queue.offer(dest, 0.0);
+		//least cost of a path through a node reached by both searches, and that node
+		double best = (src == dest) ? 0.0 : Double.POSITIVE_INFINITY;
+		int meet = (src == dest) ? src : -1;
+
+		// {{ Inv: best is the least forward.distance(n) + backward.distance(n) over every
+		//		node n, meet is the lowest such n, and each search has finished every node
+		//		it can reach upward from its end for less than its next entry's cost }}
+		while (true) {
+			boolean forwardOpen = !forward.queue.isEmpty() && forward.queue.peekKey() < best;
+			boolean backwardOpen = !backward.queue.isEmpty() && backward.queue.peekKey() < best;
+			if (!forwardOpen && !backwardOpen) {
+				break;
+			}
+			boolean isForward = forwardOpen
+					&& (!backwardOpen || forward.queue.peekKey() <= backward.queue.peekKey());
+			SearchWorkspace.Side side = isForward ? forward : backward;
+			SearchWorkspace.Side other = isForward ? backward : forward;
+			int min = side.queue.poll();
+			settled++;
+			side.finish(min);
+			int[] offsets = isForward ? upOffsets : downOffsets;
+			int[] arcs = isForward ? upArcs : downArcs;
+			// {{ Inv: for every arc before i in the node's range, the tentative distance of
+			//		the node at its other end is no greater than the distance of min plus
+			//		the weight of the arc }}
+			for (int i = offsets[min]; i < offsets[min + 1]; i++) {
+				int arc = arcs[i];
+				int node = isForward ? arcTo[arc] : arcFrom[arc];
+				double cost = side.distance[min] + arcWeight[arc];
+				if (!side.isFinished(node) && cost < side.distance(node)) {
+					side.reach(node, cost, arc);
+					side.queue.offer(node, cost);
+					double through = cost + other.distance(node);
+					if (through < best || (through == best && node < meet)) {
+						best = through;
+						meet = node;
+					}
+				}
+			}
+		}
+		if (meet == -1) {
+			return null;
+		}
+		return unpack(forward.link, backward.link, src, meet, dest, settled, workspace);
+	}
+
+	/**
+	 * Rebuilds the path from start to dest that follows parent arcs back from meet to
+	 * start and next arcs on from meet to dest, with every shortcut replaced by the
+	 * edges of graph it stands for. Nothing is allocated but the path returned
+	 *
+	 * @param parent The last arc of the best upward path from start to each reached node
+	 * @param next The first arc of the best downward path from each reached node to dest
+	 * @param start The id of the node where the path starts
+	 * @param meet The id of the node where the two halves of the path join
+	 * @param dest The id of the node where the path ends
+	 * @param settled The number of nodes settled by the search that found the path
+	 * @param workspace The workspace whose buffers the path is unpacked in
+	 * @spec.requires meet is start or has a chain of parents leading to start, and
+	 * 		meet is dest or has a chain of next arcs leading to dest
+	 * @spec.modifies workspace
+	 * @return the path from start to dest through meet, made of edges of graph
+	 */
+	private CompactPath<K> unpack(int[] parent, int[] next, int start, int meet, int dest,
+			int settled, SearchWorkspace workspace) {
+		int[] stack = workspace.arcBuffer;
+		int[] edges = workspace.edgeBuffer;
+		//push the arcs of the path, which may be shortcuts, so the first step is on top
+		int top = 0;
+		for (int curr = meet; curr != dest; curr = arcTo[next[curr]]) {
+			if (top == stack.length) {
+				stack = Arrays.copyOf(stack, top * 2);
+			}
+			stack[top++] = next[curr];
+		}
+		for (int low = 0, high = top - 1; low < high; low++, high--) {
+			int arc = stack[low];
+			stack[low] = stack[high];
+			stack[high] = arc;
+		}
+		for (int curr = meet; curr != start; curr = arcFrom[parent[curr]]) {
+			if (top == stack.length) {
+				stack = Arrays.copyOf(stack, top * 2);
+			}
+			stack[top++] = parent[curr];
+		}
+
+		int size = 0;
+		// {{ Inv: edges[0],...,edges[size - 1] followed by the edges of graph that the 
+		//		arcs on stack stand for, from the top down, are the edges of the path }}
+		while (top > 0) {
+			int arc = stack[--top];
+			if (arcFirst[arc] == -1) {
+				if (size == edges.length) {
+					edges = Arrays.copyOf(edges, size * 2);
+				}
+				edges[size++] = arc;
+			} else {
+				if (top + 2 > stack.length) {
+					stack = Arrays.copyOf(stack, stack.length * 2);
+				}
+				stack[top++] = arcSecond[arc];
+				stack[top++] = arcFirst[arc];
+			}
+		}
+		workspace.arcBuffer = stack;
+		workspace.edgeBuffer = edges;
+		return new CompactPath<K>(graph, start, Arrays.copyOf(edges, size), settled);
+	}
+
+	/**
+	 * Returns how important it is to keep node in the graph, so that the least
+	 * important node can be contracted first. Nodes that would need more shortcuts
+	 * than the arcs they take away, or whose neighbors have already lost many
+	 * nodes, are more important
+	 *
+	 * @param node The id of the node
+	 * @param out The arcs out of each node
+	 * @param in The arcs into each node
+	 * @param contracted Whether each node has been contracted
+	 * @param contractedNeighbors The number of neighbors of each node contracted so far
+	 * @spec.requires node has not been contracted
+	 * @return the priority of node, where lower is contracted sooner
+	 */
+	private double priority(int node, ArcList[] out, ArcList[] in, boolean[] contracted,
+			int[] contractedNeighbors) {
+		int removed = 0;
+		for (int i = 0; i < out[node].size; i++) {
+			if (!contracted[arcTo[out[node].arcs[i]]]) {
+				removed++;
+			}
+		}
+		for (int i = 0; i < in[node].size; i++) {
+			if (!contracted[arcFrom[in[node].arcs[i]]]) {
+				removed++;
+			}
+		}
+		int added = contract(node, true, out, in, contracted);
+		return added - removed + contractedNeighbors[node];
+	}
+
+	/**
+	 * Finds the shortcuts that contracting node needs, and adds them unless simulate
+	 * is set. A shortcut from u to w through node is needed when no path from u to w
+	 * that avoids node and every contracted node costs as little as going through node
+	 *
+	 * @param node The id of the node being contracted
+	 * @param simulate Whether to only count the shortcuts rather than add them
+	 * @param out The arcs out of each node
+	 * @param in The arcs into each node
+	 * @param contracted Whether each node has been contracted
+	 * @spec.requires node has not been contracted
+	 * @spec.modifies the arcs of this, out, and in, unless simulate is set
+	 * @return the number of shortcuts contracting node needs
+	 */
+	private int contract(int node, boolean simulate, ArcList[] out, ArcList[] in,
+			boolean[] contracted) {
+		int shortcuts = 0;
+		// {{ Inv: every shortcut needed through node that starts with an arc before i in
+		//		in[node] has been counted, and added unless simulate is set }}
+		for (int i = 0; i < in[node].size; i++) {
+			int first = in[node].arcs[i];
+			int source = arcFrom[first];
+			if (contracted[source] || source == node) {
+				continue;
+			}
+			//the costliest path through node from source, or -1 if there are none
+			double limit = -1.0;
+			for (int j = 0; j < out[node].size; j++) {
+				int target = arcTo[out[node].arcs[j]];
+				if (!contracted[target] && target != node && target != source) {
+					limit = Math.max(limit, arcWeight[first] + arcWeight[out[node].arcs[j]]);
+				}
+			}
+			if (limit < 0.0) {
+				continue;
+			}
+			witnessSearch(source, node, limit, out, contracted);
+			for (int j = 0; j < out[node].size; j++) {
+				int second = out[node].arcs[j];
+				int target = arcTo[second];
+				if (contracted[target] || target == node || target == source) {
+					continue;
+				}
+				double via = arcWeight[first] + arcWeight[second];
+				if (witnessStamp[target] == stamp && witnessDistance[target] <= via) {
+					continue;
+				}
+				//the shortcut is itself a witness for any later arc to the same target
+				witnessStamp[target] = stamp;
+				witnessDistance[target] = via;
+				shortcuts++;
+				if (!simulate) {
+					addArc(source, target, via, first, second, out, in);
+				}
+			}
+		}
+		return shortcuts;
+	}
+
+	/**
+	 * Runs Dijkstra's algorithm from source over the nodes that are not contracted,
+	 * leaving out skip, until every node within limit is settled or WITNESS_LIMIT
+	 * nodes have been. The distances found are left in witnessDistance
+	 *
+	 * @param source The id of the node to search from
+	 * @param skip The id of the node the search must not pass through
+	 * @param limit The greatest cost worth searching to
+	 * @param out The arcs out of each node
+	 * @param contracted Whether each node has been contracted
+	 * @spec.modifies stamp, witnessDistance, witnessStamp
+	 */
+	private void witnessSearch(int source, int skip, double limit, ArcList[] out,
+			boolean[] contracted) {
+		stamp++;
+		PriorityQueue<DijkstrasAlgorithm.IdEntry> active =
+				new PriorityQueue<DijkstrasAlgorithm.IdEntry>();
+		witnessStamp[source] = stamp;
+		witnessDistance[source] = 0.0;
+		active.add(new DijkstrasAlgorithm.IdEntry(source, 0.0));
+		int settled = 0;
+		// {{ Inv: witnessDistance holds the cost of the cheapest path found so far from
+		//		source to every node stamped by this search }}
+		while (!active.isEmpty() && settled < WITNESS_LIMIT) {
+			DijkstrasAlgorithm.IdEntry min = active.remove();
+			if (min.cost > witnessDistance[min.node]) {
+				continue;
+			}
+			if (min.cost > limit) {
+				break;
+			}
+			settled++;
+			for (int i = 0; i < out[min.node].size; i++) {
+				int arc = out[min.node].arcs[i];
+				int target = arcTo[arc];
+				if (contracted[target] || target == skip) {
+					continue;
+				}
+				double cost = min.cost + arcWeight[arc];
+				if (witnessStamp[target] != stamp || cost < witnessDistance[target]) {
+					witnessStamp[target] = stamp;
+					witnessDistance[target] = cost;
+					active.add(new DijkstrasAlgorithm.IdEntry(target, cost));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Adds an arc to the hierarchy and to the adjacency of the nodes it joins
+	 *
+	 * @param from The id of the node the arc leaves from
+	 * @param to The id of the node the arc points to
+	 * @param weight The weight of the arc
+	 * @param first The first arc the new arc stands for, or -1 for an edge of graph
+	 * @param second The second arc the new arc stands for, or -1 for an edge of graph
+	 * @param out The arcs out of each node
+	 * @param in The arcs into each node
+	 * @spec.modifies the arcs of this, out[from], in[to]
+	 */
+	private void addArc(int from, int to, double weight, int first, int second,
+			ArcList[] out, ArcList[] in) {
+		if (arcCount == arcFrom.length) {
+			int capacity = arcCount * 2;
+			arcFrom = Arrays.copyOf(arcFrom, capacity);
+			arcTo = Arrays.copyOf(arcTo, capacity);
+			arcWeight = Arrays.copyOf(arcWeight, capacity);
+			arcFirst = Arrays.copyOf(arcFirst, capacity);
+			arcSecond = Arrays.copyOf(arcSecond, capacity);
+		}
+		arcFrom[arcCount] = from;
+		arcTo[arcCount] = to;
+		arcWeight[arcCount] = weight;
+		arcFirst[arcCount] = first;
+		arcSecond[arcCount] = second;
+		out[from].add(arcCount);
+		in[to].add(arcCount);
+		arcCount++;
+	}
+
+	/**
+	 * Groups the arcs that lead up in rank by the node they leave from, and the arcs
+	 * that lead down in rank by the node they point to, in ascending order of arc
+	 *
+	 * @spec.modifies upOffsets, upArcs, downOffsets, downArcs
+	 */
+	private void buildSearchGraph() {
+		int size = graph.size();
+		upOffsets = new int[size + 1];
+		downOffsets = new int[size + 1];
+		for (int arc = 0; arc < arcCount; arc++) {
+			if (rank[arcTo[arc]] > rank[arcFrom[arc]]) {
+				upOffsets[arcFrom[arc] + 1]++;
+			} else if (rank[arcTo[arc]] < rank[arcFrom[arc]]) {
+				downOffsets[arcTo[arc] + 1]++;
+			}
+		}
+		for (int node = 0; node < size; node++) {
+			upOffsets[node + 1] += upOffsets[node];
+			downOffsets[node + 1] += downOffsets[node];
+		}
+		upArcs = new int[upOffsets[size]];
+		downArcs = new int[downOffsets[size]];
+		int[] upNext = Arrays.copyOf(upOffsets, size);
+		int[] downNext = Arrays.copyOf(downOffsets, size);
+		for (int arc = 0; arc < arcCount; arc++) {
+			if (rank[arcTo[arc]] > rank[arcFrom[arc]]) {
+				upArcs[upNext[arcFrom[arc]]++] = arc;
+			} else if (rank[arcTo[arc]] < rank[arcFrom[arc]]) {
+				downArcs[downNext[arcTo[arc]]++] = arc;
+			}
+		}
+	}
+
+	/**
+	 * Checks representation of this
+	 * @throws IllegalStateException if rep invariant is not satisfied
+	 */
+	private void checkRep() {
+		if (rank.length != graph.size() || upOffsets[graph.size()] != upArcs.length
+				|| downOffsets[graph.size()] != downArcs.length) {
+			throw new IllegalStateException("hierarchy arrays do not match graph");
+		}
+	}
+}
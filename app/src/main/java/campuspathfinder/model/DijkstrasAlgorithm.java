@@ -1,10 +1,8 @@
 package campuspathfinder.model;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
-import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -23,42 +21,78 @@ import java.util.PriorityQueue;
  */
 public class DijkstrasAlgorithm<K extends Comparable<K>> {
 	
+	//number of children of each entry of the heaps searches use when given no queue
+	private static final int DEFAULT_ARITY = 4;
+	
+	//relative slack allowed when deciding whether a node lies on a least cost path,
+	//so that rounding in a sum of weights cannot leave one out
+	private static final double TIE_SLACK = 1e-9;
+	
+	/**
+	 * An estimate of the least cost from a node to a destination in a CompactGraph,
+	 * used to direct the search toward the destination. An estimate must never be
+	 * greater than the true least cost, and the estimate for a node must never be 
+	 * greater than the weight of an edge out of it plus the estimate for the node
+	 * the edge points to.
+	 */
+	public interface Heuristic {
+		
+		/**
+		 * Returns the estimated least cost from node to dest
+		 * 
+		 * @param node The id of the node to estimate from
+		 * @param dest The id of the destination
+		 * @return a lower bound on the cost of any path from node to dest
+		 */
+		double estimate(int node, int dest);
+	}
+	
 	/**
-	 * Comparator that allows comparison between two paths by weighting, and in the event of 
-	 * a tie, compares lexicographically by the destination nodes
+	 * An entry in the search frontier, holding a node, its id in the graph searched,
+	 * and the cost of the best path found to it at the time the entry was made. Entries
+	 * are ordered by cost, and in the event of a tie, lexicographically by node
 	 *
 	 * @param <K> The key/name/data of a GraphNode/the data that a GraphNode holds
 	 */
-	static class PathComparator<K extends Comparable<K>> 
-		implements Comparator<ArrayList<GraphEdge<K, Double>>> {
+	static class QueueEntry<K extends Comparable<K>> implements Comparable<QueueEntry<K>> {
+		
+		//the node this entry reaches
+		final GraphNode<K, Double> node;
+		
+		//the id of node in the graph searched
+		final int id;
+		
+		//the cost of the path to node when this entry was made
+		final double cost;
+		
+		/**
+		 * @param node The node this entry reaches
+		 * @param id The id of node in the graph searched
+		 * @param cost The cost of the path to node
+		 * @spec.effects Constructs a new QueueEntry with given node, id and cost
+		 */
+		QueueEntry(GraphNode<K, Double> node, int id, double cost) {
+			this.node = node;
+			this.id = id;
+			this.cost = cost;
+		}
 
 		/**
-		 * Compares the two given ArrayLists
+		 * Compares this entry against other
 		 * 
-		 * @param o1 the ArrayList to be compared
-		 * @param o2 the ArrayList to be compared
-		 * @return the value 0 if o1 and o2 have the same weighting and destination node
-		 * 		a value less than 0 if o1 has smaller weighting than o2, or they have the same
-		 * 		weighting but o1's destination node is lexicographically less than o2's 
-		 * 		destination node
-		 * 		a value greater than 0 if o1 has greater weighting than o2, or they have the same
-		 * 		weighting but o1's destination node is lexicographically greater than o2's
-		 * 		destination node
+		 * @param other the QueueEntry to be compared against
+		 * @return the value 0 if both entries have the same cost and node
+		 * 		a value less than 0 if this has smaller cost than other, or they have the same
+		 * 		cost but this node is lexicographically less than other's node
+		 * 		a value greater than 0 if this has greater cost than other, or they have the same
+		 * 		cost but this node is lexicographically greater than other's node
 		 */
 		@Override
-		public int compare(ArrayList<GraphEdge<K, Double>> o1, ArrayList<GraphEdge<K, Double>> o2) {
-			double cost1 = 0.0;
-			double cost2 = 0.0;
-			for (GraphEdge<K, Double> edge : o1) {
-				cost1 += edge.getLabel();
-			}
-			for (GraphEdge<K, Double> edge : o2) {
-				cost2 += edge.getLabel();
+		public int compareTo(QueueEntry<K> other) {
+			if (this.cost != other.cost) {
+				return (this.cost > other.cost) ? 1 : -1;
 			}
-			if (cost1 != cost2) {
-				return (cost1 > cost2) ? 1 : -1;
-			}
-			return o1.get(o1.size() - 1).getNode().compareTo(o2.get(o2.size() - 1).getNode());
+			return this.node.compareTo(other.node);
 		}
 	}
 
@@ -78,56 +112,586 @@ public class DijkstrasAlgorithm<K extends Comparable<K>> {
 	 */
 	public static <K extends Comparable<K>> List<GraphEdge<K, Double>> shortestPath(Graph<K, Double> graph, 
 			K src, K dest) {
-		//passes in Comparator for comparing paths
-		PriorityQueue<ArrayList<GraphEdge<K, Double>>> active = 
-				new PriorityQueue<ArrayList<GraphEdge<K, Double>>>(5, new PathComparator<K>());
-		Set<GraphNode<K, Double>> finished = new HashSet<GraphNode<K, Double>>();
+		PriorityQueue<QueueEntry<K>> active = new PriorityQueue<QueueEntry<K>>();
+		int bound = graph.idBound();
+		//tentative cost of the best path found so far to each reached node, by id
+		double[] distance = new double[bound];
+		//last edge of the best path found so far to each reached node, other than the start
+		@SuppressWarnings({"unchecked", "rawtypes"})
+		GraphEdge<K, Double>[] parent = (GraphEdge<K, Double>[]) new GraphEdge[bound];
+		//id of the node that the edge in parent leaves from, for each reached node other
+		//than the start
+		int[] previous = new int[bound];
+		boolean[] finished = new boolean[bound];
+		Arrays.fill(distance, Double.POSITIVE_INFINITY);
 		
 		GraphNode<K, Double> startNode = graph.getNode(src);
-		GraphNode<K, Double> destNode = graph.getNode(dest);
-		GraphEdge<K, Double> startEdge = new GraphEdge<K, Double>(0.0, startNode);
-		ArrayList<GraphEdge<K, Double>> startPath = new ArrayList<GraphEdge<K, Double>>();
-		startPath.add(startEdge);
-		active.add(startPath);
+		int start = graph.idOf(startNode);
+		int end = graph.idOf(graph.getNode(dest));
+		distance[start] = 0.0;
+		active.add(new QueueEntry<K>(startNode, start, 0.0));
 		
-		// {{ Inv: have the least cost path to every finished node and active contains
-		//		all paths of the form p + [c], where p is the shortest path to some 
-		//		finished node n and c is a child of n }}
+		// {{ Inv: distance holds the least cost to every finished node, parent holds the 
+		//		last edge of that least cost path, and active contains an entry for every 
+		//		node whose tentative distance was lowered by an edge out of a finished node }}
 		while(!active.isEmpty()) {
-			List<GraphEdge<K, Double>> minPath = active.remove();
-			GraphNode<K, Double> minDest = minPath.get(minPath.size() - 1).getNode();
+			QueueEntry<K> min = active.remove();
+			if (finished[min.id]) {
+				continue;
+			}
+			if (min.id == end) {
+				return buildPath(parent, previous, start, end);
+			}
 			
-			if (minDest.compareTo(destNode) == 0) {
-				//remove initial edge to start
-				if (minPath.get(0).compareTo(startEdge) ==  0) {
-					minPath.remove(0);
+			finished[min.id] = true;
+			GraphNode<K, Double> minDest = min.node;
+			// {{ Inv: for every edge out of minDest that we have seen so far, if it leads to
+			//		a node in graph that is not finished and gives a cheaper path than the 
+			//		best one known, it has been recorded as that node's parent and an entry 
+			//		added to active }}
+			for (int i = 0; i < minDest.getEdgeCount(); i++) {
+				GraphEdge<K, Double> edge = minDest.getEdge(i);
+				GraphNode<K, Double> node = edge.getNode();
+				int id = graph.idOf(node);
+				if (id != -1 && !finished[id]) {
+					double cost = min.cost + WeightedEdge.weightOf(edge);
+					if (cost < distance[id]) {
+						distance[id] = cost;
+						parent[id] = edge;
+						previous[id] = min.id;
+						active.add(new QueueEntry<K>(node, id, cost));
+					}
 				}
-				return minPath;
 			}
-			if (finished.contains(minDest)) {
-				continue;
+		}
+		return null;
+	}
+	
+	/**
+	 * Rebuilds the path to dest by following parent edges back to start
+	 * 
+	 * @param <K> The key/name/data of a GraphNode or that a GraphNode holds
+	 * @param parent The last edge of the best path to each reached node, by id
+	 * @param previous The id of the node that the edge in parent leaves from, for each
+	 * 		reached node
+	 * @param start The id of the node where the path starts
+	 * @param dest The id of the node where the path ends
+	 * @spec.requires dest is start or dest has a chain of parents leading to start
+	 * @return the edges from start to dest, in order of steps
+	 */
+	private static <K extends Comparable<K>> List<GraphEdge<K, Double>> buildPath(
+			GraphEdge<K, Double>[] parent, int[] previous, int start, int dest) {
+		ArrayList<GraphEdge<K, Double>> path = new ArrayList<GraphEdge<K, Double>>();
+		int curr = dest;
+		// {{ Inv: path holds, in reverse order, the edges from curr to dest }}
+		while (curr != start) {
+			path.add(parent[curr]);
+			curr = previous[curr];
+		}
+		Collections.reverse(path);
+		return path;
+	}
+	
+	/**
+	 * An entry in the search frontier of a CompactGraph, holding a node id and the cost
+	 * of the best path found to it at the time the entry was made. Entries are ordered by
+	 * cost, and in the event of a tie, by node id
+	 */
+	static class IdEntry implements Comparable<IdEntry> {
+		
+		//the id of the node this entry reaches
+		final int node;
+		
+		//the cost of the path to node when this entry was made
+		final double cost;
+		
+		/**
+		 * @param node The id of the node this entry reaches
+		 * @param cost The cost of the path to node
+		 * @spec.effects Constructs a new IdEntry with given node and cost
+		 */
+		IdEntry(int node, double cost) {
+			this.node = node;
+			this.cost = cost;
+		}
+
+		/**
+		 * Compares this entry against other
+		 * 
+		 * @param other the IdEntry to be compared against
+		 * @return the value 0 if both entries have the same cost and node
+		 * 		a value less than 0 if this has smaller cost than other, or they have the same
+		 * 		cost but this node id is less than other's node id
+		 * 		a value greater than 0 otherwise
+		 */
+		@Override
+		public int compareTo(IdEntry other) {
+			if (this.cost != other.cost) {
+				return (this.cost > other.cost) ? 1 : -1;
 			}
-			
-			finished.add(minDest);
-			// {{ Inv: for every child node of minDest that we have seen so far is in 
-			//		finished, with all paths in the form of p + [c] in active }}
-			for (GraphNode<K, Double> node : minDest.getChildren()) {
-				if (!finished.contains(node)) {
-					// {{ Inv: for every edge that leads from minDest to the current child,
-					//		a new path has been made and added to active in the form of 
-					//		p + [c] }}
-					for (GraphEdge<K, Double> edge : minDest.getEdgesFromNode(node)) {
-						ArrayList<GraphEdge<K, Double>> newPath = 
-								new ArrayList<GraphEdge<K, Double>>(minPath);
-						newPath.add(edge);
-						active.add(newPath);
+			return (this.node < other.node) ? -1 : (this.node > other.node) ? 1 : 0;
+		}
+	}
+	
+	/**
+	 * Returns the shortest path from the given source node to the given destination
+	 * node via edges in the given CompactGraph.
+	 * 
+	 * @param <K> The key/name/data of a node or that a node holds
+	 * @param graph The graph in which to search for a path.
+	 * @param src Id of the node in the graph where the path must start.
+	 * @param dest Id of the node in the graph where the path must end.
+	 * @spec.requires graph is not null, src and dest are ids of nodes in graph
+	 * @return Returns the least weighted (and lexicographically least) path from src
+	 * 		to dest, or null if no path exists between src and dest
+	 */
+	public static <K extends Comparable<K>> CompactPath<K> shortestPath(CompactGraph<K> graph, 
+			int src, int dest) {
+		return shortestPath(graph, src, dest, null);
+	}
+	
+	/**
+	 * Returns the shortest path from the given source node to the given destination
+	 * node via edges in the given CompactGraph, searching with A*: nodes are settled in
+	 * order of the cost to reach them plus the heuristic's estimate of the cost from
+	 * them to dest, so fewer nodes away from dest are explored.
+	 * 
+	 * @param <K> The key/name/data of a node or that a node holds
+	 * @param graph The graph in which to search for a path.
+	 * @param src Id of the node in the graph where the path must start.
+	 * @param dest Id of the node in the graph where the path must end.
+	 * @param heuristic The estimate of the cost to dest, or null to search without one
+	 * @spec.requires graph is not null, src and dest are ids of nodes in graph, and
+	 * 		heuristic meets the conditions given by Heuristic
+	 * @return Returns a least weighted path from src to dest, or null if no path exists
+	 * 		between src and dest
+	 */
+	public static <K extends Comparable<K>> CompactPath<K> shortestPath(CompactGraph<K> graph, 
+			int src, int dest, Heuristic heuristic) {
+		return shortestPath(graph, src, dest, heuristic, 
+				SearchWorkspace.forCurrentThread(graph.size()));
+	}
+	
+	/**
+	 * Returns the shortest path from the given source node to the given destination
+	 * node via edges in the given CompactGraph, searching with A* as above on the
+	 * given frontier queue.
+	 * 
+	 * @param <K> The key/name/data of a node or that a node holds
+	 * @param graph The graph in which to search for a path.
+	 * @param src Id of the node in the graph where the path must start.
+	 * @param dest Id of the node in the graph where the path must end.
+	 * @param heuristic The estimate of the cost to dest, or null to search without one
+	 * @param active The queue to hold the frontier of the search in
+	 * @spec.requires graph is not null, src and dest are ids of nodes in graph,
+	 * 		heuristic meets the conditions given by Heuristic, and active.capacity() &gt;=
+	 * 		graph.size()
+	 * @spec.modifies active
+	 * @return Returns a least weighted path from src to dest, or null if no path exists
+	 * 		between src and dest
+	 */
+	public static <K extends Comparable<K>> CompactPath<K> shortestPath(CompactGraph<K> graph, 
+			int src, int dest, Heuristic heuristic, NodeQueue active) {
+		return shortestPath(graph, src, dest, heuristic, new SearchWorkspace(active));
+	}
+	
+	/**
+	 * Returns the shortest path from the given source node to the given destination
+	 * node via edges in the given CompactGraph, searching with A* as above in the
+	 * given workspace. Nothing is allocated but the path returned.
+	 * 
+	 * @param <K> The key/name/data of a node or that a node holds
+	 * @param graph The graph in which to search for a path.
+	 * @param src Id of the node in the graph where the path must start.
+	 * @param dest Id of the node in the graph where the path must end.
+	 * @param heuristic The estimate of the cost to dest, or null to search without one
+	 * @param workspace The scratch space to search in
+	 * @spec.requires graph is not null, src and dest are ids of nodes in graph,
+	 * 		heuristic meets the conditions given by Heuristic, and workspace.capacity()
+	 * 		&gt;= graph.size()
+	 * @spec.modifies workspace
+	 * @return Returns a least weighted path from src to dest, or null if no path exists
+	 * 		between src and dest
+	 */
+	public static <K extends Comparable<K>> CompactPath<K> shortestPath(CompactGraph<K> graph, 
+			int src, int dest, Heuristic heuristic, SearchWorkspace workspace) {
+		workspace.begin();
+		SearchWorkspace.Side side = workspace.forward();
+		NodeQueue active = side.queue;
+		int settled = 0;
+		side.reach(src, 0.0, -1);
+		active.offer(src, estimate(heuristic, src, dest));
+		
+		// {{ Inv: side holds the least cost to every finished node and the last edge of 
+		//		that least cost path, and active holds every node whose tentative distance 
+		//		was lowered by an edge out of a finished node, keyed by that distance plus 
+		//		the node's estimate }}
+		while (!active.isEmpty()) {
+			int min = active.poll();
+			settled++;
+			if (min == dest) {
+				return buildPath(graph, side.link, src, dest, settled);
+			}
+			side.finish(min);
+			// {{ Inv: for every edge out of min that we have seen so far, the tentative
+			//		distance of the node it points to is no greater than the distance of
+			//		min plus the weight of the edge }}
+			for (int e = graph.getEdgeStart(min); e < graph.getEdgeEnd(min); e++) {
+				int node = graph.getTarget(e);
+				double cost = side.distance[min] + graph.getWeight(e);
+				if (!side.isFinished(node) && cost < side.distance(node)) {
+					side.reach(node, cost, e);
+					active.offer(node, cost + estimate(heuristic, node, dest));
+				}
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * Runs Dijkstra's algorithm from the given source node until every node it can
+	 * reach is settled, and returns the tree of shortest paths it found. The path the
+	 * tree gives to any node is the same one shortestPath returns for it, so one tree
+	 * answers queries from src to many destinations.
+	 * 
+	 * @param <K> The key/name/data of a node or that a node holds
+	 * @param graph The graph in which to search.
+	 * @param src Id of the node in the graph where every path must start.
+	 * @spec.requires graph is not null and src is the id of a node in graph
+	 * @return the ShortestPathTree from src over graph
+	 */
+	public static <K extends Comparable<K>> ShortestPathTree<K> shortestPathTree(
+			CompactGraph<K> graph, int src) {
+		return shortestPathTree(graph, src, newQueue(graph.size()));
+	}
+	
+	/**
+	 * Runs Dijkstra's algorithm from the given source node until every node it can
+	 * reach is settled, holding the frontier in the given queue, and returns the tree
+	 * of shortest paths it found.
+	 * 
+	 * @param <K> The key/name/data of a node or that a node holds
+	 * @param graph The graph in which to search.
+	 * @param src Id of the node in the graph where every path must start.
+	 * @param active The queue to hold the frontier of the search in
+	 * @spec.requires graph is not null, src is the id of a node in graph, and
+	 * 		active.capacity() &gt;= graph.size()
+	 * @spec.modifies active
+	 * @return the ShortestPathTree from src over graph
+	 */
+	public static <K extends Comparable<K>> ShortestPathTree<K> shortestPathTree(
+			CompactGraph<K> graph, int src, NodeQueue active) {
+		double[] distance = new double[graph.size()];
+		int[] parent = new int[graph.size()];
+		int settled = settleAll(graph, src, active, distance, parent);
+		return new ShortestPathTree<K>(graph, src, distance, parent, settled);
+	}
+	
+	/**
+	 * Runs Dijkstra's algorithm from the given source node until every node it can
+	 * reach is settled, and returns only the last edge of the shortest path to each 
+	 * node. These are the parents of shortestPathTree(graph, src) without its
+	 * distances, for callers that keep routes from many sources.
+	 * 
+	 * @param <K> The key/name/data of a node or that a node holds
+	 * @param graph The graph in which to search.
+	 * @param src Id of the node in the graph where every path must start.
+	 * @spec.requires graph is not null and src is the id of a node in graph
+	 * @return an int[] holding the id of the last edge of the shortest path from src to
+	 * 		each node, or -1 for src and for nodes that cannot be reached from it
+	 */
+	static <K extends Comparable<K>> int[] shortestPathParents(CompactGraph<K> graph, 
+			int src) {
+		int[] parent = new int[graph.size()];
+		settleAll(graph, src, newQueue(graph.size()), new double[graph.size()], parent);
+		return parent;
+	}
+	
+	/**
+	 * Runs Dijkstra's algorithm from the given source node until every node it can
+	 * reach is settled, holding the frontier in the given queue
+	 * 
+	 * @param <K> The key/name/data of a node or that a node holds
+	 * @param graph The graph in which to search.
+	 * @param src Id of the node in the graph where every path must start.
+	 * @param active The queue to hold the frontier of the search in
+	 * @param distance Filled with the cost of the shortest path to each node
+	 * @param parent Filled with the last edge of the shortest path to each node
+	 * @spec.requires graph is not null, src is the id of a node in graph,
+	 * 		active.capacity() &gt;= graph.size(), and distance.length == parent.length
+	 * 		== graph.size()
+	 * @spec.modifies active, distance, parent
+	 * @return the number of nodes settled
+	 */
+	private static <K extends Comparable<K>> int settleAll(CompactGraph<K> graph, int src,
+			NodeQueue active, double[] distance, int[] parent) {
+		active.clear();
+		boolean[] finished = new boolean[graph.size()];
+		Arrays.fill(distance, Double.POSITIVE_INFINITY);
+		Arrays.fill(parent, -1);
+		int settled = 0;
+		distance[src] = 0.0;
+		active.offer(src, 0.0);
+		
+		// {{ Inv: distance holds the least cost to every finished node, parent holds the 
+		//		last edge of that least cost path, and active holds every node whose 
+		//		tentative distance was lowered by an edge out of a finished node }}
+		while (!active.isEmpty()) {
+			int min = active.poll();
+			settled++;
+			finished[min] = true;
+			for (int e = graph.getEdgeStart(min); e < graph.getEdgeEnd(min); e++) {
+				int node = graph.getTarget(e);
+				double cost = distance[min] + graph.getWeight(e);
+				if (!finished[node] && cost < distance[node]) {
+					distance[node] = cost;
+					parent[node] = e;
+					active.offer(node, cost);
+				}
+			}
+		}
+		return settled;
+	}
+	
+	/**
+	 * Returns the shortest path from the given source node to the given destination
+	 * node via edges in the given CompactGraph, searching forward from src and backward
+	 * from dest at once until the two searches meet. The backward search follows edges
+	 * against their direction, so graph need not be undirected. Each search settles
+	 * nodes in the same order of cost and then id as shortestPath, and the side with
+	 * the cheaper next node goes first.
+	 * 
+	 * Once the searches meet, the forward search goes on to dest, but only into nodes
+	 * that the backward search found lie on a least cost path. Every such node gets the
+	 * parent shortestPath would give it, so ties are broken the same way.
+	 * 
+	 * @param <K> The key/name/data of a node or that a node holds
+	 * @param graph The graph in which to search for a path.
+	 * @param src Id of the node in the graph where the path must start.
+	 * @param dest Id of the node in the graph where the path must end.
+	 * @spec.requires graph is not null, src and dest are ids of nodes in graph
+	 * @return Returns the path shortestPath(graph, src, dest) returns, or null if no 
+	 * 		path exists between src and dest
+	 */
+	public static <K extends Comparable<K>> CompactPath<K> bidirectionalPath(
+			CompactGraph<K> graph, int src, int dest) {
+		return bidirectionalPath(graph, src, dest, 
+				SearchWorkspace.forCurrentThread(graph.size()));
+	}
+	
+	/**
+	 * Returns the shortest path from the given source node to the given destination
+	 * node via edges in the given CompactGraph, searching from both ends as above with
+	 * the frontiers held in the given queues.
+	 * 
+	 * @param <K> The key/name/data of a node or that a node holds
+	 * @param graph The graph in which to search for a path.
+	 * @param src Id of the node in the graph where the path must start.
+	 * @param dest Id of the node in the graph where the path must end.
+	 * @param forward The queue to hold the frontier of the search from src in
+	 * @param backward The queue to hold the frontier of the search from dest in
+	 * @spec.requires graph is not null, src and dest are ids of nodes in graph, forward
+	 * 		and backward are different queues, and both have capacity() &gt;= graph.size()
+	 * @spec.modifies forward, backward
+	 * @return Returns the path shortestPath(graph, src, dest) returns, or null if no 
+	 * 		path exists between src and dest
+	 */
+	public static <K extends Comparable<K>> CompactPath<K> bidirectionalPath(
+			CompactGraph<K> graph, int src, int dest, NodeQueue forward, NodeQueue backward) {
+		return bidirectionalPath(graph, src, dest, new SearchWorkspace(forward, backward));
+	}
+	
+	/**
+	 * Returns the shortest path from the given source node to the given destination
+	 * node via edges in the given CompactGraph, searching from both ends as above in
+	 * the given workspace. Nothing is allocated but the path returned.
+	 * 
+	 * @param <K> The key/name/data of a node or that a node holds
+	 * @param graph The graph in which to search for a path.
+	 * @param src Id of the node in the graph where the path must start.
+	 * @param dest Id of the node in the graph where the path must end.
+	 * @param workspace The scratch space to search in
+	 * @spec.requires graph is not null, src and dest are ids of nodes in graph, and
+	 * 		workspace.capacity() &gt;= graph.size()
+	 * @spec.modifies workspace
+	 * @return Returns the path shortestPath(graph, src, dest) returns, or null if no 
+	 * 		path exists between src and dest
+	 */
+	public static <K extends Comparable<K>> CompactPath<K> bidirectionalPath(
+			CompactGraph<K> graph, int src, int dest, SearchWorkspace workspace) {
+		SearchWorkspace.Side forward = workspace.forward();
+		SearchWorkspace.Side backward = workspace.backward();
+		workspace.begin();
+		int settled = 0;
+		forward.reach(src, 0.0, -1);
+		backward.reach(dest, 0.0, -1);
+		forward.queue.offer(src, 0.0);
+		backward.queue.offer(dest, 0.0);
+		//least cost of a path through a node reached by both searches, and that node
+		double best = (src == dest) ? 0.0 : Double.POSITIVE_INFINITY;
+		int meet = (src == dest) ? src : -1;
+		
+		// {{ Inv: best is the least forward.distance(n) + backward.distance(n) over every 
+		//		node n, meet is the lowest such n, and no path from src to dest costs less 
+		//		than best unless it passes through a node neither search has finished }}
+		while (!forward.queue.isEmpty() && !backward.queue.isEmpty()
+				&& forward.queue.peekKey() + backward.queue.peekKey() < best) {
+			boolean isForward = forward.queue.peekKey() <= backward.queue.peekKey();
+			SearchWorkspace.Side side = isForward ? forward : backward;
+			SearchWorkspace.Side other = isForward ? backward : forward;
+			int min = side.queue.poll();
+			settled++;
+			side.finish(min);
+			int first = isForward ? graph.getEdgeStart(min) : graph.getReverseEdgeStart(min);
+			int last = isForward ? graph.getEdgeEnd(min) : graph.getReverseEdgeEnd(min);
+			// {{ Inv: for every edge at or before i - 1 that we have seen so far, the 
+			//		tentative distance of the node at its other end is no greater than the 
+			//		distance of min plus the weight of the edge }}
+			for (int i = first; i < last; i++) {
+				int e = isForward ? i : graph.getReverseEdge(i);
+				int node = isForward ? graph.getTarget(e) : graph.getSource(e);
+				double cost = side.distance[min] + graph.getWeight(e);
+				if (!side.isFinished(node) && cost < side.distance(node)) {
+					side.reach(node, cost, e);
+					side.queue.offer(node, cost);
+					double through = cost + other.distance(node);
+					if (through < best || (through == best && node < meet)) {
+						best = through;
+						meet = node;
 					}
 				}
 			}
 		}
+		if (meet == -1) {
+			return null;
+		}
+		//every node on a least cost path now has a backward distance, so the forward
+		//search only needs to settle those to give each the parent it would in
+		//shortestPath; the slack only keeps nodes that rounding puts just over best
+		double bound = best + best * TIE_SLACK;
+		// {{ Inv: forward holds the least cost to every finished node and the same last
+		//		edge shortestPath finds for it, for every node on a least cost path }}
+		while (!forward.queue.isEmpty()) {
+			int min = forward.queue.poll();
+			settled++;
+			if (min == dest) {
+				return buildPath(graph, forward.link, src, dest, settled);
+			}
+			forward.finish(min);
+			if (forward.distance[min] + backward.distance(min) > bound) {
+				//left on the frontier by the first phase, but on no least cost path
+				continue;
+			}
+			for (int e = graph.getEdgeStart(min); e < graph.getEdgeEnd(min); e++) {
+				int node = graph.getTarget(e);
+				double cost = forward.distance[min] + graph.getWeight(e);
+				if (!forward.isFinished(node) && cost < forward.distance(node)
+						&& cost + backward.distance(node) <= bound) {
+					forward.reach(node, cost, e);
+					forward.queue.offer(node, cost);
+				}
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * Returns the path with the fewest edges from the given source node to the given
+	 * destination node via edges in the given CompactGraph. Edges out of each node are
+	 * explored in ascending order of the node they point to.
+	 * 
+	 * @param <K> The key/name/data of a node or that a node holds
+	 * @param graph The graph in which to search for a path.
+	 * @param src Id of the node in the graph where the path must start.
+	 * @param dest Id of the node in the graph where the path must end.
+	 * @spec.requires graph is not null, src and dest are ids of nodes in graph
+	 * @return Returns the lexicographically least path with the fewest edges from src
+	 * 		to dest, or null if no path exists between src and dest
+	 */
+	public static <K extends Comparable<K>> CompactPath<K> breadthFirstPath(
+			CompactGraph<K> graph, int src, int dest) {
+		int[] queue = new int[graph.size()];
+		int[] parent = new int[graph.size()];
+		boolean[] visited = new boolean[graph.size()];
+		Arrays.fill(parent, -1);
+		int head = 0;
+		int tail = 0;
+		int settled = 0;
+		queue[tail++] = src;
+		visited[src] = true;
+		
+		// {{ Inv: queue[head],...,queue[tail - 1] are the visited nodes whose edges have 
+		//		not been explored, in the order they were first reached }}
+		while (head < tail) {
+			int node = queue[head++];
+			settled++;
+			if (node == dest) {
+				return buildPath(graph, parent, src, dest, settled);
+			}
+			for (int e = graph.getEdgeStart(node); e < graph.getEdgeEnd(node); e++) {
+				int child = graph.getTarget(e);
+				if (!visited[child]) {
+					visited[child] = true;
+					parent[child] = e;
+					queue[tail++] = child;
+				}
+			}
+		}
 		return null;
 	}
 	
+	/**
+	 * Rebuilds the path to dest by following parent edges back to start
+	 * 
+	 * @param <K> The key/name/data of a node or that a node holds
+	 * @param graph The graph the path runs through
+	 * @param parent The last edge of the best path to each reached node
+	 * @param start The id of the node where the path starts
+	 * @param dest The id of the node where the path ends
+	 * @param settled The number of nodes settled by the search that found the path
+	 * @spec.requires dest is start or dest has a chain of parents leading to start
+	 * @return the path from start to dest
+	 */
+	static <K extends Comparable<K>> CompactPath<K> buildPath(CompactGraph<K> graph, 
+			int[] parent, int start, int dest, int settled) {
+		int length = 0;
+		for (int curr = dest; curr != start; curr = graph.getSource(parent[curr])) {
+			length++;
+		}
+		int[] edges = new int[length];
+		int curr = dest;
+		// {{ Inv: edges[length],...,edges[edges.length - 1] hold the edges from curr 
+		//		to dest }}
+		while (curr != start) {
+			edges[--length] = parent[curr];
+			curr = graph.getSource(parent[curr]);
+		}
+		return new CompactPath<K>(graph, start, edges, settled);
+	}
+	
+	/**
+	 * Returns the heuristic's estimate of the cost from node to dest
+	 * 
+	 * @param heuristic The estimate of the cost to dest, or null
+	 * @param node The id of the node to estimate from
+	 * @param dest The id of the destination
+	 * @return heuristic.estimate(node, dest), or 0 if heuristic is null
+	 */
+	private static double estimate(Heuristic heuristic, int node, int dest) {
+		return (heuristic == null) ? 0.0 : heuristic.estimate(node, dest);
+	}
+	
+	/**
+	 * Returns a new empty queue for the frontier of a search on a graph of the given
+	 * size, of the kind searches use when none is given
+	 * 
+	 * @param capacity The number of nodes in the graph
+	 * @return a new NodeQueue that can hold ids below capacity
+	 */
+	static NodeQueue newQueue(int capacity) {
+		return new IndexedDaryHeap(capacity, DEFAULT_ARITY);
+	}
+	
 	/**
 	 * Returns a graph object describing the contents of the given file. Edges between nodes
 	 * have labels that represent their "weight," or the inverse of the number of connections
@@ -139,58 +703,31 @@ public class DijkstrasAlgorithm<K extends Comparable<K>> {
 	 */
 	public static Graph<String, Double> buildGraph(String fileName) 
 			throws MalformedDataException {
-		Graph<String, String> initGraph = buildGraphFromFile(fileName);
-		Set<GraphNode<String, String>> chars = initGraph.getNodes();
-		Set<GraphNode<String, Double>> weightedChars = 
-				new HashSet<GraphNode<String, Double>>();
-		List<GraphNode<String, String>> unweightedList = 
-				new ArrayList<GraphNode<String, String>>();
-		List<GraphNode<String, Double>> charList = 
-				new ArrayList<GraphNode<String, Double>>();
-		
-		for (GraphNode<String, String> charNode : chars) {
-			GraphNode<String, Double> newChar = 
-					new GraphNode<String, Double>(charNode.getData());
-			weightedChars.add(newChar);
-			charList.add(newChar);
-			unweightedList.add(charNode);
-		}
-		
-		//constructs a weighted graph based on number of 
-		//connections for each char from initGraph
-		Graph<String, Double> weightedGraph = new Graph<String, Double>(weightedChars);
-		// {{ Inv: for characters unweightedList.get(0),...,unweightedList.get(i - 1), all 
-		//		connections between each character and all other characters have been converted
-		//		into weightings, and is reflected in charList.get(0),...,charList.get(i - 1 }}
-		for (int i = 0; i < unweightedList.size(); i++) {
-			GraphNode<String, String> initStart = unweightedList.get(i);
-			// {{ Inv: for characters unweightedList.get(i + 1),...,unweightedList.get(j - 1),
-			//		all connections between each character and unweightedList.get(0),...,
-			//		unweightedList.get(i) have been converted into weightings, and is 
-			//		reflected in charList.get(0),..,charList.get(j - 1) }}
-			for (int j = i + 1; j < unweightedList.size(); j++) {
-				GraphNode<String, String> initEnd = unweightedList.get(j);
-				Set<GraphEdge<String, String>> connections = 
-						initStart.getEdgesFromNode(initEnd);
-				if (connections != null) {
-					double numConnections = connections.size();
-					double cost = 1.0 / numConnections;
-					GraphNode<String, Double> weightedStart = charList.get(i);
-					GraphNode<String, Double> weightedEnd = charList.get(j);
-					assert(initStart.getData().equals(weightedStart.getData()));
-					assert(initEnd.getData().equals(weightedEnd.getData()));
-					GraphEdge<String, Double> newEdgeToEnd = 
-							new GraphEdge<String, Double>(cost, weightedEnd);
-					weightedStart.addEdge(newEdgeToEnd);
-					GraphEdge<String, Double> newEdgeToStart = 
-							new GraphEdge<String, Double>(cost, weightedStart);
-					weightedEnd.addEdge(newEdgeToStart);
-				}
-			}
-		}
-		return weightedGraph;
+		Set<String> characters = new HashSet<String>();
+		Map<String, List<String>> books = new HashMap<String, List<String>>();
+		parseData(fileName, characters, books);
+		//counts shared books per pair of characters without building the multigraph
+		return CoOccurrenceBuilder.buildGraph(characters, books, 
+				Runtime.getRuntime().availableProcessors());
 	}
 
+	/**
+	 * Returns the compact form of the graph buildGraphFromFile makes from the given
+	 * file, which holds each book title once and each edge as an int
+	 * 
+	 * @param fileName The simple file name of the .TSV file to read from. 
+	 * @throws MalformedDataException if the file cannot be parsed.
+	 * @return A CoAppearanceGraph with the same nodes and edges as
+	 * 		buildGraphFromFile(fileName)
+	 */
+	public static CoAppearanceGraph buildCoAppearanceGraph(String fileName) 
+			throws MalformedDataException {
+		Set<String> characters = new HashSet<String>();
+		Map<String, List<String>> books = new HashMap<String, List<String>>();
+		parseData(fileName, characters, books);
+		return new CoAppearanceGraph(characters, books);
+	}
+	
 	/**
 	 * Returns a graph object describing the contents of the given file.
 	 *
@@ -268,58 +805,19 @@ public class DijkstrasAlgorithm<K extends Comparable<K>> {
 	 *          each line contains exactly two tokens separated by a tab,
 	 *          or else starting with a # symbol to indicate a comment line.
 	 */
-	public static void parseData(String filename, Set<String> characters,
-								 Map<String, List<String>> books) throws MalformedDataException {
-        // Why does this method accept the Collections to be filled as
-        // parameters rather than making them a return value? To allows us to
-        // "return" two different Collections. If only one or neither Collection
-        // needs to be returned to the caller, feel free to rewrite this method
-        // without the parameters. Generally this is better style.
-        BufferedReader reader = null;
-        try {
-            reader = new BufferedReader(new FileReader(filename));
-
-            // Construct the collections of characters and books, one
-            // <character, book> pair at a time.
-            String inputLine;
-            while ((inputLine = reader.readLine()) != null) {
-
-                // Ignore comment lines.
-                if (inputLine.startsWith("#")) {
-                    continue;
-                }
-
-                // Parse the data, stripping out quotation marks and throwing
-                // an exception for malformed lines.
-                inputLine = inputLine.replace("\"", "");
-                String[] tokens = inputLine.split("\t");
-                if (tokens.length != 2) {
-                    throw new MalformedDataException("Line should contain exactly one tab: "
-                            + inputLine);
-                }
-
-                String character = tokens[0];
-                String book = tokens[1];
-
-                // Add the parsed data to the character and book collections.
-                characters.add(character);
-                if (!books.containsKey(book)) {
-                    books.put(book, new ArrayList<String>());
-                }
-                books.get(book).add(character);
-            }
-        } catch (IOException e) {
-            System.err.println(e.toString());
-            e.printStackTrace(System.err);
-        } finally {
-            if (reader != null) {
-                try {
-                    reader.close();
-                } catch (IOException e) {
-                    System.err.println(e.toString());
-                    e.printStackTrace(System.err);
-                }
-            }
-        }
-    }
+	public static void parseData(String filename, final Set<String> characters,
+								 final Map<String, List<String>> books) throws MalformedDataException {
+		MarvelParser.parse(filename, new MarvelParser.RecordHandler() {
+			@Override
+			public void record(String character, String book) {
+				characters.add(character);
+				List<String> cast = books.get(book);
+				if (cast == null) {
+					cast = new ArrayList<String>();
+					books.put(book, cast);
+				}
+				cast.add(character);
+			}
+		});
+	}
 }
@@ -16,12 +16,18 @@ import java.util.*;
  * Identical nodes are not supported, i.e., there cannot be two nodes with
  * the same data
  * 
+ * Every node is given an int id when it is added, the lowest id no node has been
+ * given since the ids were last compacted. A node keeps its id until it is removed
+ * or compactIds is called, so algorithms can index arrays by id instead of hashing
+ * nodes. Removing nodes leaves gaps in the ids, which compactIds closes.
+ * 
  * @param <K> The key/name/data of a GraphNode/the data that a GraphNode holds
  * @param <L> The label of a GraphEdge
  * 
  * Specification fields: 
  * 		@specfield nodes : Map&lt;String, GraphNode&gt; 
  * 									// All nodes present in the graph
+ * 		@specfield ids : Map&lt;GraphNode, int&gt; // The id of each node in the graph
  * 
  */
 
@@ -32,22 +38,35 @@ public class Graph<K extends Comparable<K>, L extends Comparable<L>> {
 	 * and GraphEdges, where GraphNodes are contained in 'nodes.'
 	 * If there are no GraphNodes in 'nodes,' then the Graph is empty.
 	 * 
+	 * The node with id i is byId.get(i), and ids maps the data of each node to its id
+	 * 
 	 * Representation Invariant:
-	 * nodes != null &&
+	 * nodes != null && ids != null && byId != null &&
 	 * for (0 <= i < nodes.size(), nodes.get(i) != null)
+	 * && ids.keySet().equals(nodes.keySet())
+	 * && for every key k of nodes, byId.get(ids.get(k)) == nodes.get(k)
+	 * && byId.get(i) == null for every i that is not a value of ids
 	 * 
-	 * In other words, no nodes in the graph are null
+	 * In other words, no nodes in the graph are null, and each has its own id
 	 * 
 	 */
 	
 	//Holds all nodes added
 	private Map<K, GraphNode<K, L>> nodes;
 	
+	//maps the data of each node to its id
+	private Map<K, Integer> ids;
+	
+	//node with each id, or null where the node with that id was removed
+	private List<GraphNode<K, L>> byId;
+	
 	/**
 	 * @spec.effects Constructs a new Graph object with no nodes or edges
 	 */
 	public Graph() {
 		nodes = new HashMap<K, GraphNode<K, L>>();
+		ids = new HashMap<K, Integer>();
+		byId = new ArrayList<GraphNode<K, L>>();
 		checkRep();
 	}
 	
@@ -62,9 +81,11 @@ public class Graph<K extends Comparable<K>, L extends Comparable<L>> {
 			throw new IllegalArgumentException("nodes is null");
 		}
 		this.nodes = new HashMap<K, GraphNode<K, L>>();
+		ids = new HashMap<K, Integer>();
+		byId = new ArrayList<GraphNode<K, L>>();
 		for (GraphNode<K, L> node : nodes) {
 			if (node != null) {
-				this.nodes.put(node.getData(), node);
+				put(node);
 			}
 		}
 		checkRep();
@@ -90,13 +111,35 @@ public class Graph<K extends Comparable<K>, L extends Comparable<L>> {
 		}
 		if(end != null) {
 			if(!nodes.containsKey(end.getData())) {
-				nodes.put(end.getData(), end);
+				put(end);
 			}
 			GraphEdge<K, L> edge = new GraphEdge<K, L>(label, end);
 			start.addEdge(edge);
 		}
 	}
 	
+	/**
+	 * Adds the given edge out of start. 
+	 * If the node edge points to is not a node in the graph, add it as a new node.
+	 * 
+	 * @param start The start node with edge coming out of it
+	 * @param edge The edge to add, such as a WeightedEdge
+	 * @spec.requires start is an existing node in the graph, edge != null, and
+	 * 		!start.isEdge(edge)
+	 * @throws IllegalArgumentException if start is not an existing node or edge == null
+	 * @spec.modifies adds an outgoing edge to start
+	 */
+	public void addEdge(GraphNode<K, L> start, GraphEdge<K, L> edge) {
+		checkRep();
+		if (!nodes.containsKey(start.getData()) || edge == null) {
+			throw new IllegalArgumentException("start is not an existing node or edge is null");
+		}
+		if (!nodes.containsKey(edge.getNode().getData())) {
+			put(edge.getNode());
+		}
+		start.addEdge(edge);
+	}
+	
 	/**
 	 * Adds a new node to the graph
 	 * 
@@ -107,7 +150,7 @@ public class Graph<K extends Comparable<K>, L extends Comparable<L>> {
 	public void addNode(GraphNode<K, L> node) {
 		checkRep();
 		if (node != null) {
-			nodes.put(node.getData(), node);
+			put(node);
 		}
 	}
 	
@@ -161,7 +204,9 @@ public class Graph<K extends Comparable<K>, L extends Comparable<L>> {
 	 */
 	public void removeNode(GraphNode<K, L> node) {
 		checkRep();
-		nodes.remove(node.getData());
+		if (nodes.remove(node.getData()) != null) {
+			byId.set(ids.remove(node.getData()), null);
+		}
 	}
 	
 	/**
@@ -206,18 +251,18 @@ public class Graph<K extends Comparable<K>, L extends Comparable<L>> {
 	 */
 	public String toString() {
 		checkRep();
-		String retVal = "";
+		StringBuilder retVal = new StringBuilder();
 		Set<GraphNode<K, L>> sortedNode = getSortedNodes();
 		// {{ Inv: for each node in nodes that we have seen so far, node.toString()
 		//	  has been added to retVal in the proper format (A, B, C), where
 		//	  A is node, B is an edge that points to C, and C is a child node of A }}
 		for (GraphNode<K, L> node : sortedNode) {
-			retVal += node.toString() + ", ";
-		}
-		if (retVal.length() > 2) {
-			retVal = retVal.substring(0, retVal.length() - 2);
+			if (retVal.length() > 0) {
+				retVal.append(", ");
+			}
+			node.appendTo(retVal);
 		}
-		return retVal;
+		return retVal.toString();
 	}
 	
 	/**
@@ -266,6 +311,69 @@ public class Graph<K extends Comparable<K>, L extends Comparable<L>> {
 		return nodes.get(data);
 	}
 	
+	/**
+	 * Returns the id of the given node
+	 * 
+	 * @param node The node whose id is wanted
+	 * @spec.requires node != null
+	 * @return the id of the node in the graph with the same data as node, or -1 if
+	 * 		there is no such node
+	 */
+	public int idOf(GraphNode<K, L> node) {
+		int hint = node.idHint;
+		if (hint >= 0 && hint < byId.size() && byId.get(hint) == node) {
+			return hint;
+		}
+		Integer id = ids.get(node.getData());
+		return (id == null) ? -1 : id;
+	}
+	
+	/**
+	 * Returns the node with given id, if it exists
+	 * 
+	 * @param id The id to be searched for
+	 * @spec.requires 0 &lt;= id &lt; idBound()
+	 * @return the GraphNode with the given id, or null if it has been removed
+	 */
+	public GraphNode<K, L> getNodeById(int id) {
+		return byId.get(id);
+	}
+	
+	/**
+	 * Returns one more than the greatest id given to a node since the ids were last
+	 * compacted, the length an array indexed by id must have
+	 * 
+	 * @return an int greater than the id of every node in the graph
+	 */
+	public int idBound() {
+		return byId.size();
+	}
+	
+	/**
+	 * Renumbers the nodes so that their ids are 0 to size() - 1, keeping the order of
+	 * their ids. Ids obtained before this is called must not be used afterwards
+	 * 
+	 * @spec.modifies ids
+	 * @spec.effects closes the gaps in ids left by removed nodes
+	 */
+	public void compactIds() {
+		checkRep();
+		int next = 0;
+		// {{ Inv: the nodes with ids below i have been given ids 0 to next - 1, in
+		//		their old order }}
+		for (int i = 0; i < byId.size(); i++) {
+			GraphNode<K, L> node = byId.get(i);
+			if (node != null) {
+				byId.set(next, node);
+				ids.put(node.getData(), next);
+				node.idHint = next;
+				next++;
+			}
+		}
+		byId.subList(next, byId.size()).clear();
+		checkRep();
+	}
+	
 	/**
 	 * Returns a read-only set of nodes in the graph, 
 	 * sorted alphabetically by the data each node holds
@@ -291,6 +399,27 @@ public class Graph<K extends Comparable<K>, L extends Comparable<L>> {
 		return getNodes().iterator();
 	}
 	
+	/**
+	 * Adds node to the graph, giving it the next id, or in place of the node with the
+	 * same data, keeping that node's id
+	 * 
+	 * @param node The node to be added
+	 * @spec.requires node != null
+	 * @spec.modifies nodes, ids
+	 */
+	private void put(GraphNode<K, L> node) {
+		Integer id = ids.get(node.getData());
+		if (id == null) {
+			id = byId.size();
+			ids.put(node.getData(), id);
+			byId.add(node);
+		} else {
+			byId.set(id, node);
+		}
+		node.idHint = id;
+		nodes.put(node.getData(), node);
+	}
+	
 	/**
 	 * Checks representation of this
 	 * @throws IllegalStateException if rep invariant is not satisfied
@@ -302,5 +431,8 @@ public class Graph<K extends Comparable<K>, L extends Comparable<L>> {
 		if (nodes.get(null) instanceof GraphNode) {
 			throw new IllegalStateException("Graph contains null node");
 		}
+		if (ids.size() != nodes.size() || byId.size() < ids.size()) {
+			throw new IllegalStateException("Graph ids do not match its nodes");
+		}
 	}
 }
@@ -22,7 +22,8 @@ public class GraphEdge<K extends Comparable<K>, L extends Comparable<L>>
 	 * a label
 	 * 
 	 *Representation Invariant:
-	 * label != null && !label.isEmpty() && node != null
+	 * node != null && (label != null && !label.isEmpty(), unless this is made by a
+	 * subclass that holds its label itself and overrides getLabel)
 	 * 
 	 */
 	
@@ -49,6 +50,25 @@ public class GraphEdge<K extends Comparable<K>, L extends Comparable<L>>
 		checkRep();
 	}
 	
+	/**
+	 * For subclasses that hold their label themselves, in a form other than L, and
+	 * override getLabel to return it
+	 * 
+	 * @param node The node that the edge points to
+	 * @spec.requires node != null
+	 * @throws IllegalArgumentException if node == null
+	 * @spec.effects Creates a new instance of GraphEdge with given node and no label of
+	 * 		its own
+	 */
+	protected GraphEdge(GraphNode<K, L> node) {
+		if (node == null) {
+			throw new IllegalArgumentException("node is null");
+		}
+		this.label = null;
+		this.node = node;
+		checkRep();
+	}
+	
 	/**
 	 * Returns the label of the edge
 	 * 
@@ -73,7 +93,7 @@ public class GraphEdge<K extends Comparable<K>, L extends Comparable<L>>
 	 * Checks representation of this
 	 */
 	private void checkRep() {
-		if (label == null || node == null) {
+		if (node == null) {
 			throw new IllegalStateException("rep inv is not satisfied");
 		}
 	}
@@ -88,8 +108,9 @@ public class GraphEdge<K extends Comparable<K>, L extends Comparable<L>>
 	 *		   greater than the argument label.
 	 */
 	public int compareTo(GraphEdge<K, L> other) {
-		if (this.label.compareTo((L) other.getLabel()) != 0) {
-			return this.label.compareTo((L) other.getLabel());
+		int byLabel = getLabel().compareTo(other.getLabel());
+		if (byLabel != 0) {
+			return byLabel;
 		}
 		return ((K) this.node.getData()).compareTo((K) other.getNode().getData());
 	}
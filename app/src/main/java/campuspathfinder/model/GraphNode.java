@@ -15,7 +15,7 @@ import java.util.*;
  * Specification fields:
  * 		@specfield data : String // Data of the node
  * 		@specfield edges : Set&lt;GraphEdge&gt; // Edges of the node
- * 		@specfield children : Set&lt;GraphNode&gt; // Children of this
+ * 		@specfield children : Set&lt;GraphNode&gt; // Children of this, each with the edges to it
  * 
  * Abstract Invariant: a GraphNode must have data
  *
@@ -29,7 +29,9 @@ public class GraphNode<K extends Comparable<K>, L extends Comparable<L>>
 	 * coming out of it, pointing to other nodes or n itself.
 	 * 
 	 *Representation Invariant:
-	 * data != null && edges != null && children != null
+	 * data != null && edges != null && edgeList != null && children != null &&
+	 * children maps each node that an edge points to, to exactly the edges pointing to it &&
+	 * edges.keySet() contains exactly the edges in edgeList, each mapped to its index &&
 	 * for (0 <= i < edges.size(), edges.get(i).getNode() != null) &&
 	 * for (0 <= i < edges.size(), i < j < edges.size(), 
 	 * !edges.get(i).getLabel().equals(edges.get(j).getLabel()) || 
@@ -43,11 +45,26 @@ public class GraphNode<K extends Comparable<K>, L extends Comparable<L>>
 	//Holds the data of the node
 	private K data;
 	
-	//Holds the edges that the node has
-	private Set<GraphEdge<K, L>> edges;
+	//Holds the edges that the node has, mapped to their position in edgeList
+	private Map<GraphEdge<K, L>, Integer> edges;
 	
-	//Holds the children that the node has
-	private Set<GraphNode<K, L>> children;
+	//Holds the edges that the node has, in no particular order
+	private List<GraphEdge<K, L>> edgeList;
+	
+	//Holds the children that the node has, mapped to the edges that point to each
+	private Map<GraphNode<K, L>, List<GraphEdge<K, L>>> children;
+	
+	//Read-only edges sorted by child and then by label, or null until next needed
+	private List<GraphEdge<K, L>> sortedEdges;
+	
+	//Read-only edges sorted by label, or null until next needed
+	private Set<GraphEdge<K, L>> sortedEdgeSet;
+	
+	//Read-only children sorted alphabetically, or null until next needed
+	private Set<GraphNode<K, L>> sortedChildren;
+	
+	//id the last Graph this was added to gave it, which Graph checks before trusting
+	int idHint = -1;
 	
 	/**
 	 * @param data The String that the node is to hold
@@ -60,8 +77,9 @@ public class GraphNode<K extends Comparable<K>, L extends Comparable<L>>
 			throw new IllegalArgumentException("data is null");
 		}
 		this.data = data;
-		edges = new HashSet<GraphEdge<K, L>>();
-		children = new HashSet<GraphNode<K, L>>();
+		edges = new HashMap<GraphEdge<K, L>, Integer>();
+		edgeList = new ArrayList<GraphEdge<K, L>>();
+		children = new HashMap<GraphNode<K, L>, List<GraphEdge<K, L>>>();
 		checkRep();
 	}
 	
@@ -79,17 +97,19 @@ public class GraphNode<K extends Comparable<K>, L extends Comparable<L>>
 			throw new IllegalArgumentException("data is null");
 		}
 		this.data = data;
-		this.edges = new HashSet<GraphEdge<K, L>>();
+		this.edges = new HashMap<GraphEdge<K, L>, Integer>();
+		this.edgeList = new ArrayList<GraphEdge<K, L>>();
 		for (GraphEdge<K, L> edge : edges) {
 			if (!isEdge(edge)) {
-				this.edges.add(edge);
+				this.edges.put(edge, edgeList.size());
+				edgeList.add(edge);
 			}
 		}
-		children = new HashSet<GraphNode<K, L>>();
-		// {{ Inv: for each edge in this.edges that we have seen so far, the node
-		//	  it points to has been added to children }}
-		for (GraphEdge<K, L> edge : this.edges) {
-			children.add(edge.getNode());
+		children = new HashMap<GraphNode<K, L>, List<GraphEdge<K, L>>>();
+		// {{ Inv: for each edge in edgeList that we have seen so far, it has been added
+		//	  to the edges of the node it points to in children }}
+		for (GraphEdge<K, L> edge : edgeList) {
+			indexEdge(edge);
 		}
 		checkRep();
 	}
@@ -105,15 +125,69 @@ public class GraphNode<K extends Comparable<K>, L extends Comparable<L>>
 	}
 	
 	/**
-	 * Returns a fresh, read-only access sorted set of outgoing edges
+	 * Returns a read-only access sorted set of outgoing edges, which later changes
+	 * to the node do not show in
 	 * Edges are sorted lexicographically by label
 	 * 
 	 * @return Set&lt;GraphEdge&gt; of edges connecting out of the node
 	 */
 	public Set<GraphEdge<K, L>> getEdges() {
 		checkRep();
-		Set<GraphEdge<K, L>> set = new TreeSet<GraphEdge<K, L>>(edges);
-		return Collections.unmodifiableSet(set);
+		if (sortedEdgeSet == null) {
+			Set<GraphEdge<K, L>> set = new TreeSet<GraphEdge<K, L>>(edgeList);
+			sortedEdgeSet = Collections.unmodifiableSet(set);
+		}
+		return sortedEdgeSet;
+	}
+	
+	/**
+	 * Returns the number of outgoing edges
+	 * 
+	 * @return the number of edges connecting out of the node
+	 */
+	public int getEdgeCount() {
+		return edgeList.size();
+	}
+	
+	/**
+	 * Returns an outgoing edge without copying or sorting, so that all edges can be
+	 * visited by asking for indices 0 to getEdgeCount() - 1. Edges are in no
+	 * particular order, and the order changes when edges are added or removed
+	 * 
+	 * @param index The index of the edge
+	 * @spec.requires 0 &lt;= index &lt; getEdgeCount()
+	 * @return the GraphEdge at index
+	 */
+	public GraphEdge<K, L> getEdge(int index) {
+		return edgeList.get(index);
+	}
+	
+	/**
+	 * Returns an outgoing edge in sorted order, so that all edges can be visited
+	 * by asking for indices 0 to getEdgeCount() - 1. Edges are sorted alphabetically
+	 * by the data of the node they point to and secondarily by label. The sorted
+	 * order is kept until edges are added or removed
+	 * 
+	 * @param index The index of the edge
+	 * @spec.requires 0 &lt;= index &lt; getEdgeCount()
+	 * @return the GraphEdge at index in sorted order
+	 */
+	public GraphEdge<K, L> getSortedEdge(int index) {
+		if (sortedEdges == null) {
+			List<GraphEdge<K, L>> list = new ArrayList<GraphEdge<K, L>>(edgeList);
+			Collections.sort(list, new Comparator<GraphEdge<K, L>>() {
+				@Override
+				public int compare(GraphEdge<K, L> o1, GraphEdge<K, L> o2) {
+					int byNode = o1.getNode().compareTo(o2.getNode());
+					if (byNode != 0) {
+						return byNode;
+					}
+					return o1.getLabel().compareTo(o2.getLabel());
+				}
+			});
+			sortedEdges = list;
+		}
+		return sortedEdges.get(index);
 	}
 	
 	/**
@@ -145,10 +219,11 @@ public class GraphNode<K extends Comparable<K>, L extends Comparable<L>>
 		if (isEdge(edge)) {
 			throw new IllegalArgumentException("edge is already in the node");
 		}
-		edges.add(edge);
-		if (!children.contains(edge.getNode())) {
-			children.add(edge.getNode());
-		}
+		edges.put(edge, edgeList.size());
+		edgeList.add(edge);
+		indexEdge(edge);
+		sortedEdges = null;
+		sortedEdgeSet = null;
 	}
 	
 	/**
@@ -164,22 +239,53 @@ public class GraphNode<K extends Comparable<K>, L extends Comparable<L>>
 		if (!isEdge(edge)) {
 			throw new IllegalArgumentException("edge is not a valid edge");
 		}
-		edges.remove(edge);
+		//moves the last edge into the removed edge's place
+		int index = edges.remove(edge);
+		GraphEdge<K, L> last = edgeList.remove(edgeList.size() - 1);
+		if (last != edge) {
+			edgeList.set(index, last);
+			edges.put(last, index);
+		}
+		sortedEdges = null;
+		sortedEdgeSet = null;
 
 		//updates children
 		GraphNode<K, L> child = edge.getNode();
-		boolean contains = false;
-		for (GraphEdge<K, L> e : edges) {
-			if(e.getNode().compareTo(child) == 0) {
-				contains = true;
-				break;
-			}
-		}
-		if (!contains) {
+		List<GraphEdge<K, L>> toChild = children.get(child);
+		toChild.remove(edge);
+		if (toChild.isEmpty()) {
 			children.remove(child);
+			sortedChildren = null;
 		}
 	}
 	
+	/**
+	 * Adds edge to the edges of the node it points to in children
+	 * 
+	 * @param edge The edge to be added
+	 * @spec.modifies children
+	 */
+	private void indexEdge(GraphEdge<K, L> edge) {
+		List<GraphEdge<K, L>> toChild = children.get(edge.getNode());
+		if (toChild == null) {
+			toChild = new ArrayList<GraphEdge<K, L>>(1);
+			children.put(edge.getNode(), toChild);
+			sortedChildren = null;
+		}
+		toChild.add(edge);
+	}
+	
+	/**
+	 * Returns the number of outgoing edges that point to the given node
+	 * 
+	 * @param node The destination node
+	 * @return the number of GraphEdges that point to the node
+	 */
+	public int getEdgeCountToNode(GraphNode<K, L> node) {
+		List<GraphEdge<K, L>> toChild = children.get(node);
+		return (toChild == null) ? 0 : toChild.size();
+	}
+	
 	/**
 	 * Checks if given edge is a valid edge connecting out of the node
 	 * 
@@ -187,7 +293,7 @@ public class GraphNode<K extends Comparable<K>, L extends Comparable<L>>
 	 * @return true if and only if edge is a valid edge
 	 */
 	public boolean isEdge(GraphEdge<K, L> edge) {
-		return edges.contains(edge);
+		return edges.containsKey(edge);
 	}
 	
 	/**
@@ -200,18 +306,11 @@ public class GraphNode<K extends Comparable<K>, L extends Comparable<L>>
 	 */
 	public Set<GraphEdge<K, L>> getEdgesFromNode(GraphNode<K, L> node) {
 		checkRep();
-		if (!children.contains(node)) {
+		List<GraphEdge<K, L>> toChild = children.get(node);
+		if (toChild == null) {
 			return null;
 		}
-		Set<GraphEdge<K, L>> set = new TreeSet<GraphEdge<K, L>>();
-		// {{ Inv: for each edge in edges that we have seen so far, if the edge 
-		//	  points to node, then it has been added to set }}
-		for (GraphEdge<K, L> edge : edges) {
-			if(edge.getNode() == node) {
-				set.add(edge);
-			}
-		}
-		return set;
+		return new TreeSet<GraphEdge<K, L>>(toChild);
 	}
 	
 	/**
@@ -223,28 +322,27 @@ public class GraphNode<K extends Comparable<K>, L extends Comparable<L>>
 	 */
 	public GraphEdge<K, L> getEdgeFromNode(GraphNode<K, L> node) {
 		checkRep();
-		if (!children.contains(node)) {
+		List<GraphEdge<K, L>> toChild = children.get(node);
+		if (toChild == null) {
 			return null;
 		}
-		for (GraphEdge<K, L> edge : edges) {
-			if (edge.getNode() == node) {
-				return edge;
-			}
-		}
-		return null;
+		return toChild.get(0);
 	}
 	
 	/**
-	 * Returns a fresh, read-only access set of child nodes, 
-	 * sorted alphabetically by the data each node holds
+	 * Returns a read-only access set of child nodes, which later changes to the
+	 * node do not show in, sorted alphabetically by the data each node holds
 	 * Changes to the children nodes will lead to unspecified behavior
 	 * 
 	 * @return Set&lt;GraphNode&gt; of nodes in the graph sorted alphabetically
 	 */
 	public Set<GraphNode<K, L>> getChildren() {
 		checkRep();
-		Set<GraphNode<K, L>> sortedChildren = new TreeSet<GraphNode<K, L>>(this.children);
-		return Collections.unmodifiableSet(sortedChildren);
+		if (sortedChildren == null) {
+			Set<GraphNode<K, L>> set = new TreeSet<GraphNode<K, L>>(this.children.keySet());
+			sortedChildren = Collections.unmodifiableSet(set);
+		}
+		return sortedChildren;
 	}
 	
 	/**
@@ -257,27 +355,41 @@ public class GraphNode<K extends Comparable<K>, L extends Comparable<L>>
 	 */
 	public String toString() {
 		checkRep();
-		String retVal = "";
-		if (this.children.size() > 0) {
-		Set<GraphNode<K, L>> sortedChildren = getChildren();
-			// {{ Inv: for each node in sortedChildren that we have seen so far, 
-			//	  it has been added to retVal in the proper format (A, B, C),
-			//	  where A is this and C is node}}
-			for (GraphNode<K, L> node : sortedChildren) {
-				Set<GraphEdge<K, L>> edgesToChild = getEdgesFromNode(node);
-				// {{ Inv: for each edge in edgesToChild that we have seen so far,
-				//	  it has been added to retVal in the proper format (A, B, C), 
-				//	  where A is this, B is the edge, and C is node
-				for (GraphEdge<K, L> edge : edgesToChild) {
-					retVal += "(" + this.data + ", " + 
-							edge.getLabel() + ", " + node.getData() + "), ";
+		StringBuilder retVal = new StringBuilder();
+		appendTo(retVal);
+		return retVal.toString();
+	}
+	
+	/**
+	 * Appends the String representation of the node given by toString() to the
+	 * given StringBuilder
+	 * 
+	 * @param retVal The StringBuilder to append to
+	 * @spec.requires retVal != null
+	 * @spec.modifies retVal
+	 */
+	void appendTo(StringBuilder retVal) {
+		if (edgeList.size() > 0) {
+			GraphEdge<K, L> previous = null;
+			// {{ Inv: for each edge in sorted order that we have seen so far, unless it
+			//	  matches the edge before it, it has been added to retVal in the proper
+			//	  format (A, B, C), where A is this, B is the edge, and C is its node }}
+			for (int i = 0; i < edgeList.size(); i++) {
+				GraphEdge<K, L> edge = getSortedEdge(i);
+				if (previous != null && previous.getNode() == edge.getNode()
+						&& previous.compareTo(edge) == 0) {
+					continue;
+				}
+				if (previous != null) {
+					retVal.append(", ");
 				}
+				retVal.append("(").append(this.data).append(", ").append(edge.getLabel())
+						.append(", ").append(edge.getNode().getData()).append(")");
+				previous = edge;
 			}
-			retVal = retVal.substring(0, retVal.length() - 2);
 		} else {
-			retVal = "(" + this.data + ", , " + this.data + ")";
+			retVal.append("(").append(this.data).append(", , ").append(this.data).append(")");
 		}
-		return retVal;
 	}
 	
 	/**
@@ -285,7 +397,7 @@ public class GraphNode<K extends Comparable<K>, L extends Comparable<L>>
 	 * @throws IllegalStateException if rep invariant is not satisfied
 	 */
 	private void checkRep() {
-		if (data == null || edges == null || children == null) {
+		if (data == null || edges == null || edgeList == null || children == null) {
 			throw new IllegalStateException("Data is null or "
 					+ "edges is null or children is null");
 		}
@@ -0,0 +1,203 @@
+package campuspathfinder.model;
+
+import java.util.Arrays;
+
+/**
+ * An IndexedDaryHeap is a NodeQueue kept as a d-ary heap in primitive arrays. The
+ * position of each node in the heap is indexed by its id, so offering a lower key
+ * for a node already held moves its one entry up the heap instead of adding another.
+ * Wider heaps are shallower, trading more comparisons per removal for fewer levels.
+ *
+ * Specification fields:
+ * 		@specfield capacity : int // One more than the greatest id that can be held
+ * 		@specfield entries : Map&lt;int, double&gt; // The key of each node held
+ * 		@specfield arity : int // The number of children of each entry of the heap
+ *
+ */
+public class IndexedDaryHeap implements NodeQueue {
+
+	/*Abstraction Function:
+	 * An IndexedDaryHeap, h, holds nodes heap[0],...,heap[size - 1], the node n held
+	 * with key keys[n]
+	 *
+	 * Representation Invariant:
+	 * arity >= 2 && heap.length == keys.length == position.length
+	 * && 0 <= size <= heap.length
+	 * && for (0 <= i < size, position[heap[i]] == i)
+	 * && position[n] == -1 for every n not among heap[0],...,heap[size - 1]
+	 * && for (0 < i < size, (keys[heap[(i - 1) / arity]], heap[(i - 1) / arity]) is
+	 * 		no greater than (keys[heap[i]], heap[i]))
+	 *
+	 */
+
+	//the number of children of each entry
+	private final int arity;
+
+	//the nodes held, in heap order
+	private final int[] heap;
+
+	//the key of each node held, indexed by id
+	private final double[] keys;
+
+	//the index in heap of each node, or -1 if it is not held
+	private final int[] position;
+
+	//the number of nodes held
+	private int size;
+
+	/**
+	 * @param capacity One more than the greatest id that can be held
+	 * @param arity The number of children of each entry of the heap
+	 * @spec.requires capacity &gt;= 0
+	 * @throws IllegalArgumentException if arity &lt; 2
+	 * @spec.effects Constructs a new empty IndexedDaryHeap
+	 */
+	public IndexedDaryHeap(int capacity, int arity) {
+		if (arity < 2) {
+			throw new IllegalArgumentException("arity is less than 2");
+		}
+		this.arity = arity;
+		heap = new int[capacity];
+		keys = new double[capacity];
+		position = new int[capacity];
+		Arrays.fill(position, -1);
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	@Override
+	public int capacity() {
+		return heap.length;
+	}
+
+	/**
+	 * Returns the number of children of each entry of the heap
+	 *
+	 * @return the arity of this heap
+	 */
+	public int getArity() {
+		return arity;
+	}
+
+	@Override
+	public void offer(int node, double key) {
+		int i = position[node];
+		if (i == -1) {
+			i = size++;
+		} else if (key >= keys[node]) {
+			return;
+		}
+		keys[node] = key;
+		siftUp(i, node);
+	}
+
+	@Override
+	public int peek() {
+		return heap[0];
+	}
+
+	@Override
+	public double peekKey() {
+		return keys[heap[0]];
+	}
+
+	@Override
+	public int poll() {
+		int min = heap[0];
+		position[min] = -1;
+		size--;
+		if (size > 0) {
+			siftDown(0, heap[size]);
+		}
+		return min;
+	}
+
+	@Override
+	public void clear() {
+		for (int i = 0; i < size; i++) {
+			position[heap[i]] = -1;
+		}
+		size = 0;
+	}
+
+	/**
+	 * Moves node up from index i until its parent is no greater than it
+	 *
+	 * @param i The index to start from, which is free to be written
+	 * @param node The node to place
+	 * @spec.modifies heap, position
+	 */
+	private void siftUp(int i, int node) {
+		double key = keys[node];
+		// {{ Inv: every entry on the path from the root to i, other than i, is no greater
+		//		than its children, and heap[i] is free }}
+		while (i > 0) {
+			int parent = (i - 1) / arity;
+			int above = heap[parent];
+			if (!less(key, node, keys[above], above)) {
+				break;
+			}
+			heap[i] = above;
+			position[above] = i;
+			i = parent;
+		}
+		heap[i] = node;
+		position[node] = i;
+	}
+
+	/**
+	 * Moves node down from index i until none of its children are less than it
+	 *
+	 * @param i The index to start from, which is free to be written
+	 * @param node The node to place
+	 * @spec.modifies heap, position
+	 */
+	private void siftDown(int i, int node) {
+		double key = keys[node];
+		// {{ Inv: every entry outside the subtree under i is no greater than its children,
+		//		and heap[i] is free }}
+		while (true) {
+			int first = i * arity + 1;
+			if (first >= size) {
+				break;
+			}
+			int last = Math.min(first + arity, size);
+			int min = first;
+			for (int child = first + 1; child < last; child++) {
+				if (less(keys[heap[child]], heap[child], keys[heap[min]], heap[min])) {
+					min = child;
+				}
+			}
+			int below = heap[min];
+			if (!less(keys[below], below, key, node)) {
+				break;
+			}
+			heap[i] = below;
+			position[below] = i;
+			i = min;
+		}
+		heap[i] = node;
+		position[node] = i;
+	}
+
+	/**
+	 * Returns whether one entry comes out before another
+	 *
+	 * @param key1 The key of the first entry
+	 * @param node1 The node of the first entry
+	 * @param key2 The key of the second entry
+	 * @param node2 The node of the second entry
+	 * @return true if key1 &lt; key2, or they are equal and node1 &lt; node2
+	 */
+	private static boolean less(double key1, int node1, double key2, int node2) {
+		return key1 < key2 || (key1 == key2 && node1 < node2);
+	}
+}
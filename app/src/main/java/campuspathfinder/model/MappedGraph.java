@@ -0,0 +1,297 @@
+package campuspathfinder.model;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Writes a CompactGraph of Strings to a binary file and maps such a file back into a
+ * CompactGraph whose arrays are views of the file's pages, so a graph such as the
+ * weighted Marvel graph can be loaded without parsing or copying anything. The pages
+ * are mapped read-only, so every process that maps the same file shares them.
+ *
+ * The file is laid out in big-endian order as
+ * <pre>
+ * header:   int MAGIC, int VERSION, int nodes, int edges, long name bytes, long 0
+ * weights:  double weight of each edge
+ * names:    int offset of each name into the name bytes, then the name byte count
+ * offsets:  int first edge of each node, then the edge count
+ * targets:  int node each edge points to
+ * sources:  int node each edge leaves from
+ * reverse:  int first reverse index of each node, then the edge count, and the edge
+ *           number at each reverse index
+ * name bytes: the UTF-8 bytes of each name, sorted, in order of id
+ * </pre>
+ * with each section starting on a multiple of 8 bytes. A file whose magic number,
+ * version or size does not match is rejected. The file is not checksummed, since
+ * that would read every page at load time; it must not be changed while mapped.
+ *
+ * <p>This is not an ADT.</p>
+ */
+public final class MappedGraph {
+
+	//the first bytes of every graph file, "CGMF"
+	public static final int MAGIC = 0x43474D46;
+
+	//the version of the layout written and read, raised whenever the layout changes
+	public static final int VERSION = 1;
+
+	//bytes in the header
+	private static final int HEADER_SIZE = 32;
+
+	/**
+	 * A read-only view of the names in a mapped file, decoded when asked for
+	 */
+	private static class NameList extends AbstractList<String> implements RandomAccess {
+
+		//offset of each name into bytes, then the byte count
+		private final ByteBuffer offsets;
+
+		//the UTF-8 bytes of every name
+		private final ByteBuffer bytes;
+
+		//the number of names
+		private final int size;
+
+		/**
+		 * @param offsets The offset section of the file
+		 * @param bytes The name bytes section of the file
+		 * @param size The number of names
+		 * @spec.effects Constructs a new NameList over the given sections
+		 */
+		NameList(ByteBuffer offsets, ByteBuffer bytes, int size) {
+			this.offsets = offsets;
+			this.bytes = bytes;
+			this.size = size;
+		}
+
+		@Override
+		public String get(int index) {
+			if (index < 0 || index >= size) {
+				throw new IndexOutOfBoundsException("index " + index);
+			}
+			int start = offsets.getInt(4 * index);
+			int end = offsets.getInt(4 * index + 4);
+			byte[] name = new byte[end - start];
+			ByteBuffer view = bytes.duplicate();
+			view.position(start);
+			view.get(name);
+			return new String(name, StandardCharsets.UTF_8);
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+	}
+
+	/**
+	 * Writes the given graph to a file that map can load
+	 *
+	 * @param graph The graph to write
+	 * @param fileName The path of the file to write, which is replaced if it exists
+	 * @spec.requires graph != null and fileName != null
+	 * @throws IOException if any I/O error occurs writing the file, or it would be too
+	 * 		large to map
+	 */
+	public static void write(Graph<String, Double> graph, String fileName) throws IOException {
+		write(new CompactGraph<String>(graph), fileName);
+	}
+
+	/**
+	 * Writes the given graph to a file that map can load
+	 *
+	 * @param graph The graph to write
+	 * @param fileName The path of the file to write, which is replaced if it exists
+	 * @spec.requires graph != null and fileName != null
+	 * @throws IOException if any I/O error occurs writing the file, or it would be too
+	 * 		large to map
+	 */
+	public static void write(CompactGraph<String> graph, String fileName) throws IOException {
+		int nodes = graph.size();
+		int edges = graph.edgeCount();
+		byte[][] names = new byte[nodes][];
+		long nameBytes = 0;
+		for (int i = 0; i < nodes; i++) {
+			names[i] = graph.getData(i).getBytes(StandardCharsets.UTF_8);
+			nameBytes += names[i].length;
+		}
+		if (fileSize(nodes, edges, nameBytes) > Integer.MAX_VALUE) {
+			throw new IOException("graph is too large to map");
+		}
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+				new FileOutputStream(fileName), 1 << 16));
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(nodes);
+			out.writeInt(edges);
+			out.writeLong(nameBytes);
+			out.writeLong(0);
+			for (int e = 0; e < edges; e++) {
+				out.writeDouble(graph.getWeight(e));
+			}
+			int offset = 0;
+			for (int i = 0; i < nodes; i++) {
+				out.writeInt(offset);
+				offset += names[i].length;
+			}
+			out.writeInt(offset);
+			pad(out, nodes + 1);
+			for (int i = 0; i < nodes; i++) {
+				out.writeInt(graph.getEdgeStart(i));
+			}
+			out.writeInt(edges);
+			pad(out, nodes + 1);
+			for (int e = 0; e < edges; e++) {
+				out.writeInt(graph.getTarget(e));
+			}
+			pad(out, edges);
+			for (int e = 0; e < edges; e++) {
+				out.writeInt(graph.getSource(e));
+			}
+			pad(out, edges);
+			for (int i = 0; i < nodes; i++) {
+				out.writeInt(graph.getReverseEdgeStart(i));
+			}
+			out.writeInt(edges);
+			pad(out, nodes + 1);
+			for (int e = 0; e < edges; e++) {
+				out.writeInt(graph.getReverseEdge(e));
+			}
+			pad(out, edges);
+			for (byte[] name : names) {
+				out.write(name);
+			}
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Maps a file write made into a read-only graph. Nothing is read but the header
+	 * until the graph is searched, and the file can be closed and mapped again by
+	 * other processes while the graph is in use
+	 *
+	 * @param fileName The path of the file to map
+	 * @spec.requires fileName != null
+	 * @throws IOException if any I/O error occurs mapping the file, or it is not a
+	 * 		graph file of this version of the size its header gives
+	 * @return a CompactGraph whose node data are the names in the file, read from the
+	 * 		mapped pages
+	 */
+	public static CompactGraph<String> map(String fileName) throws IOException {
+		FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ);
+		try {
+			long size = channel.size();
+			if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+				throw new IOException("not a mapped graph file: " + fileName);
+			}
+			MappedByteBuffer file = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+			if (file.getInt(0) != MAGIC) {
+				throw new IOException("not a mapped graph file: " + fileName);
+			}
+			int version = file.getInt(4);
+			if (version != VERSION) {
+				throw new IOException("mapped graph file is version " + version
+						+ ", expected " + VERSION);
+			}
+			int nodes = file.getInt(8);
+			int edges = file.getInt(12);
+			long nameBytes = file.getLong(16);
+			if (nodes < 0 || edges < 0 || nameBytes < 0
+					|| fileSize(nodes, edges, nameBytes) != size) {
+				throw new IOException("mapped graph file holds " + size + " bytes, "
+						+ "which does not match its header");
+			}
+			int at = HEADER_SIZE;
+			ByteBuffer weights = section(file, at, 8L * edges);
+			at += 8 * edges;
+			ByteBuffer nameOffsets = section(file, at, 4L * (nodes + 1));
+			at += aligned(4L * (nodes + 1));
+			ByteBuffer offsets = section(file, at, 4L * (nodes + 1));
+			at += aligned(4L * (nodes + 1));
+			ByteBuffer targets = section(file, at, 4L * edges);
+			at += aligned(4L * edges);
+			ByteBuffer sources = section(file, at, 4L * edges);
+			at += aligned(4L * edges);
+			ByteBuffer reverseOffsets = section(file, at, 4L * (nodes + 1));
+			at += aligned(4L * (nodes + 1));
+			ByteBuffer reverseEdges = section(file, at, 4L * edges);
+			at += aligned(4L * edges);
+			ByteBuffer names = section(file, at, nameBytes);
+			List<String> keys = new NameList(nameOffsets, names, nodes);
+			try {
+				return new CompactGraph<String>(keys, offsets.asIntBuffer(),
+						targets.asIntBuffer(), weights.asDoubleBuffer(), sources.asIntBuffer(),
+						reverseOffsets.asIntBuffer(), reverseEdges.asIntBuffer());
+			} catch (IllegalStateException e) {
+				throw new IOException("mapped graph file is malformed", e);
+			}
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * Returns the size of the file write makes for a graph of the given shape
+	 *
+	 * @param nodes The number of nodes
+	 * @param edges The number of edges
+	 * @param nameBytes The total number of bytes of the names
+	 * @return the number of bytes in the file
+	 */
+	private static long fileSize(int nodes, int edges, long nameBytes) {
+		return HEADER_SIZE + 8L * edges + 3 * aligned(4L * (nodes + 1))
+				+ 3 * aligned(4L * edges) + nameBytes;
+	}
+
+	/**
+	 * Returns the given size rounded up to a multiple of 8
+	 *
+	 * @param bytes The size to round
+	 * @return the least multiple of 8 &gt;= bytes
+	 */
+	private static long aligned(long bytes) {
+		return (bytes + 7) & ~7L;
+	}
+
+	/**
+	 * Writes the zero int that pads a section of the given number of ints to a
+	 * multiple of 8 bytes, if it needs one
+	 *
+	 * @param out The stream to write to
+	 * @param ints The number of ints in the section
+	 * @throws IOException if any I/O error occurs writing
+	 */
+	private static void pad(DataOutputStream out, long ints) throws IOException {
+		if (ints % 2 != 0) {
+			out.writeInt(0);
+		}
+	}
+
+	/**
+	 * Returns a view of part of the file
+	 *
+	 * @param file The whole file
+	 * @param at The offset of the first byte of the part
+	 * @param length The number of bytes in the part
+	 * @return a buffer over file[at],...,file[at + length - 1], in big-endian order
+	 */
+	private static ByteBuffer section(ByteBuffer file, int at, long length) {
+		ByteBuffer view = file.duplicate();
+		view.position(at);
+		view.limit((int) (at + length));
+		return view.slice();
+	}
+}
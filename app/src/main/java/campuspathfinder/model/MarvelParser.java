@@ -0,0 +1,299 @@
+package campuspathfinder.model;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+import campuspathfinder.model.DijkstrasAlgorithm.MalformedDataException;
+
+/**
+ * Parses the Marvel TSV file, in which each line names a character and a book the
+ * character appears in, separated by one tab, without building a String per line.
+ *
+ * The file is read through a FileChannel into a large direct buffer and scanned for
+ * line ends and tabs byte by byte. The bytes of each line are copied into a scratch
+ * array with their quotation marks left out, and each name is looked up by its bytes
+ * in a table of the names seen so far, so a String is only made the first time a name
+ * is seen. Lines are treated as DijkstrasAlgorithm.parseData has always treated them:
+ * lines starting with '#' are skipped, a line ends at '\n', '\r' or "\r\n", and a
+ * line that, with its quotation marks removed and trailing tabs ignored, does not
+ * hold exactly one tab is malformed. The file must be in the platform's default
+ * charset, which must encode '\t', '\n', '\r', '"' and '#' as the single bytes ASCII
+ * does, as UTF-8 and the ISO-8859 charsets do.
+ *
+ * <p>This is not an ADT.</p>
+ */
+public class MarvelParser {
+
+	//bytes read from the file at a time
+	private static final int BUFFER_SIZE = 1 << 20;
+
+	/**
+	 * Receives the records of a Marvel file, one at a time, in the order of the file
+	 */
+	public interface RecordHandler {
+
+		/**
+		 * Takes one record of the file
+		 *
+		 * @param character The name of the character, the same String for every record
+		 * 		naming that character
+		 * @param book The title of the book, the same String for every record naming
+		 * 		that book
+		 */
+		void record(String character, String book);
+	}
+
+	/**
+	 * A table from byte sequences to the Strings they decode to, so that each distinct
+	 * name is decoded only once. Kept as an open addressed hash table in arrays
+	 */
+	static class SymbolTable {
+
+		//the charset names are decoded with
+		private final Charset charset;
+
+		//index into symbols of the entry in each slot, or -1 for an empty slot
+		private int[] slots;
+
+		//bytes of each symbol, in the order they were added
+		private byte[][] bytes;
+
+		//hash of the bytes of each symbol
+		private int[] hashes;
+
+		//the String each symbol decodes to
+		private String[] symbols;
+
+		//the number of symbols held
+		private int size;
+
+		/**
+		 * @param charset The charset to decode names with
+		 * @spec.effects Constructs a new empty SymbolTable
+		 */
+		SymbolTable(Charset charset) {
+			this.charset = charset;
+			slots = new int[1024];
+			Arrays.fill(slots, -1);
+			bytes = new byte[512][];
+			hashes = new int[512];
+			symbols = new String[512];
+		}
+
+		/**
+		 * Returns the String the given bytes decode to, the same String each time the
+		 * same bytes are given
+		 *
+		 * @param buf The array holding the bytes
+		 * @param off The index of the first byte
+		 * @param len The number of bytes
+		 * @return the String buf[off],...,buf[off + len - 1] decode to
+		 */
+		String intern(byte[] buf, int off, int len) {
+			int hash = 1;
+			for (int i = off; i < off + len; i++) {
+				hash = 31 * hash + buf[i];
+			}
+			int mask = slots.length - 1;
+			int slot = (hash ^ (hash >>> 16)) & mask;
+			// {{ Inv: no slot probed before slot holds a symbol with these bytes }}
+			while (slots[slot] != -1) {
+				int s = slots[slot];
+				if (hashes[s] == hash && matches(bytes[s], buf, off, len)) {
+					return symbols[s];
+				}
+				slot = (slot + 1) & mask;
+			}
+			if (size == symbols.length) {
+				bytes = Arrays.copyOf(bytes, size * 2);
+				hashes = Arrays.copyOf(hashes, size * 2);
+				symbols = Arrays.copyOf(symbols, size * 2);
+			}
+			bytes[size] = Arrays.copyOfRange(buf, off, off + len);
+			hashes[size] = hash;
+			symbols[size] = new String(buf, off, len, charset);
+			slots[slot] = size;
+			size++;
+			if (size * 2 > slots.length) {
+				rehash();
+			}
+			return symbols[size - 1];
+		}
+
+		/**
+		 * Returns whether a symbol's bytes equal the given bytes
+		 *
+		 * @param symbol The bytes of the symbol
+		 * @param buf The array holding the bytes to compare
+		 * @param off The index of the first byte to compare
+		 * @param len The number of bytes to compare
+		 * @return true if symbol holds exactly buf[off],...,buf[off + len - 1]
+		 */
+		private static boolean matches(byte[] symbol, byte[] buf, int off, int len) {
+			if (symbol.length != len) {
+				return false;
+			}
+			for (int i = 0; i < len; i++) {
+				if (symbol[i] != buf[off + i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * Doubles the number of slots and places every symbol again
+		 *
+		 * @spec.modifies slots
+		 */
+		private void rehash() {
+			slots = new int[slots.length * 2];
+			Arrays.fill(slots, -1);
+			int mask = slots.length - 1;
+			for (int s = 0; s < size; s++) {
+				int slot = (hashes[s] ^ (hashes[s] >>> 16)) & mask;
+				while (slots[slot] != -1) {
+					slot = (slot + 1) & mask;
+				}
+				slots[slot] = s;
+			}
+		}
+	}
+
+	/**
+	 * Reads the given Marvel file and passes each of its records to handler
+	 *
+	 * @param filename The path of the TSV file to read
+	 * @param handler The receiver of the records
+	 * @spec.requires filename != null and handler != null
+	 * @throws MalformedDataException if a line that is not a comment does not hold
+	 * 		exactly one tab, with the records before it already passed to handler
+	 * @spec.effects calls handler.record once for each record of the file, in order.
+	 * 		If the file cannot be read, the error is printed to System.err and the
+	 * 		records read until then are kept, as DijkstrasAlgorithm.parseData does
+	 */
+	public static void parse(String filename, RecordHandler handler)
+			throws MalformedDataException {
+		FileInputStream in = null;
+		try {
+			in = new FileInputStream(filename);
+			parse(in.getChannel(), handler);
+		} catch (IOException e) {
+			System.err.println(e.toString());
+			e.printStackTrace(System.err);
+		} finally {
+			if (in != null) {
+				try {
+					in.close();
+				} catch (IOException e) {
+					System.err.println(e.toString());
+					e.printStackTrace(System.err);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Reads the Marvel records from the given channel until it ends, passing each to
+	 * handler
+	 *
+	 * @param channel The channel to read from
+	 * @param handler The receiver of the records
+	 * @spec.requires channel != null and handler != null
+	 * @throws IOException if any I/O error occurs reading the channel
+	 * @throws MalformedDataException if a line that is not a comment does not hold
+	 * 		exactly one tab
+	 * @spec.effects calls handler.record once for each record read, in order
+	 */
+	static void parse(FileChannel channel, RecordHandler handler)
+			throws IOException, MalformedDataException {
+		Charset charset = Charset.defaultCharset();
+		SymbolTable names = new SymbolTable(charset);
+		ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+		//bytes of the current line, with its quotation marks left out
+		byte[] line = new byte[256];
+		int length = 0;
+		//whether the current line has any bytes at all, including quotation marks
+		boolean started = false;
+		boolean comment = false;
+		//whether the last byte ended a line with '\r', so a '\n' after it is skipped
+		boolean afterReturn = false;
+
+		// {{ Inv: every line that ended before the bytes in buffer has been passed to
+		//		handler or skipped, and line[0],...,line[length - 1] hold the bytes of
+		//		the current line read so far, other than quotation marks }}
+		while (channel.read(buffer) != -1) {
+			buffer.flip();
+			int limit = buffer.limit();
+			for (int i = 0; i < limit; i++) {
+				byte b = buffer.get(i);
+				if (afterReturn) {
+					afterReturn = false;
+					if (b == '\n') {
+						continue;
+					}
+				}
+				if (b == '\n' || b == '\r') {
+					if (!comment) {
+						endLine(line, length, names, handler, charset);
+					}
+					length = 0;
+					started = false;
+					comment = false;
+					afterReturn = (b == '\r');
+				} else if (!comment) {
+					if (!started && b == '#') {
+						comment = true;
+					} else if (b != '"') {
+						if (length == line.length) {
+							line = Arrays.copyOf(line, length * 2);
+						}
+						line[length++] = b;
+					}
+					started = true;
+				}
+			}
+			buffer.clear();
+		}
+		if (started && !comment) {
+			endLine(line, length, names, handler, charset);
+		}
+	}
+
+	/**
+	 * Splits one line at its tab and passes the record to handler
+	 *
+	 * @param line The bytes of the line, with its quotation marks left out
+	 * @param length The number of bytes in the line
+	 * @param names The table to look names up in
+	 * @param handler The receiver of the record
+	 * @param charset The charset the file is in
+	 * @throws MalformedDataException if the line, ignoring trailing tabs, does not hold
+	 * 		exactly one tab
+	 */
+	private static void endLine(byte[] line, int length, SymbolTable names,
+			RecordHandler handler, Charset charset) throws MalformedDataException {
+		//trailing tabs are ignored, as String.split drops trailing empty strings
+		int end = length;
+		while (end > 0 && line[end - 1] == '\t') {
+			end--;
+		}
+		int tab = -1;
+		int tabs = 0;
+		for (int i = 0; i < end; i++) {
+			if (line[i] == '\t') {
+				tab = i;
+				tabs++;
+			}
+		}
+		if (tabs != 1) {
+			throw new MalformedDataException("Line should contain exactly one tab: "
+					+ new String(line, 0, length, charset));
+		}
+		handler.record(names.intern(line, 0, tab), names.intern(line, tab + 1, end - tab - 1));
+	}
+}
@@ -0,0 +1,81 @@
+package campuspathfinder.model;
+
+/**
+ * A NodeQueue is a mutable priority queue of the int ids of nodes, each held at most
+ * once with a double key, used as the frontier of the searches in DijkstrasAlgorithm.
+ * Nodes come out in ascending order of key, and in the event of a tie, in ascending
+ * order of id, the same order IdEntry gives.
+ *
+ * Specification fields:
+ * 		@specfield capacity : int // One more than the greatest id that can be held
+ * 		@specfield entries : Map&lt;int, double&gt; // The key of each node held
+ *
+ */
+public interface NodeQueue {
+
+	/**
+	 * Returns the number of nodes held
+	 *
+	 * @return the number of entries
+	 */
+	int size();
+
+	/**
+	 * Returns whether no nodes are held
+	 *
+	 * @return true if size() == 0, false otherwise
+	 */
+	boolean isEmpty();
+
+	/**
+	 * Returns one more than the greatest id that can be held
+	 *
+	 * @return the capacity of this queue
+	 */
+	int capacity();
+
+	/**
+	 * Adds node with the given key, or lowers its key if it is already held with a
+	 * greater one
+	 *
+	 * @param node The id of the node
+	 * @param key The key to hold node with
+	 * @spec.requires 0 &lt;= node &lt; capacity() and key is not NaN
+	 * @spec.modifies entries
+	 * @spec.effects entries[node] = min(entries[node], key), or key if node was not held
+	 */
+	void offer(int node, double key);
+
+	/**
+	 * Returns the node that would be removed next, without removing it
+	 *
+	 * @spec.requires !isEmpty()
+	 * @return the id of the node with least key, and least id among those
+	 */
+	int peek();
+
+	/**
+	 * Returns the key of the node that would be removed next
+	 *
+	 * @spec.requires !isEmpty()
+	 * @return the least key held
+	 */
+	double peekKey();
+
+	/**
+	 * Removes and returns the node with least key, and least id among those
+	 *
+	 * @spec.requires !isEmpty()
+	 * @spec.modifies entries
+	 * @return the id of the node removed
+	 */
+	int poll();
+
+	/**
+	 * Removes every node
+	 *
+	 * @spec.modifies entries
+	 * @spec.effects entries is empty
+	 */
+	void clear();
+}
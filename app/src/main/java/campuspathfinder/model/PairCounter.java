@@ -0,0 +1,173 @@
+package campuspathfinder.model;
+
+import java.util.Arrays;
+
+/**
+ * A PairCounter is a mutable count of how many times each unordered pair of int ids
+ * has been seen, kept in primitive arrays by open addressing.
+ *
+ * Specification fields:
+ * 		@specfield counts : Map&lt;(int, int), int&gt; // The count of each pair seen
+ *
+ * Not an ADT
+ */
+class PairCounter {
+
+	//pair keys, or 0 for an empty slot
+	private long[] keys;
+
+	//count of the pair in the same slot of keys
+	private int[] counts;
+
+	//number of pairs held
+	private int size;
+
+	/**
+	 * @param expected The number of pairs expected to be counted
+	 * @spec.effects Constructs a new PairCounter with no pairs counted
+	 */
+	PairCounter(int expected) {
+		int capacity = 16;
+		while (capacity < expected * 2) {
+			capacity <<= 1;
+		}
+		keys = new long[capacity];
+		counts = new int[capacity];
+	}
+
+	/**
+	 * Returns the key of the unordered pair of given ids
+	 *
+	 * @param a One id of the pair
+	 * @param b The other id of the pair
+	 * @spec.requires a != b and a, b &gt;= 0
+	 * @return a nonzero key that is the same for (a, b) and (b, a)
+	 */
+	static long key(int a, int b) {
+		return (a < b) ? ((long) a << 32) | b : ((long) b << 32) | a;
+	}
+
+	/**
+	 * Returns the lesser id of the pair with given key
+	 *
+	 * @param key The key of the pair
+	 * @return the lesser id of the pair
+	 */
+	static int first(long key) {
+		return (int) (key >>> 32);
+	}
+
+	/**
+	 * Returns the greater id of the pair with given key
+	 *
+	 * @param key The key of the pair
+	 * @return the greater id of the pair
+	 */
+	static int second(long key) {
+		return (int) key;
+	}
+
+	/**
+	 * Adds to the count of the pair with given key
+	 *
+	 * @param key The key of the pair, as given by key(a, b)
+	 * @param amount The amount to add to the count
+	 * @spec.modifies counts
+	 */
+	void add(long key, int amount) {
+		int slot = slotOf(key);
+		if (keys[slot] == 0) {
+			keys[slot] = key;
+			size++;
+			if (size * 2 > keys.length) {
+				counts[slot] = amount;
+				grow();
+				return;
+			}
+		}
+		counts[slot] += amount;
+	}
+
+	/**
+	 * Adds every count held by other to this
+	 *
+	 * @param other The PairCounter to be added
+	 * @spec.modifies counts
+	 */
+	void addAll(PairCounter other) {
+		for (int i = 0; i < other.keys.length; i++) {
+			if (other.keys[i] != 0) {
+				add(other.keys[i], other.counts[i]);
+			}
+		}
+	}
+
+	/**
+	 * Returns the count of the pair with given key
+	 *
+	 * @param key The key of the pair, as given by key(a, b)
+	 * @return the count of the pair, or 0 if it has not been seen
+	 */
+	int get(long key) {
+		return counts[slotOf(key)];
+	}
+
+	/**
+	 * Returns the number of pairs that have been seen
+	 *
+	 * @return the number of pairs counted
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the keys of every pair that has been seen, in ascending order
+	 *
+	 * @return a fresh array of the keys of every pair counted, sorted ascending
+	 */
+	long[] sortedKeys() {
+		long[] sorted = new long[size];
+		int next = 0;
+		for (long key : keys) {
+			if (key != 0) {
+				sorted[next++] = key;
+			}
+		}
+		Arrays.sort(sorted);
+		return sorted;
+	}
+
+	/**
+	 * Returns the slot that holds key, or the empty slot it would go in
+	 *
+	 * @param key The key to look for
+	 * @return the index of the slot for key
+	 */
+	private int slotOf(long key) {
+		int mask = keys.length - 1;
+		long hash = key * 0x9E3779B97F4A7C15L;
+		int slot = (int) (hash ^ (hash >>> 32)) & mask;
+		while (keys[slot] != 0 && keys[slot] != key) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	/**
+	 * Doubles the number of slots, keeping every count
+	 */
+	private void grow() {
+		long[] oldKeys = keys;
+		int[] oldCounts = counts;
+		keys = new long[oldKeys.length * 2];
+		counts = new int[oldKeys.length * 2];
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != 0) {
+				int slot = slotOf(oldKeys[i]);
+				keys[slot] = oldKeys[i];
+				counts[slot] = oldCounts[i];
+			}
+		}
+	}
+}
@@ -0,0 +1,283 @@
+package campuspathfinder.model;
+
+import java.util.Arrays;
+
+/**
+ * A RadixHeap is a NodeQueue for monotone searches, where no key offered is ever less
+ * than the last key removed, as in Dijkstra's algorithm with non-negative weights and
+ * A* with a consistent heuristic.
+ *
+ * Non-negative doubles order the same way as their raw bits read as longs, so each
+ * node is kept in the bucket numbered by the highest bit where its key's bits differ
+ * from the last key removed, and bucket 0 holds the nodes whose key equals it. Adding
+ * a node is a constant time append. When bucket 0 runs out, the lowest non-empty
+ * bucket is spread over the buckets below it, which each node goes through at most
+ * 64 times. Bucket 0 is kept sorted by id so that ties come out in ascending order
+ * of id.
+ *
+ * Specification fields:
+ * 		@specfield capacity : int // One more than the greatest id that can be held
+ * 		@specfield entries : Map&lt;int, double&gt; // The key of each node held
+ * 		@specfield last : double // The last key removed, or 0 if none has been
+ *
+ */
+public class RadixHeap implements NodeQueue {
+
+	/*Abstraction Function:
+	 * A RadixHeap, h, holds every node n with bucketOf[n] != -1, with key
+	 * Double.longBitsToDouble(keys[n]), and h.last = Double.longBitsToDouble(last)
+	 *
+	 * Representation Invariant:
+	 * keys.length == bucketOf.length == indexOf.length
+	 * && buckets.length == BUCKETS && sizes.length == BUCKETS
+	 * && for every node n held, keys[n] >= last && bucketOf[n] == bucketFor(keys[n])
+	 * 		&& buckets[bucketOf[n]][indexOf[n]] == n
+	 * && size == the sum of sizes
+	 * && buckets[0][0],...,buckets[0][sizes[0] - 1] are in descending order of id
+	 *
+	 */
+
+	//one bucket for equal bits and one for each bit of a long
+	private static final int BUCKETS = 65;
+
+	//raw bits of the key of each node, indexed by id
+	private final long[] keys;
+
+	//the bucket each node is in, or -1 if it is not held
+	private final int[] bucketOf;
+
+	//the index of each node within its bucket
+	private final int[] indexOf;
+
+	//the nodes in each bucket
+	private final int[][] buckets;
+
+	//the number of nodes in each bucket
+	private final int[] sizes;
+
+	//an empty array to swap in for a bucket while it is being spread
+	private int[] spare;
+	
+	//raw bits of the last key removed
+	private long last;
+
+	//the number of nodes held
+	private int size;
+
+	/**
+	 * @param capacity One more than the greatest id that can be held
+	 * @spec.requires capacity &gt;= 0
+	 * @spec.effects Constructs a new empty RadixHeap
+	 */
+	public RadixHeap(int capacity) {
+		keys = new long[capacity];
+		bucketOf = new int[capacity];
+		indexOf = new int[capacity];
+		Arrays.fill(bucketOf, -1);
+		buckets = new int[BUCKETS][];
+		for (int b = 0; b < BUCKETS; b++) {
+			buckets[b] = new int[4];
+		}
+		sizes = new int[BUCKETS];
+		spare = new int[4];
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	@Override
+	public int capacity() {
+		return keys.length;
+	}
+
+	/**
+	 * Adds node with the given key, or lowers its key if it is already held with a
+	 * greater one
+	 *
+	 * @param node The id of the node
+	 * @param key The key to hold node with
+	 * @spec.requires 0 &lt;= node &lt; capacity()
+	 * @throws IllegalArgumentException if key is NaN or less than the last key removed
+	 * @spec.modifies entries
+	 * @spec.effects entries[node] = min(entries[node], key), or key if node was not held
+	 */
+	@Override
+	public void offer(int node, double key) {
+		//adding zero turns -0.0 into 0.0, whose bits are not negative
+		long bits = Double.doubleToRawLongBits(key + 0.0);
+		if (key != key || bits < last) {
+			throw new IllegalArgumentException("key is less than the last key removed");
+		}
+		if (bucketOf[node] == -1) {
+			size++;
+		} else if (bits >= keys[node]) {
+			return;
+		} else {
+			remove(node);
+		}
+		keys[node] = bits;
+		insert(node);
+	}
+
+	@Override
+	public int peek() {
+		fillFirstBucket();
+		return buckets[0][sizes[0] - 1];
+	}
+
+	@Override
+	public double peekKey() {
+		fillFirstBucket();
+		return Double.longBitsToDouble(last);
+	}
+
+	@Override
+	public int poll() {
+		fillFirstBucket();
+		int min = buckets[0][--sizes[0]];
+		bucketOf[min] = -1;
+		size--;
+		return min;
+	}
+
+	/**
+	 * Removes every node, and forgets the last key removed
+	 *
+	 * @spec.modifies entries, last
+	 * @spec.effects entries is empty and last = 0
+	 */
+	@Override
+	public void clear() {
+		for (int b = 0; b < BUCKETS; b++) {
+			for (int i = 0; i < sizes[b]; i++) {
+				bucketOf[buckets[b][i]] = -1;
+			}
+			sizes[b] = 0;
+		}
+		size = 0;
+		last = 0L;
+	}
+
+	/**
+	 * Returns the bucket a key belongs in
+	 *
+	 * @param bits The raw bits of the key
+	 * @spec.requires bits &gt;= last
+	 * @return 0 if bits == last, or one more than the index of the highest bit where
+	 * 		bits and last differ otherwise
+	 */
+	private int bucketFor(long bits) {
+		return (bits == last) ? 0 : 64 - Long.numberOfLeadingZeros(bits ^ last);
+	}
+
+	/**
+	 * Puts node in the bucket its key belongs in
+	 *
+	 * @param node The node to place, whose key is set and which is in no bucket
+	 * @spec.modifies buckets, sizes, bucketOf, indexOf
+	 */
+	private void insert(int node) {
+		int b = bucketFor(keys[node]);
+		if (sizes[b] == buckets[b].length) {
+			buckets[b] = Arrays.copyOf(buckets[b], sizes[b] * 2);
+		}
+		int[] bucket = buckets[b];
+		int i = sizes[b]++;
+		if (b == 0) {
+			//keeps bucket 0 in descending order of id, so its last node is the least
+			// {{ Inv: every node at or after i + 1 in bucket 0 has a greater id than node }}
+			while (i > 0 && bucket[i - 1] < node) {
+				bucket[i] = bucket[i - 1];
+				indexOf[bucket[i]] = i;
+				i--;
+			}
+		}
+		bucket[i] = node;
+		bucketOf[node] = b;
+		indexOf[node] = i;
+	}
+
+	/**
+	 * Takes node out of its bucket, without changing size
+	 *
+	 * @param node The node to take out, which is held
+	 * @spec.modifies buckets, sizes, bucketOf, indexOf
+	 */
+	private void remove(int node) {
+		int b = bucketOf[node];
+		int[] bucket = buckets[b];
+		int end = --sizes[b];
+		if (b == 0) {
+			for (int i = indexOf[node]; i < end; i++) {
+				bucket[i] = bucket[i + 1];
+				indexOf[bucket[i]] = i;
+			}
+		} else {
+			bucket[indexOf[node]] = bucket[end];
+			indexOf[bucket[end]] = indexOf[node];
+		}
+		bucketOf[node] = -1;
+	}
+
+	/**
+	 * Makes bucket 0 hold the nodes with the least key, if it is empty, by moving last
+	 * up to the least key in the lowest non-empty bucket and spreading that bucket over
+	 * the ones below it
+	 *
+	 * @spec.requires size &gt; 0
+	 * @spec.modifies buckets, sizes, bucketOf, indexOf, last, spare
+	 */
+	private void fillFirstBucket() {
+		if (sizes[0] > 0) {
+			return;
+		}
+		int b = 1;
+		while (sizes[b] == 0) {
+			b++;
+		}
+		int[] bucket = buckets[b];
+		int count = sizes[b];
+		long min = keys[bucket[0]];
+		for (int i = 1; i < count; i++) {
+			min = Math.min(min, keys[bucket[i]]);
+		}
+		last = min;
+		//swaps the full bucket out, so nodes can be placed while it is being read
+		buckets[b] = spare;
+		sizes[b] = 0;
+		int[] first = buckets[0];
+		// {{ Inv: every node before i in bucket has been placed, with the ones whose
+		//		key is last added to bucket 0 in any order }}
+		for (int i = 0; i < count; i++) {
+			int node = bucket[i];
+			if (keys[node] == last) {
+				if (sizes[0] == first.length) {
+					first = Arrays.copyOf(first, sizes[0] * 2);
+					buckets[0] = first;
+				}
+				bucketOf[node] = 0;
+				first[sizes[0]++] = node;
+			} else {
+				insert(node);
+			}
+		}
+		//sorts bucket 0 into descending order of id all at once, rather than by insert
+		Arrays.sort(first, 0, sizes[0]);
+		for (int i = 0, j = sizes[0] - 1; i < j; i++, j--) {
+			int swap = first[i];
+			first[i] = first[j];
+			first[j] = swap;
+		}
+		for (int i = 0; i < sizes[0]; i++) {
+			indexOf[first[i]] = i;
+		}
+		spare = bucket;
+	}
+}
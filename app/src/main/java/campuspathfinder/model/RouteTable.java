@@ -0,0 +1,125 @@
+package campuspathfinder.model;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A RouteTable is a table of the shortest route from each of a fixed set of source
+ * nodes in a CompactGraph to every node of it. Routes from a source are found by one
+ * run of Dijkstra's algorithm the first time they are asked for. Only the last edge of
+ * the route to each node is kept, one int per node, and it is shared by the routes to
+ * every destination, so a route is unpacked by following parent edges back from the
+ * destination. Sources that are never asked about cost nothing, and any number of
+ * threads can use a RouteTable at once.
+ *
+ * @param <K> The key/name/data of a node/the data that a node holds
+ *
+ * Specification fields:
+ * 		@specfield graph : CompactGraph // The graph the routes run through
+ * 		@specfield sources : Set&lt;int&gt; // The ids of the nodes routes start from
+ *
+ */
+class RouteTable<K extends Comparable<K>> {
+
+	/*Abstraction Function:
+	 * A RouteTable, t, holds routes from the nodes sources[0],...,sources[sources.length - 1].
+	 * Once parents.get(r) is not null, the route from sources[r] to node n ends with edge
+	 * parents.get(r)[n] after the route to the source of that edge. Before then it is the
+	 * route Dijkstra's algorithm finds from sources[r]
+	 *
+	 * Representation Invariant:
+	 * graph != null && sources != null && rows != null && parents != null
+	 * && rows.length == graph.size() && parents.length() == sources.length
+	 * && for (0 <= r < sources.length, rows[sources[r]] == r
+	 * 		&& (parents.get(r) == null || parents.get(r).length == graph.size()))
+	 * && rows[n] == -1 for every n not in sources
+	 *
+	 */
+
+	//the graph the routes run through
+	private final CompactGraph<K> graph;
+
+	//the ids of the nodes routes start from, in ascending order
+	private final int[] sources;
+
+	//index into parents of each node, or -1 if routes do not start from it
+	private final int[] rows;
+
+	//last edge of the shortest route from each source to each node, or -1 for the source
+	//and unreached nodes, or null until routes from the source are first asked for
+	private final AtomicReferenceArray<int[]> parents;
+
+	/**
+	 * @param graph The graph the routes run through
+	 * @param sources The ids of the nodes routes start from
+	 * @spec.requires graph != null, sources != null, and every element of sources is the
+	 * 		id of a node in graph
+	 * @spec.effects Constructs a new RouteTable holding the shortest route from each of
+	 * 		sources to every node of graph. No search is run until routes are asked for
+	 */
+	RouteTable(CompactGraph<K> graph, int[] sources) {
+		this.graph = graph;
+		rows = new int[graph.size()];
+		Arrays.fill(rows, -1);
+		int[] sorted = sources.clone();
+		Arrays.sort(sorted);
+		int distinct = 0;
+		for (int i = 0; i < sorted.length; i++) {
+			if (i == 0 || sorted[i] != sorted[i - 1]) {
+				rows[sorted[i]] = distinct;
+				sorted[distinct++] = sorted[i];
+			}
+		}
+		this.sources = Arrays.copyOf(sorted, distinct);
+		parents = new AtomicReferenceArray<int[]>(distinct);
+		checkRep();
+	}
+
+	/**
+	 * Returns whether routes from the given node are held
+	 *
+	 * @param node The id of the node
+	 * @spec.requires 0 &lt;= node &lt; graph.size()
+	 * @return true if node is one of sources, false otherwise
+	 */
+	boolean hasRoutesFrom(int node) {
+		return rows[node] != -1;
+	}
+
+	/**
+	 * Returns the shortest route from the given source node to the given destination
+	 * node, the same one DijkstrasAlgorithm.shortestPath finds. No search is run unless
+	 * this is the first time routes from src are asked for, and the route reports no
+	 * settled nodes
+	 *
+	 * @param src Id of the node where the route must start
+	 * @param dest Id of the node where the route must end
+	 * @spec.requires hasRoutesFrom(src) and dest is the id of a node in graph
+	 * @return the least weighted path from src to dest, or null if no path exists
+	 * 		between src and dest
+	 */
+	CompactPath<K> getRoute(int src, int dest) {
+		int row = rows[src];
+		int[] parent = parents.get(row);
+		if (parent == null) {
+			//threads that race here each search, but they find the same parents and only
+			//the first array stored is kept
+			parents.compareAndSet(row, null, DijkstrasAlgorithm.shortestPathParents(graph, src));
+			parent = parents.get(row);
+		}
+		if (dest != src && parent[dest] == -1) {
+			return null;
+		}
+		return DijkstrasAlgorithm.buildPath(graph, parent, src, dest, 0);
+	}
+
+	/**
+	 * Checks representation of this
+	 * @throws IllegalStateException if rep invariant is not satisfied
+	 */
+	private void checkRep() {
+		if (parents.length() != sources.length || rows.length != graph.size()) {
+			throw new IllegalStateException("route arrays do not match graph");
+		}
+	}
+}
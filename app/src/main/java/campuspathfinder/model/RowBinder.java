@@ -0,0 +1,331 @@
+package campuspathfinder.model;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.opencsv.bean.CsvBindByName;
+import com.opencsv.bean.CsvCustomBindByName;
+
+/**
+ * A RowBinder reads the rows of a TSV file with a header line into new objects of one
+ * class, taking the schema from the same CsvBindByName and CsvCustomBindByName
+ * annotations OpenCSV reads. The annotated fields of the class are looked up once,
+ * when the binder is made, into a Column for each that parses a cell straight into
+ * its field. The header of each file is matched against them once, ignoring case as
+ * OpenCSV does, so binding a row is only a walk down the columns of the file.
+ *
+ * String, double, Double, int and Integer fields are supported, as are Coordinate
+ * fields bound with CoordinateConverter, whose "x,y" cells are parsed without
+ * splitting them. Columns of the file with no field are skipped, and an empty cell
+ * leaves its field as the constructor set it. Cells are taken as written, without
+ * treating quotation marks specially.
+ *
+ * Specification fields:
+ * 		@specfield type : Class // The class rows are bound into
+ * 		@specfield columns : Set&lt;String&gt; // Names of the columns bound to a field
+ *
+ */
+final class RowBinder<T> {
+
+	/*Abstraction Function:
+	 * A RowBinder, b, binds rows into new objects made by b.constructor, of the class
+	 * b.type, and binds the column of the file named n, ignoring case, with the Column
+	 * b.columns.get(n.toUpperCase(Locale.ROOT))
+	 *
+	 * Representation Invariant:
+	 * constructor != null && columns != null && every key of columns is upper case
+	 * and is the upper case name of the Column it maps to
+	 *
+	 */
+
+	//binders made so far, by the class they bind
+	private static final Map<Class<?>, RowBinder<?>> BINDERS =
+			new HashMap<Class<?>, RowBinder<?>>();
+
+	/**
+	 * Parses the cells of one column into one field of the objects rows are bound to
+	 */
+	abstract static class Column {
+
+		//the field the cells are stored in
+		final Field field;
+
+		//the name of the column in the header
+		final String name;
+
+		//whether every row must have a cell in this column
+		final boolean required;
+
+		/**
+		 * @param field The field to store cells in, which is made accessible
+		 * @param name The name of the column in the header
+		 * @param required Whether every row must have a cell in this column
+		 * @spec.effects Constructs a new Column
+		 */
+		Column(Field field, String name, boolean required) {
+			field.setAccessible(true);
+			this.field = field;
+			this.name = name;
+			this.required = required;
+		}
+
+		/**
+		 * Parses the next cell of the current row into the field of bean
+		 *
+		 * @param bean The object to store the cell in
+		 * @param tokens The tokenizer, at the start of a non-empty cell of this column
+		 * @spec.modifies bean, tokens
+		 * @throws IllegalAccessException if the field cannot be set
+		 * @throws NumberFormatException if the cell should be a number and is not
+		 */
+		abstract void bind(Object bean, TsvTokenizer tokens) throws IllegalAccessException;
+	}
+
+	/**
+	 * A Column of String cells
+	 */
+	static class StringColumn extends Column {
+
+		StringColumn(Field field, String name, boolean required) {
+			super(field, name, required);
+		}
+
+		@Override
+		void bind(Object bean, TsvTokenizer tokens) throws IllegalAccessException {
+			field.set(bean, tokens.nextString());
+		}
+	}
+
+	/**
+	 * A Column of double or Double cells
+	 */
+	static class DoubleColumn extends Column {
+
+		DoubleColumn(Field field, String name, boolean required) {
+			super(field, name, required);
+		}
+
+		@Override
+		void bind(Object bean, TsvTokenizer tokens) throws IllegalAccessException {
+			if (field.getType() == double.class) {
+				field.setDouble(bean, tokens.nextDouble());
+			} else {
+				field.set(bean, tokens.nextDouble());
+			}
+		}
+	}
+
+	/**
+	 * A Column of int or Integer cells
+	 */
+	static class IntColumn extends Column {
+
+		IntColumn(Field field, String name, boolean required) {
+			super(field, name, required);
+		}
+
+		@Override
+		void bind(Object bean, TsvTokenizer tokens) throws IllegalAccessException {
+			int value = Integer.parseInt(tokens.nextString());
+			if (field.getType() == int.class) {
+				field.setInt(bean, value);
+			} else {
+				field.set(bean, value);
+			}
+		}
+	}
+
+	/**
+	 * A Column of "x,y" cells, as CoordinateConverter reads them
+	 */
+	static class CoordinateColumn extends Column {
+
+		CoordinateColumn(Field field, String name, boolean required) {
+			super(field, name, required);
+		}
+
+		@Override
+		void bind(Object bean, TsvTokenizer tokens) throws IllegalAccessException {
+			double x = tokens.nextDouble(',');
+			double y = tokens.nextDouble(',');
+			tokens.finishField();
+			field.set(bean, new Coordinate(x, y));
+		}
+	}
+
+	//makes the object each row is bound to
+	private final Constructor<T> constructor;
+
+	//the column bound to each field, by upper case name
+	private final Map<String, Column> columns;
+
+	/**
+	 * Returns the binder for the given class, making it the first time it is asked for
+	 *
+	 * @param <T> the class rows are bound into
+	 * @param type The class rows are bound into
+	 * @spec.requires type != null
+	 * @throws IllegalArgumentException if type has no constructor without parameters,
+	 * 		or an annotated field of a type or with a converter this cannot bind
+	 * @return a RowBinder for type, the same one each time
+	 */
+	@SuppressWarnings("unchecked")
+	static synchronized <T> RowBinder<T> forType(Class<T> type) {
+		RowBinder<T> binder = (RowBinder<T>) BINDERS.get(type);
+		if (binder == null) {
+			binder = new RowBinder<T>(type);
+			BINDERS.put(type, binder);
+		}
+		return binder;
+	}
+
+	/**
+	 * @param type The class rows are bound into
+	 * @throws IllegalArgumentException if type has no constructor without parameters,
+	 * 		or an annotated field of a type or with a converter this cannot bind
+	 * @spec.effects Constructs a new RowBinder with a Column for every annotated field
+	 * 		of type
+	 */
+	private RowBinder(Class<T> type) {
+		try {
+			constructor = type.getDeclaredConstructor();
+			constructor.setAccessible(true);
+		} catch (NoSuchMethodException e) {
+			throw new IllegalArgumentException(type.getName() + " has no constructor "
+					+ "without parameters");
+		}
+		columns = new HashMap<String, Column>();
+		for (Field field : type.getDeclaredFields()) {
+			Column column = columnFor(field);
+			if (column != null) {
+				columns.put(column.name.toUpperCase(Locale.ROOT), column);
+			}
+		}
+		checkRep();
+	}
+
+	/**
+	 * Returns the Column the annotations of a field describe
+	 *
+	 * @param field The field to bind
+	 * @throws IllegalArgumentException if the field is annotated but this cannot bind
+	 * 		its type or converter
+	 * @return a new Column storing into field, or null if field is not annotated
+	 */
+	private static Column columnFor(Field field) {
+		CsvBindByName plain = field.getAnnotation(CsvBindByName.class);
+		CsvCustomBindByName custom = field.getAnnotation(CsvCustomBindByName.class);
+		Class<?> type = field.getType();
+		if (plain != null) {
+			String name = plain.column().isEmpty() ? field.getName() : plain.column();
+			if (type == String.class) {
+				return new StringColumn(field, name, plain.required());
+			} else if (type == double.class || type == Double.class) {
+				return new DoubleColumn(field, name, plain.required());
+			} else if (type == int.class || type == Integer.class) {
+				return new IntColumn(field, name, plain.required());
+			}
+			throw new IllegalArgumentException("cannot bind field " + field.getName()
+					+ " of type " + type.getName());
+		} else if (custom != null) {
+			String name = custom.column().isEmpty() ? field.getName() : custom.column();
+			if (custom.converter() == CoordinateConverter.class && type == Coordinate.class) {
+				return new CoordinateColumn(field, name, custom.required());
+			}
+			throw new IllegalArgumentException("cannot bind field " + field.getName()
+					+ " with converter " + custom.converter().getName());
+		}
+		return null;
+	}
+
+	/**
+	 * Reads every row after the header line of the given file into a new object
+	 *
+	 * @param in The reader holding the TSV file
+	 * @spec.requires in != null
+	 * @throws IOException if any I/O error occurs reading the file, or a required
+	 * 		column is missing from the header or empty in a row
+	 * @throws NumberFormatException if a cell of a numeric column is not a number
+	 * @return List of one object for each row, in the order of the file, which is
+	 * 		empty if the file is
+	 */
+	List<T> parse(Reader in) throws IOException {
+		List<T> rows = new ArrayList<T>();
+		TsvTokenizer tokens = new TsvTokenizer(in);
+		if (!tokens.nextRow()) {
+			return rows;
+		}
+		Column[] order = resolve(tokens);
+		try {
+			// {{ Inv: rows holds an object bound from each row read before the current one }}
+			while (tokens.nextRow()) {
+				T bean = constructor.newInstance();
+				for (Column column : order) {
+					if (column == null) {
+						tokens.skipField();
+					} else if (tokens.fieldIsEmpty()) {
+						if (column.required) {
+							throw new IOException("Row " + (rows.size() + 1) + " has no "
+									+ column.name);
+						}
+						tokens.skipField();
+					} else {
+						column.bind(bean, tokens);
+					}
+				}
+				rows.add(bean);
+			}
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException(e);
+		}
+		return rows;
+	}
+
+	/**
+	 * Matches the cells of a header line with the columns of this
+	 *
+	 * @param tokens The tokenizer, at the start of the header line
+	 * @spec.modifies tokens
+	 * @throws IOException if a required column is not in the header
+	 * @return the Column for each cell of the header, in order, with null for each
+	 * 		cell naming no field
+	 */
+	private Column[] resolve(TsvTokenizer tokens) throws IOException {
+		List<Column> order = new ArrayList<Column>();
+		int found = 0;
+		while (tokens.hasField()) {
+			Column column = columns.get(tokens.nextString().toUpperCase(Locale.ROOT));
+			if (column != null) {
+				found++;
+			}
+			order.add(column);
+		}
+		if (found < columns.size()) {
+			for (Column column : columns.values()) {
+				if (column.required && !order.contains(column)) {
+					throw new IOException("Header has no column " + column.name);
+				}
+			}
+		}
+		return order.toArray(new Column[order.size()]);
+	}
+
+	/**
+	 * Checks representation of this
+	 * @throws IllegalStateException if rep invariant is not satisfied
+	 */
+	private void checkRep() {
+		for (Map.Entry<String, Column> entry : columns.entrySet()) {
+			if (!entry.getKey().equals(entry.getValue().name.toUpperCase(Locale.ROOT))) {
+				throw new IllegalStateException("column " + entry.getKey() + " misnamed");
+			}
+		}
+	}
+}
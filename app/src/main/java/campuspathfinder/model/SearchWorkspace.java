@@ -0,0 +1,273 @@
+package campuspathfinder.model;
+
+import java.util.Arrays;
+
+/**
+ * A SearchWorkspace is the mutable scratch space of a search over a CompactGraph,
+ * kept so that repeated searches need not allocate it again. It holds a frontier
+ * queue and, indexed by node id, the tentative distance, the edge each node was
+ * reached by, and whether it is finished, for a forward and a backward side, and
+ * buffers that paths are unpacked into.
+ *
+ * Every entry is stamped with the number of the search that wrote it, and entries
+ * with an older stamp read as unreached, so starting a new search takes constant
+ * time however much of the graph the last one explored. A workspace must only be
+ * used by one search at a time; forCurrentThread gives each thread its own.
+ *
+ * Specification fields:
+ * 		@specfield capacity : int // One more than the greatest node id that can be held
+ * 		@specfield forward : Side // The scratch space of a search from the source
+ * 		@specfield backward : Side // The scratch space of a search from the destination
+ *
+ */
+public class SearchWorkspace {
+
+	/*Abstraction Function:
+	 * A SearchWorkspace, w, has w.forward = forward and w.backward = backward, the
+	 * latter made on first use. Node n is reached on a side if its reached[n] == epoch,
+	 * and finished on it if its finished[n] == epoch
+	 *
+	 * Representation Invariant:
+	 * forward != null && capacity >= 0 && epoch > 0
+	 * && edgeBuffer != null && arcBuffer != null
+	 * && every array of forward, and of backward if it is not null, has length capacity
+	 * && every stamp held is no greater than epoch
+	 *
+	 */
+
+	//the workspace each thread searches with when given none
+	private static final ThreadLocal<SearchWorkspace> LOCAL = new ThreadLocal<SearchWorkspace>();
+
+	//one more than the greatest node id that can be held
+	private final int capacity;
+
+	//the scratch space of a search from the source
+	private final Side forward;
+
+	//the scratch space of a search from the destination, or null until it is needed
+	private Side backward;
+
+	//the number of the current search
+	private int epoch;
+
+	//scratch for the edges of a path being unpacked, grown by the search that fills it
+	int[] edgeBuffer;
+
+	//scratch for the arcs still to be unpacked, grown by the search that fills it
+	int[] arcBuffer;
+
+	/**
+	 * The scratch space of one direction of a search. Its arrays are read directly by
+	 * the searches in this package, and an entry is only meaningful where the
+	 * matching stamp equals the workspace's epoch
+	 */
+	class Side {
+
+		//the frontier of the search
+		final NodeQueue queue;
+
+		//tentative cost of the best path found to each node
+		final double[] distance;
+
+		//edge each node was last reached by
+		final int[] link;
+
+		//the search that last reached each node
+		private final int[] reached;
+
+		//the search that last finished each node
+		private final int[] finished;
+
+		/**
+		 * @param queue The frontier queue of this side
+		 * @spec.requires queue != null and queue.capacity() &gt;= capacity
+		 * @spec.effects Constructs a new Side where no node is reached
+		 */
+		Side(NodeQueue queue) {
+			this.queue = queue;
+			distance = new double[capacity];
+			link = new int[capacity];
+			reached = new int[capacity];
+			finished = new int[capacity];
+		}
+
+		/**
+		 * Returns the tentative cost of the best path found to node
+		 *
+		 * @param node The id of the node
+		 * @spec.requires 0 &lt;= node &lt; capacity
+		 * @return the distance to node, or Double.POSITIVE_INFINITY if it is not reached
+		 */
+		double distance(int node) {
+			return (reached[node] == epoch) ? distance[node] : Double.POSITIVE_INFINITY;
+		}
+
+		/**
+		 * Records a better path found to node
+		 *
+		 * @param node The id of the node
+		 * @param cost The cost of the path
+		 * @param edge The edge the path reaches node by, or -1 for none
+		 * @spec.requires 0 &lt;= node &lt; capacity
+		 * @spec.modifies this
+		 * @spec.effects node is reached with distance cost and link edge
+		 */
+		void reach(int node, double cost, int edge) {
+			reached[node] = epoch;
+			distance[node] = cost;
+			link[node] = edge;
+		}
+
+		/**
+		 * Returns whether node has been finished by the current search
+		 *
+		 * @param node The id of the node
+		 * @spec.requires 0 &lt;= node &lt; capacity
+		 * @return true if node is finished, false otherwise
+		 */
+		boolean isFinished(int node) {
+			return finished[node] == epoch;
+		}
+
+		/**
+		 * Marks node as finished by the current search
+		 *
+		 * @param node The id of the node
+		 * @spec.requires 0 &lt;= node &lt; capacity
+		 * @spec.modifies this
+		 */
+		void finish(int node) {
+			finished[node] = epoch;
+		}
+
+		/**
+		 * Forgets every stamp, for when the epoch wraps around
+		 *
+		 * @spec.modifies this
+		 */
+		private void clearStamps() {
+			Arrays.fill(reached, 0);
+			Arrays.fill(finished, 0);
+		}
+	}
+
+	/**
+	 * @param capacity One more than the greatest node id that can be held
+	 * @spec.requires capacity &gt;= 0
+	 * @spec.effects Constructs a new SearchWorkspace with queues of the kind searches
+	 * 		use by default
+	 */
+	public SearchWorkspace(int capacity) {
+		this(DijkstrasAlgorithm.newQueue(capacity));
+	}
+
+	/**
+	 * @param queue The frontier queue of forward searches
+	 * @spec.requires queue != null
+	 * @spec.effects Constructs a new SearchWorkspace holding ids below queue.capacity(),
+	 * 		whose backward queue is of the kind searches use by default
+	 */
+	public SearchWorkspace(NodeQueue queue) {
+		this(queue, null);
+	}
+
+	/**
+	 * @param forward The frontier queue of forward searches
+	 * @param backward The frontier queue of backward searches, or null to make one of
+	 * 		the default kind when it is first needed
+	 * @spec.requires forward != null, and backward is not forward and has the same
+	 * 		capacity if it is not null
+	 * @spec.effects Constructs a new SearchWorkspace holding ids below forward.capacity()
+	 */
+	public SearchWorkspace(NodeQueue forward, NodeQueue backward) {
+		this.capacity = forward.capacity();
+		this.forward = new Side(forward);
+		if (backward != null) {
+			this.backward = new Side(backward);
+		}
+		epoch = 1;
+		edgeBuffer = new int[16];
+		arcBuffer = new int[16];
+		checkRep();
+	}
+
+	/**
+	 * Returns the workspace of the calling thread, replacing it with a larger one if it
+	 * cannot hold the given number of nodes. The workspace returned must not be used
+	 * by a search while another search on this thread is using it
+	 *
+	 * @param capacity The number of nodes of the graph to be searched
+	 * @spec.requires capacity &gt;= 0
+	 * @return a SearchWorkspace owned by the current thread with capacity() &gt;= capacity
+	 */
+	public static SearchWorkspace forCurrentThread(int capacity) {
+		SearchWorkspace workspace = LOCAL.get();
+		if (workspace == null || workspace.capacity < capacity) {
+			workspace = new SearchWorkspace(capacity);
+			LOCAL.set(workspace);
+		}
+		return workspace;
+	}
+
+	/**
+	 * Returns one more than the greatest node id that can be held
+	 *
+	 * @return the capacity of this workspace
+	 */
+	public int capacity() {
+		return capacity;
+	}
+
+	/**
+	 * Starts a new search, in which no node is reached or finished and both queues are
+	 * empty
+	 *
+	 * @spec.modifies this
+	 */
+	void begin() {
+		if (epoch == Integer.MAX_VALUE) {
+			forward.clearStamps();
+			if (backward != null) {
+				backward.clearStamps();
+			}
+			epoch = 0;
+		}
+		epoch++;
+		forward.queue.clear();
+		if (backward != null) {
+			backward.queue.clear();
+		}
+	}
+
+	/**
+	 * Returns the scratch space of a search from the source
+	 *
+	 * @return the forward Side
+	 */
+	Side forward() {
+		return forward;
+	}
+
+	/**
+	 * Returns the scratch space of a search from the destination, making it if this is
+	 * the first time it is needed
+	 *
+	 * @return the backward Side
+	 */
+	Side backward() {
+		if (backward == null) {
+			backward = new Side(DijkstrasAlgorithm.newQueue(capacity));
+		}
+		return backward;
+	}
+
+	/**
+	 * Checks representation of this
+	 * @throws IllegalStateException if rep invariant is not satisfied
+	 */
+	private void checkRep() {
+		if (forward.distance.length != capacity || epoch <= 0) {
+			throw new IllegalStateException("workspace arrays do not match capacity");
+		}
+	}
+}
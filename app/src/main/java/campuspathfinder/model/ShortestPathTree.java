@@ -0,0 +1,144 @@
+package campuspathfinder.model;
+
+/**
+ * A ShortestPathTree is the immutable result of one run of Dijkstra's algorithm from a
+ * source node of a CompactGraph to every node it can reach. It holds the cost of the
+ * shortest path to each node and the last edge of that path, so the path to any
+ * destination can be read off the tree without searching again.
+ *
+ * @param <K> The key/name/data of a node/the data that a node holds
+ *
+ * Specification fields:
+ * 		@specfield graph : CompactGraph // The graph the tree spans
+ * 		@specfield source : int // The id of the node every path starts at
+ * 		@specfield distances : List&lt;double&gt; // The cost of the shortest path to each node
+ * 		@specfield settled : int // The number of nodes the search that built the tree
+ * 								 // settled
+ *
+ */
+public class ShortestPathTree<K extends Comparable<K>> {
+
+	/*Abstraction Function:
+	 * A ShortestPathTree, t, spans graph from source. The shortest path to node n costs
+	 * distance[n] and ends with edge parent[n], or n cannot be reached if
+	 * distance[n] is infinite
+	 *
+	 * Representation Invariant:
+	 * graph != null && distance != null && parent != null
+	 * && distance.length == parent.length == graph.size() && distance[source] == 0
+	 * && for (0 <= n < graph.size(), n != source, parent[n] == -1 iff distance[n] is infinite)
+	 *
+	 */
+
+	//the graph the tree spans
+	private final CompactGraph<K> graph;
+
+	//the id of the node every path starts at
+	private final int source;
+
+	//cost of the shortest path to each node, or infinity if it cannot be reached
+	private final double[] distance;
+
+	//last edge of the shortest path to each node, or -1 for source and unreached nodes
+	private final int[] parent;
+
+	//the number of nodes settled by the search that built the tree
+	private final int settled;
+
+	/**
+	 * @param graph The graph the tree spans
+	 * @param source The id of the node every path starts at
+	 * @param distance The cost of the shortest path to each node
+	 * @param parent The last edge of the shortest path to each node
+	 * @param settled The number of nodes settled by the search that built the tree
+	 * @spec.requires the arguments satisfy the representation invariant
+	 * @spec.effects Constructs a new ShortestPathTree from the given arrays, which
+	 * 		must not be changed afterwards
+	 */
+	ShortestPathTree(CompactGraph<K> graph, int source, double[] distance, int[] parent,
+			int settled) {
+		this.graph = graph;
+		this.source = source;
+		this.distance = distance;
+		this.parent = parent;
+		this.settled = settled;
+	}
+
+	/**
+	 * Returns the graph the tree spans
+	 *
+	 * @return the CompactGraph the tree was built on
+	 */
+	public CompactGraph<K> getGraph() {
+		return graph;
+	}
+
+	/**
+	 * Returns the id of the node every path starts at
+	 *
+	 * @return the id of the source node
+	 */
+	public int getSource() {
+		return source;
+	}
+
+	/**
+	 * Returns whether there is a path from the source to the given node
+	 *
+	 * @param node The id of the node
+	 * @spec.requires 0 &lt;= node &lt; graph.size()
+	 * @return true if node can be reached from source, false otherwise
+	 */
+	public boolean isReachable(int node) {
+		return distance[node] != Double.POSITIVE_INFINITY;
+	}
+
+	/**
+	 * Returns the cost of the shortest path from the source to the given node
+	 *
+	 * @param node The id of the node
+	 * @spec.requires 0 &lt;= node &lt; graph.size()
+	 * @return the cost of the shortest path to node, or Double.POSITIVE_INFINITY if
+	 * 		node cannot be reached
+	 */
+	public double getDistance(int node) {
+		return distance[node];
+	}
+
+	/**
+	 * Returns the last edge of the shortest path from the source to the given node
+	 *
+	 * @param node The id of the node
+	 * @spec.requires 0 &lt;= node &lt; graph.size()
+	 * @return the number of the last edge of the path to node, or -1 if node is the
+	 * 		source or cannot be reached
+	 */
+	public int getParentEdge(int node) {
+		return parent[node];
+	}
+
+	/**
+	 * Returns the number of nodes the search that built the tree settled
+	 *
+	 * @return the number of nodes settled
+	 */
+	public int getSettledCount() {
+		return settled;
+	}
+
+	/**
+	 * Returns the shortest path from the source to the given node, the same one
+	 * DijkstrasAlgorithm.shortestPath finds between them
+	 *
+	 * @param dest The id of the node where the path must end
+	 * @spec.requires 0 &lt;= dest &lt; graph.size()
+	 * @return the least weighted path from source to dest, or null if dest cannot be
+	 * 		reached
+	 */
+	public CompactPath<K> getPath(int dest) {
+		if (!isReachable(dest)) {
+			return null;
+		}
+		return DijkstrasAlgorithm.buildPath(graph, parent, source, dest, settled);
+	}
+}
@@ -0,0 +1,319 @@
+package campuspathfinder.model;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * A TsvTokenizer reads a tab separated file one row at a time and hands out the
+ * fields of the current row in order, parsing numbers straight from its character
+ * buffer rather than making a String of each field.
+ *
+ * Rows end at '\n', '\r' or "\r\n". A field ends at a tab or the end of its row, and
+ * nextDouble(char) can also stop partway through a field at a separator, so a field
+ * like "x,y" is read as two numbers without splitting it.
+ *
+ * Specification fields:
+ * 		@specfield row : String // The current row, with the fields read so far consumed
+ *
+ */
+class TsvTokenizer {
+
+	/*Abstraction Function:
+	 * A TsvTokenizer, t, has t.row = line[pos],...,line[length - 1], read from the
+	 * chars buffer[next],...,buffer[filled - 1] and then the rest of in
+	 *
+	 * Representation Invariant:
+	 * 0 <= next <= filled <= buffer.length && 0 <= pos <= length <= line.length
+	 *
+	 */
+
+	//chars read from in at a time
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	//the most significant digits a number can have to be parsed without falling back
+	//to Double.parseDouble, so that they fit in a long exactly
+	private static final int MAX_DIGITS = 18;
+
+	//the largest mantissa every smaller long of which is exact as a double
+	private static final long MAX_EXACT = 1L << 53;
+
+	//powers of ten that are exact as doubles, 10^0 to 10^22
+	private static final double[] POWERS = new double[23];
+
+	static {
+		POWERS[0] = 1.0;
+		for (int i = 1; i < POWERS.length; i++) {
+			POWERS[i] = POWERS[i - 1] * 10.0;
+		}
+	}
+
+	//the source of the rows
+	private final Reader in;
+
+	//chars read from in that have not yet been copied into a row
+	private final char[] buffer;
+
+	//index of the first char of buffer not yet copied
+	private int next;
+
+	//one past the index of the last char read into buffer
+	private int filled;
+
+	//whether the last row ended with '\r', so a '\n' starting the next one is skipped
+	private boolean afterReturn;
+
+	//chars of the current row
+	private char[] line;
+
+	//the number of chars in the current row
+	private int length;
+
+	//index of the first char of the current row not yet consumed
+	private int pos;
+
+	/**
+	 * @param in The reader to take rows from
+	 * @spec.requires in != null
+	 * @spec.effects Constructs a new TsvTokenizer before the first row of in
+	 */
+	TsvTokenizer(Reader in) {
+		this.in = in;
+		buffer = new char[BUFFER_SIZE];
+		line = new char[256];
+	}
+
+	/**
+	 * Moves to the next row
+	 *
+	 * @throws IOException if any I/O error occurs reading the file
+	 * @spec.modifies this
+	 * @return true if there is another row, false if the file has ended
+	 */
+	boolean nextRow() throws IOException {
+		length = 0;
+		pos = 0;
+		boolean started = false;
+		// {{ Inv: line[0],...,line[length - 1] hold the chars of the row read so far }}
+		while (true) {
+			if (next == filled) {
+				filled = in.read(buffer, 0, buffer.length);
+				next = 0;
+				if (filled == -1) {
+					filled = 0;
+					return started;
+				}
+			}
+			if (afterReturn) {
+				afterReturn = false;
+				if (buffer[next] == '\n') {
+					next++;
+					continue;
+				}
+			}
+			started = true;
+			int start = next;
+			while (next < filled && buffer[next] != '\n' && buffer[next] != '\r') {
+				next++;
+			}
+			append(start, next);
+			if (next < filled) {
+				afterReturn = buffer[next] == '\r';
+				next++;
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Returns the next field of the current row
+	 *
+	 * @spec.modifies this
+	 * @return the chars up to the next tab or the end of the row, which are consumed
+	 * 		along with the tab
+	 */
+	String nextString() {
+		int start = pos;
+		int end = fieldEnd('\t');
+		return new String(line, start, end - start);
+	}
+
+	/**
+	 * Parses the next field of the current row as a double
+	 *
+	 * @spec.modifies this
+	 * @throws NumberFormatException if the field is not a number Double.parseDouble
+	 * 		accepts
+	 * @return the value of the chars up to the next tab or the end of the row, which
+	 * 		are consumed along with the tab, exactly as Double.parseDouble gives it
+	 */
+	double nextDouble() {
+		return nextDouble('\t');
+	}
+
+	/**
+	 * Parses the chars up to the next separator, tab, or end of the current row as a
+	 * double
+	 *
+	 * @param separator The char to stop at within a field
+	 * @spec.modifies this
+	 * @throws NumberFormatException if the chars are not a number Double.parseDouble
+	 * 		accepts
+	 * @return the value of the chars, which are consumed along with the char that
+	 * 		ended them, exactly as Double.parseDouble gives it
+	 */
+	double nextDouble(char separator) {
+		int start = pos;
+		int end = fieldEnd(separator);
+		return parseDouble(line, start, end);
+	}
+
+	/**
+	 * Moves past the next field of the current row without reading it
+	 *
+	 * @spec.modifies this
+	 */
+	void skipField() {
+		fieldEnd('\t');
+	}
+
+	/**
+	 * Returns whether any of the current row is left to read
+	 *
+	 * @return true if some char of the row has not been consumed
+	 */
+	boolean hasField() {
+		return pos < length;
+	}
+
+	/**
+	 * Returns whether the next field of the current row has no chars
+	 *
+	 * @return true if the next char is a tab or the row has been used up
+	 */
+	boolean fieldIsEmpty() {
+		return pos == length || line[pos] == '\t';
+	}
+
+	/**
+	 * Moves past the rest of the current field, unless the last char consumed was the
+	 * tab that ended it or the row has been used up
+	 *
+	 * @spec.modifies this
+	 */
+	void finishField() {
+		if (pos > 0 && pos <= length && line[pos - 1] == '\t') {
+			return;
+		}
+		fieldEnd('\t');
+	}
+
+	/**
+	 * Finds where the text from pos ends and consumes it
+	 *
+	 * @param separator The char to stop at, besides a tab and the end of the row
+	 * @spec.modifies this
+	 * @return the index of the char that ended the text, or length if the row ended
+	 */
+	private int fieldEnd(char separator) {
+		int end = pos;
+		while (end < length && line[end] != '\t' && line[end] != separator) {
+			end++;
+		}
+		pos = (end < length) ? end + 1 : length;
+		return end;
+	}
+
+	/**
+	 * Adds chars of buffer to the current row
+	 *
+	 * @param from The index of the first char to add
+	 * @param to One past the index of the last char to add
+	 * @spec.modifies this
+	 */
+	private void append(int from, int to) {
+		int count = to - from;
+		if (length + count > line.length) {
+			line = Arrays.copyOf(line, Math.max(line.length * 2, length + count));
+		}
+		System.arraycopy(buffer, from, line, length, count);
+		length += count;
+	}
+
+	/**
+	 * Returns the double the given chars stand for. Plain decimal numbers with few
+	 * enough digits are converted with one exact multiply or divide, which rounds the
+	 * same way Double.parseDouble does; anything else is handed to Double.parseDouble
+	 *
+	 * @param chars The array holding the number
+	 * @param start The index of the first char of the number
+	 * @param end One past the index of the last char of the number
+	 * @throws NumberFormatException if the chars are not a number Double.parseDouble
+	 * 		accepts
+	 * @return Double.parseDouble(new String(chars, start, end - start))
+	 */
+	static double parseDouble(char[] chars, int start, int end) {
+		int i = start;
+		boolean negative = false;
+		if (i < end && (chars[i] == '-' || chars[i] == '+')) {
+			negative = chars[i] == '-';
+			i++;
+		}
+		long mantissa = 0;
+		int digits = 0;
+		int scale = 0;
+		boolean any = false;
+		// {{ Inv: mantissa holds the significant digits before i, and scale is the
+		//		number of them after the decimal point }}
+		for (; i < end && chars[i] >= '0' && chars[i] <= '9'; i++) {
+			any = true;
+			if (mantissa != 0 || chars[i] != '0') {
+				mantissa = mantissa * 10 + (chars[i] - '0');
+				digits++;
+			}
+		}
+		if (i < end && chars[i] == '.') {
+			i++;
+			for (; i < end && chars[i] >= '0' && chars[i] <= '9'; i++) {
+				any = true;
+				if (mantissa != 0 || chars[i] != '0') {
+					mantissa = mantissa * 10 + (chars[i] - '0');
+					digits++;
+				}
+				scale++;
+			}
+		}
+		int exponent = 0;
+		if (any && i < end && (chars[i] == 'e' || chars[i] == 'E')) {
+			int j = i + 1;
+			boolean negativeExponent = false;
+			if (j < end && (chars[j] == '-' || chars[j] == '+')) {
+				negativeExponent = chars[j] == '-';
+				j++;
+			}
+			int first = j;
+			for (; j < end && chars[j] >= '0' && chars[j] <= '9' && j - first < 4; j++) {
+				exponent = exponent * 10 + (chars[j] - '0');
+			}
+			if (j > first) {
+				exponent = negativeExponent ? -exponent : exponent;
+				i = j;
+			}
+		}
+		if (!any || i != end || digits > MAX_DIGITS || mantissa > MAX_EXACT) {
+			return Double.parseDouble(new String(chars, start, end - start));
+		}
+		int power = exponent - scale;
+		double value;
+		if (mantissa == 0) {
+			value = 0.0;
+		} else if (power >= 0 && power < POWERS.length) {
+			value = mantissa * POWERS[power];
+		} else if (power < 0 && -power < POWERS.length) {
+			value = mantissa / POWERS[-power];
+		} else {
+			return Double.parseDouble(new String(chars, start, end - start));
+		}
+		return negative ? -value : value;
+	}
+}
@@ -0,0 +1,99 @@
+package campuspathfinder.model;
+
+/**
+ * A WeightedEdge is a GraphEdge whose label is a weight held as a primitive double
+ * instead of a boxed Double, so each edge is one object smaller and a search reads
+ * its weight without unboxing. It can be used anywhere a GraphEdge&lt;K, Double&gt;
+ * can; getLabel boxes the weight on each call, so searches should read it with
+ * getWeight or weightOf instead.
+ * 
+ * @param <K> The key/name/data of a GraphNode/the data that a GraphNode holds
+ * 
+ * Specification fields:
+ * 		@specfield weight : double // The weight of the edge, which is its label
+ * 		@specfield node : GraphNode // The node that the edge points to
+ *
+ */
+public class WeightedEdge<K extends Comparable<K>> extends GraphEdge<K, Double> {
+	
+	/*Abstraction function:
+	 * A WeightedEdge, e, represents an edge to getNode() labeled with weight
+	 * 
+	 *Representation Invariant:
+	 * weight is not NaN
+	 * 
+	 */
+	
+	//The weight of the edge
+	private final double weight;
+	
+	/**
+	 * @param weight The weight of the edge
+	 * @param node The node that the edge points to
+	 * @spec.requires node != null and weight is not NaN
+	 * @throws IllegalArgumentException if node == null or weight is NaN
+	 * @spec.effects Creates a new instance of WeightedEdge with given weight and node
+	 */
+	public WeightedEdge(double weight, GraphNode<K, Double> node) {
+		super(node);
+		if (Double.isNaN(weight)) {
+			throw new IllegalArgumentException("weight is NaN");
+		}
+		this.weight = weight;
+	}
+	
+	/**
+	 * Returns the weight of the edge
+	 * 
+	 * @return The weight of the edge
+	 */
+	public double getWeight() {
+		return weight;
+	}
+	
+	/**
+	 * Returns the weight of the edge, boxed
+	 * 
+	 * @return The weight of the edge as a Double
+	 */
+	@Override
+	public Double getLabel() {
+		return weight;
+	}
+	
+	/**
+	 * Compares this edge's weight against other's label, and then the data of the
+	 * nodes they point to, without boxing when other is also a WeightedEdge
+	 * 
+	 * @param other The GraphEdge to be compared against
+	 * @return a value less than, equal to, or greater than 0 as this edge orders
+	 * 		before, the same as, or after other
+	 */
+	@Override
+	public int compareTo(GraphEdge<K, Double> other) {
+		if (!(other instanceof WeightedEdge)) {
+			return super.compareTo(other);
+		}
+		int byWeight = Double.compare(weight, ((WeightedEdge<K>) other).weight);
+		if (byWeight != 0) {
+			return byWeight;
+		}
+		return getNode().getData().compareTo(other.getNode().getData());
+	}
+	
+	/**
+	 * Returns the weight of the given edge, read directly if it is a WeightedEdge and
+	 * unboxed from its label otherwise
+	 * 
+	 * @param <K> The key/name/data of a GraphNode/the data that a GraphNode holds
+	 * @param edge The edge whose weight is wanted
+	 * @spec.requires edge != null
+	 * @return the weight of edge
+	 */
+	public static <K extends Comparable<K>> double weightOf(GraphEdge<K, Double> edge) {
+		if (edge instanceof WeightedEdge) {
+			return ((WeightedEdge<K>) edge).weight;
+		}
+		return edge.getLabel();
+	}
+}
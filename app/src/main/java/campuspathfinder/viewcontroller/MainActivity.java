@@ -9,10 +9,11 @@ import android.widget.ArrayAdapter;
 import android.widget.TextView;
 import android.view.View;
 import java.io.InputStream;
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiConsumer;
 
 import campuspathfinder.model.*;
 import android.widget.Toast;
@@ -30,6 +31,8 @@ public class MainActivity extends AppCompatActivity {
     ListView buildingsStartList;
     ListView buildingsEndList;
     Campus campus;
+    ArrayAdapter<String> adapter;
+    ExecutorService loader;
     String startBuildingShortName;
     String endBuildingShortName;
     TextView startText;
@@ -45,28 +48,23 @@ public class MainActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
 
-        InputStream pathsInputStream = this.getResources().openRawResource(R.raw.campus_paths);
-        InputStream buildingsInputStream =
-                this.getResources().openRawResource(R.raw.campus_buildings_new);
         //creates the two lists of buildings
         buildingsStartList = findViewById(R.id.BuildingsStart);
         buildingsEndList = findViewById(R.id.BuildingsEnd);
-        ArrayAdapter<String> adapter = new ArrayAdapter<>(getApplicationContext(),
+        adapter = new ArrayAdapter<>(getApplicationContext(),
                 android.R.layout.simple_list_item_1, new ArrayList<String>());
 
+        //loads the campus from the precompiled snapshot in the background, or from
+        //the TSV files if the snapshot was not made from them or is damaged, and
+        //fills the lists of buildings once it is ready. Queries from the UI thread
+        //never block on it
         campus = new Campus();
-        try {
-            //loads the campus
-            campus.loadCampus(buildingsInputStream, pathsInputStream);
-            Map<String, String> names = campus.getBuildings();
-            for (String s : names.keySet()) {
-                adapter.add(s);
-            }
-        } catch (IOException e) {
-            //display error
-            System.out.println("IOError in reading files");
-            System.exit(0);
-        }
+        campus.setLoadingPolicy(Campus.LoadingPolicy.FAIL_FAST);
+        loader = Executors.newFixedThreadPool(2);
+        campus.loadCampusAsync(getResources().openRawResource(R.raw.campus_snapshot),
+                getResources().openRawResource(R.raw.campus_buildings_new),
+                getResources().openRawResource(R.raw.campus_paths), loader)
+                .whenComplete(snapshotLoaded);
         //fills the buildings lists
         buildingsStartList.setAdapter(adapter);
         buildingsEndList.setAdapter(adapter);
@@ -85,16 +83,78 @@ public class MainActivity extends AppCompatActivity {
         endText = findViewById(R.id.EndBuildingText);
     }
 
+    /**
+     * Stops the threads the campus is loaded on
+     */
+    @Override
+    protected void onDestroy() {
+        loader.shutdownNow();
+        super.onDestroy();
+    }
+
+    /*
+     * Called once the snapshot has loaded or failed to
+     * Falls back to loading the campus from the TSV files if it failed
+     */
+    private BiConsumer<Campus, Throwable> snapshotLoaded = new BiConsumer<Campus, Throwable>() {
+        public void accept(Campus loaded, Throwable error) {
+            if (error == null) {
+                showBuildings();
+                return;
+            }
+            InputStream pathsInputStream = getResources().openRawResource(R.raw.campus_paths);
+            InputStream buildingsInputStream =
+                    getResources().openRawResource(R.raw.campus_buildings_new);
+            campus.loadCampusAsync(buildingsInputStream, pathsInputStream, loader)
+                    .whenComplete(filesLoaded);
+        }
+    };
+
+    /*
+     * Called once the TSV files have loaded or failed to
+     */
+    private BiConsumer<Campus, Throwable> filesLoaded = new BiConsumer<Campus, Throwable>() {
+        public void accept(Campus loaded, Throwable error) {
+            if (error != null) {
+                //display error
+                System.out.println("IOError in reading files");
+                System.exit(0);
+            }
+            showBuildings();
+        }
+    };
+
+    /**
+     * Fills the buildings lists with the buildings of the loaded campus, on the UI thread
+     */
+    private void showBuildings() {
+        loader.shutdown();
+        runOnUiThread(new Runnable() {
+            public void run() {
+                for (String s : campus.getBuildings().keySet()) {
+                    adapter.add(s);
+                }
+            }
+        });
+    }
+
     /*
      * Button click for the Show Path button
      * Displays the path on the map
      */
     private View.OnClickListener showPathButtonClick = new View.OnClickListener() {
         public void onClick(View v) {
-            Location src = campus.getLocation(startBuildingShortName);
-            Location dest = campus.getLocation(endBuildingShortName);
-            List<double[]> path = campus.findPath(startBuildingShortName, endBuildingShortName);
-            view.drawPath(src, dest, path);
+            try {
+                Location src = campus.getLocation(startBuildingShortName);
+                Location dest = campus.getLocation(endBuildingShortName);
+                List<double[]> path =
+                        campus.findPath(startBuildingShortName, endBuildingShortName);
+                view.drawPath(src, dest, path);
+            } catch (IllegalStateException e) {
+                //the campus is still loading
+                Toast.makeText(getApplicationContext(), "Campus is still loading",
+                        Toast.LENGTH_SHORT).show();
+            }
         }
     };
 
@@ -2,9 +2,16 @@ package campuspathfinder.model.CampusModel;
 
 import static org.junit.Assert.assertEquals;
 import campuspathfinder.model.*;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Random;
 
 import org.junit.Test;
 
@@ -77,4 +84,170 @@ public class CampusDataParserTest {
 				+ "resources/hw8/campus_buildings_new.tsv");
 		assert(buildings.size() == 51);
 	}
+	
+	// AndroidParser streaming tests
+	
+	@Test
+	public void streamingPathTest() throws IOException {
+		String file = "../cse331-19wi-tane1999/src/main/resources/hw8/campus_paths.tsv";
+		List<CampusPath> expected = AndroidParser.parsePathData(new FileInputStream(file));
+		final List<CampusPath> streamed = new ArrayList<CampusPath>();
+		AndroidParser.parsePathData(new FileInputStream(file), 
+				new AndroidParser.RowConsumer<CampusPath>() {
+			@Override
+			public void accept(CampusPath path) {
+				streamed.add(path);
+			}
+		});
+		assertEquals(5546, streamed.size());
+		Iterator<CampusPath> itr = expected.iterator();
+		for (CampusPath path : streamed) {
+			CampusPath curr = itr.next();
+			assertEquals(curr.getOrigin(), path.getOrigin());
+			assertEquals(curr.getDestination(), path.getDestination());
+			assertEquals(curr.getDistance(), path.getDistance(), 0.0);
+		}
+	}
+	
+	@Test
+	public void streamingBuildingTest() throws IOException {
+		String file = "../cse331-19wi-tane1999/src/main/resources/hw8/campus_buildings_new.tsv";
+		List<Location> expected = AndroidParser.parseBuildingData(new FileInputStream(file));
+		final List<Location> streamed = new ArrayList<Location>();
+		AndroidParser.parseBuildingData(new FileInputStream(file), 
+				new AndroidParser.RowConsumer<Location>() {
+			@Override
+			public void accept(Location building) {
+				streamed.add(building);
+			}
+		});
+		assertEquals(expected.size(), streamed.size());
+		Iterator<Location> itr = expected.iterator();
+		for (Location building : streamed) {
+			Location curr = itr.next();
+			assertEquals(curr.getShortName(), building.getShortName());
+			assertEquals(curr.getLocation(), building.getLocation());
+		}
+	}
+	
+	@Test
+	public void tokenizerRoundTripTest() throws IOException {
+		String[] numbers = {"0", "-0.0", "3.1", "120.123", "1e3", "2.5E-4", "+7",
+				"0.000001", "9007199254740993", "0.1000000000000000055511151231257827",
+				"123456789012345678901234567890", "1.7976931348623157E308", "4.9E-324",
+				"Infinity", "-NaN"};
+		StringBuilder file = new StringBuilder("origin\tdestination\tdistance\r\n");
+		List<String> rows = new ArrayList<String>();
+		Random random = new Random(331);
+		for (int i = 0; i < 500; i++) {
+			String a = (i < numbers.length) ? numbers[i] : Double.toString(random.nextDouble() * 5000);
+			String b = Double.toString(-random.nextDouble() * Math.pow(10, random.nextInt(30) - 15));
+			String c = String.format("%.3f", random.nextDouble() * 1000);
+			rows.add(a + "," + b + "\t" + c + "," + a + ",9\t" + b);
+		}
+		for (int i = 0; i < rows.size(); i++) {
+			file.append(rows.get(i)).append((i % 2 == 0) ? "\n" : "\r\n");
+		}
+		final List<CampusPath> paths = new ArrayList<CampusPath>();
+		AndroidParser.parsePathData(new ByteArrayInputStream(file.toString().getBytes()),
+				new AndroidParser.RowConsumer<CampusPath>() {
+			@Override
+			public void accept(CampusPath path) {
+				paths.add(path);
+			}
+		});
+		assertEquals(rows.size(), paths.size());
+		for (int i = 0; i < rows.size(); i++) {
+			String[] bits = rows.get(i).split("\t");
+			CampusPath path = paths.get(i);
+			assertEquals(Double.parseDouble(bits[0].split(",")[0]), path.getOrigin().getX(), 0.0);
+			assertEquals(Double.parseDouble(bits[0].split(",")[1]), path.getOrigin().getY(), 0.0);
+			assertEquals(Double.parseDouble(bits[1].split(",")[0]), path.getDestination().getX(), 0.0);
+			assertEquals(Double.parseDouble(bits[1].split(",")[1]), path.getDestination().getY(), 0.0);
+			assertEquals(Double.doubleToLongBits(Double.parseDouble(bits[2])),
+					Double.doubleToLongBits(path.getDistance()));
+		}
+	}
+	
+	@Test(expected = NumberFormatException.class)
+	public void tokenizerBadNumberTest() throws IOException {
+		String file = "origin\tdestination\tdistance\n1,2\t3,4\t1_5\n";
+		AndroidParser.parsePathData(new ByteArrayInputStream(file.getBytes()));
+	}
+	
+	// CampusDataParser binding tests
+	
+	@Test
+	public void bindingMatchesAndroidParserTest() throws IOException {
+		String file = "../cse331-19wi-tane1999/src/main/resources/hw8/campus_paths.tsv";
+		List<CampusPath> expected = AndroidParser.parsePathData(new FileInputStream(file));
+		List<CampusPath> bound = CampusDataParser.parsePathData(file);
+		assertEquals(expected.size(), bound.size());
+		Iterator<CampusPath> itr = expected.iterator();
+		for (CampusPath path : bound) {
+			CampusPath curr = itr.next();
+			assertEquals(curr.getOrigin(), path.getOrigin());
+			assertEquals(curr.getDestination(), path.getDestination());
+			assertEquals(curr.getDistance(), path.getDistance(), 0.0);
+		}
+	}
+	
+	@Test
+	public void bindingHeaderTest() throws IOException {
+		File file = File.createTempFile("buildings", ".tsv");
+		file.deleteOnExit();
+		Writer writer = new FileWriter(file);
+		writer.write("LOCATION\tfloors\tshortname\tlongName\n"
+				+ "1.5,2.25\t3\tBAG\tBagley Hall\n"
+				+ "4,5\t\tCSE\t\n");
+		writer.close();
+		List<Location> buildings = CampusDataParser.parseBuildingData(file.getPath());
+		assertEquals(2, buildings.size());
+		assertEquals("BAG", buildings.get(0).getShortName());
+		assertEquals("Bagley Hall", buildings.get(0).getLongName());
+		assertEquals(new Coordinate(1.5, 2.25), buildings.get(0).getLocation());
+		assertEquals("CSE", buildings.get(1).getShortName());
+		assertEquals(null, buildings.get(1).getLongName());
+		assertEquals(new Coordinate(4, 5), buildings.get(1).getLocation());
+	}
+	
+	@Test
+	public void parallelPathTest() throws IOException {
+		String file = "../cse331-19wi-tane1999/src/main/resources/hw8/campus_paths.tsv";
+		List<CampusPath> expected = AndroidParser.parsePathData(new FileInputStream(file));
+		for (int parallelism = 1; parallelism <= 4; parallelism++) {
+			List<CampusPath> paths = CampusDataParser.parsePathData(file, parallelism);
+			assertEquals(expected.size(), paths.size());
+			Iterator<CampusPath> itr = expected.iterator();
+			for (CampusPath path : paths) {
+				CampusPath curr = itr.next();
+				assertEquals(curr.getOrigin(), path.getOrigin());
+				assertEquals(curr.getDestination(), path.getDestination());
+				assertEquals(curr.getDistance(), path.getDistance(), 0.0);
+			}
+		}
+	}
+	
+	@Test
+	public void parallelLineEndingsTest() throws IOException {
+		File file = File.createTempFile("paths", ".tsv");
+		file.deleteOnExit();
+		String[] ends = {"\n", "\r\n", "\r"};
+		StringBuilder text = new StringBuilder("origin\tdestination\tdistance\r\n");
+		for (int i = 0; i < 40; i++) {
+			text.append(i + ",1\t2," + i + "\t" + (i * 0.5)).append(ends[i % ends.length]);
+		}
+		Writer writer = new FileWriter(file);
+		writer.write(text.toString());
+		writer.close();
+		for (int parallelism = 1; parallelism <= 8; parallelism++) {
+			List<CampusPath> paths = CampusDataParser.parsePathData(file.getPath(), parallelism);
+			assertEquals(40, paths.size());
+			for (int i = 0; i < paths.size(); i++) {
+				assertEquals(new Coordinate(i, 1), paths.get(i).getOrigin());
+				assertEquals(new Coordinate(2, i), paths.get(i).getDestination());
+				assertEquals(i * 0.5, paths.get(i).getDistance(), 0.0);
+			}
+		}
+	}
 }
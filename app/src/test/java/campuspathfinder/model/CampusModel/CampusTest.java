@@ -1,11 +1,32 @@
 package campuspathfinder.model.CampusModel;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import campuspathfinder.model.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.junit.Test;
 
@@ -53,4 +74,249 @@ public class CampusTest {
 		
 	}
 	
+	@Test
+	public void routingModesMatchTest() throws IOException {
+		Campus campus = new Campus();
+		campus.loadCampus(FILE_PATH + "campus_buildings_new.tsv", FILE_PATH + "campus_paths.tsv");
+		assertEquals(Campus.RoutingMode.ROUTE_TABLE, campus.getRoutingMode());
+		Map<String, String> buildings = campus.getBuildings();
+		for (String src : buildings.keySet()) {
+			for (String dest : buildings.keySet()) {
+				campus.setRoutingMode(Campus.RoutingMode.DIJKSTRA);
+				List<double[]> expected = campus.findPath(src, dest);
+				//every mode, A*, bidirectional and the contraction hierarchy included,
+				//takes the very same steps
+				for (Campus.RoutingMode mode : Campus.RoutingMode.values()) {
+					campus.setRoutingMode(mode);
+					assertSameRoute(expected, campus.findPath(src, dest));
+				}
+			}
+		}
+	}
+	
+	@Test
+	public void routeTableMatchesDijkstraTest() throws IOException {
+		Campus campus = new Campus();
+		campus.loadCampus(FILE_PATH + "campus_buildings_new.tsv", FILE_PATH + "campus_paths.tsv");
+		Map<String, String> buildings = campus.getBuildings();
+		for (String src : buildings.keySet()) {
+			for (String dest : buildings.keySet()) {
+				campus.setRoutingMode(Campus.RoutingMode.DIJKSTRA);
+				List<double[]> expected = campus.findPath(src, dest);
+				campus.setRoutingMode(Campus.RoutingMode.ROUTE_TABLE);
+				assertSameRoute(expected, campus.findPath(src, dest));
+			}
+		}
+	}
+	
+	@Test
+	public void parallelLoadTest() throws IOException {
+		Campus campus = new Campus();
+		campus.loadCampus(FILE_PATH + "campus_buildings_new.tsv", FILE_PATH + "campus_paths.tsv");
+		Campus parallel = new Campus();
+		parallel.loadCampus(FILE_PATH + "campus_buildings_new.tsv", FILE_PATH + "campus_paths.tsv", 3);
+		assertEquals(campus.getBuildings(), parallel.getBuildings());
+		assertSameRoutes(campus, parallel);
+	}
+	
+	@Test
+	public void snapshotLoadTest() throws IOException {
+		Campus campus = new Campus();
+		campus.loadCampus(FILE_PATH + "campus_buildings_new.tsv", FILE_PATH + "campus_paths.tsv");
+		Campus loaded = new Campus();
+		loaded.loadCampus(ByteBuffer.wrap(snapshot()));
+		assertEquals(campus.getBuildings(), loaded.getBuildings());
+		assertSameRoutes(campus, loaded);
+	}
+	
+	@Test
+	public void snapshotRejectTest() throws IOException {
+		byte[] bytes = snapshot();
+		Campus campus = new Campus();
+		campus.loadCampus(new ByteArrayInputStream(bytes));
+		int[] damaged = {0, 7, bytes.length / 2, bytes.length - 1};
+		for (int index : damaged) {
+			byte[] copy = Arrays.copyOf(bytes, bytes.length);
+			copy[index] ^= 1;
+			try {
+				campus.loadCampus(ByteBuffer.wrap(copy));
+				fail("loaded a snapshot with byte " + index + " changed");
+			} catch (IOException e) {
+				// expected
+			}
+		}
+		assertEquals(51, campus.getBuildings().size());
+	}
+	
+	@Test
+	public void snapshotStaleTest() throws IOException {
+		byte[] bytes = snapshot();
+		byte[] buildings = Files.readAllBytes(Paths.get(FILE_PATH + "campus_buildings_new.tsv"));
+		byte[] paths = Files.readAllBytes(Paths.get(FILE_PATH + "campus_paths.tsv"));
+		Campus campus = new Campus();
+		campus.loadCampus(new ByteArrayInputStream(bytes), new ByteArrayInputStream(buildings),
+				new ByteArrayInputStream(paths));
+		assertEquals(51, campus.getBuildings().size());
+		// a path file changed after the snapshot was made
+		byte[] changed = Arrays.copyOf(paths, paths.length + 1);
+		changed[paths.length] = '\n';
+		try {
+			campus.loadCampus(new ByteArrayInputStream(bytes),
+					new ByteArrayInputStream(buildings), new ByteArrayInputStream(changed));
+			fail("loaded a snapshot made from other files");
+		} catch (IOException e) {
+			// expected
+		}
+		assertEquals(51, campus.getBuildings().size());
+	}
+	
+	/**
+	 * Returns the snapshot of the full campus
+	 */
+	private byte[] snapshot() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		InputStream buildings = new FileInputStream(FILE_PATH + "campus_buildings_new.tsv");
+		InputStream paths = new FileInputStream(FILE_PATH + "campus_paths.tsv");
+		CampusSnapshot.write(buildings, paths, out);
+		buildings.close();
+		paths.close();
+		return out.toByteArray();
+	}
+	
+	@Test
+	public void asyncLoadTest() throws Exception {
+		Campus campus = new Campus();
+		campus.loadCampus(FILE_PATH + "campus_buildings_new.tsv", FILE_PATH + "campus_paths.tsv");
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Campus async = new Campus();
+			CompletableFuture<Campus> loaded = async.loadCampusAsync(
+					FILE_PATH + "campus_buildings_new.tsv", FILE_PATH + "campus_paths.tsv", executor);
+			// queries wait for the load by default
+			assertEquals(campus.getBuildings(), async.getBuildings());
+			assertSame(async, loaded.get());
+			assertFalse(async.isLoading());
+			assertSameRoutes(campus, async);
+		} finally {
+			executor.shutdown();
+		}
+	}
+	
+	@Test
+	public void asyncFailFastTest() throws Exception {
+		// runs nothing until the test says so, so the load is certainly still running
+		final List<Runnable> queued = new ArrayList<Runnable>();
+		Executor held = new Executor() {
+			@Override
+			public void execute(Runnable task) {
+				queued.add(task);
+			}
+		};
+		Campus campus = new Campus();
+		campus.setLoadingPolicy(Campus.LoadingPolicy.FAIL_FAST);
+		CompletableFuture<Campus> loaded = campus.loadCampusAsync(
+				new ByteArrayInputStream(snapshot()), held);
+		assertTrue(campus.isLoading());
+		try {
+			campus.getBuildings();
+			fail("answered a query while loading");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+		try {
+			campus.loadCampusAsync(FILE_PATH + "campus_buildings_new.tsv",
+					FILE_PATH + "campus_paths.tsv", held);
+			fail("started a second load while loading");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+		while (!queued.isEmpty()) {
+			queued.remove(0).run();
+		}
+		assertTrue(loaded.isDone());
+		assertFalse(campus.isLoading());
+		assertEquals(51, campus.getBuildings().size());
+	}
+	
+	@Test
+	public void asyncLoadFailureTest() throws Exception {
+		Campus campus = new Campus();
+		campus.loadCampus(FILE_PATH + "campus_buildings_new.tsv", FILE_PATH + "campus_paths.tsv");
+		Map<String, String> buildings = campus.getBuildings();
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			CompletableFuture<Campus> loaded = campus.loadCampusAsync(
+					FILE_PATH + "campus_buildings_new.tsv", FILE_PATH + "no_such_file.tsv", executor);
+			try {
+				loaded.get();
+				fail("loaded a missing file");
+			} catch (ExecutionException e) {
+				assertTrue(e.getCause() instanceof IOException);
+			}
+			assertFalse(campus.isLoading());
+			assertEquals(buildings, campus.getBuildings());
+		} finally {
+			executor.shutdown();
+		}
+	}
+	
+	@Test
+	public void findPathsFromTest() throws IOException {
+		Campus campus = new Campus();
+		campus.loadCampus(FILE_PATH + "campus_buildings_new.tsv", FILE_PATH + "campus_paths.tsv");
+		Map<String, String> buildings = campus.getBuildings();
+		String src = buildings.keySet().iterator().next();
+		campus.setRoutingMode(Campus.RoutingMode.DIJKSTRA);
+		Map<String, List<double[]>> paths = campus.findPathsFrom(src, buildings.keySet());
+		assertEquals(buildings.keySet(), paths.keySet());
+		for (String dest : buildings.keySet()) {
+			assertSameRoute(campus.findPath(src, dest), paths.get(dest));
+		}
+	}
+	
+	@Test
+	public void findPathsTest() throws IOException, InterruptedException {
+		Campus campus = new Campus();
+		campus.loadCampus(FILE_PATH + "campus_buildings_new.tsv", FILE_PATH + "campus_paths.tsv");
+		List<String> buildings = new ArrayList<String>(campus.getBuildings().keySet());
+		Random random = new Random(331);
+		List<String[]> pairs = new ArrayList<String[]>();
+		for (int i = 0; i < 500; i++) {
+			pairs.add(new String[] {buildings.get(random.nextInt(buildings.size())),
+					buildings.get(random.nextInt(buildings.size()))});
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<List<double[]>> paths = campus.findPaths(pairs, executor);
+			assertEquals(pairs.size(), paths.size());
+			for (int i = 0; i < pairs.size(); i++) {
+				assertSameRoute(campus.findPath(pairs.get(i)[0], pairs.get(i)[1]), paths.get(i));
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+	
+	/**
+	 * Asserts that route has the same steps as expected, in the same order
+	 */
+	private static void assertSameRoute(List<double[]> expected, List<double[]> route) {
+		assertEquals(expected.size(), route.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertArrayEquals(expected.get(i), route.get(i), 0.0);
+		}
+	}
+	
+	/**
+	 * Asserts that campus finds the same route expected does between every pair of
+	 * buildings
+	 */
+	private static void assertSameRoutes(Campus expected, Campus campus) {
+		for (String src : expected.getBuildings().keySet()) {
+			for (String dest : expected.getBuildings().keySet()) {
+				assertSameRoute(expected.findPath(src, dest), campus.findPath(src, dest));
+			}
+		}
+	}
+	
 }
@@ -2,8 +2,17 @@ package campuspathfinder.model.Dijkstras;
 
 import static org.junit.Assert.*;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
 import java.util.Set;
 
 import org.junit.Test;
@@ -161,4 +170,486 @@ public class DijkstrasTest {
 		List<GraphEdge<String, Double>> path = DijkstrasAlgorithm.shortestPath(graph, ernst, "unconnected");
 		assertEquals(null, path);
 	}
+	
+	@Test
+	public void compactShortestPathTest() throws MalformedDataException {
+		Graph<String, Double> graph = DijkstrasAlgorithm.buildGraph("../app/src/test/"
+				+ "resources/hw7/data/staffSuperheroes.tsv");
+		CompactGraph<String> compact = new CompactGraph<String>(graph);
+		CompactPath<String> path = DijkstrasAlgorithm.shortestPath(compact, 
+				compact.idOf(notkin), compact.idOf(ernst));
+		assertEquals(1, path.size());
+		assertEquals(compact.idOf(notkin), path.getStart());
+		assertEquals(ernst, compact.getData(path.getNode(0)));
+		assertEquals(0.5, path.getCost(), 0.0);
+		path = DijkstrasAlgorithm.shortestPath(compact, compact.idOf(ernst), compact.idOf(ernst));
+		assertEquals(0, path.size());
+	}
+	
+	@Test
+	public void compactMatchesShortestPathTest() throws MalformedDataException {
+		Graph<String, Double> graph = DijkstrasAlgorithm.buildGraph("../app/src/test/"
+				+ "resources/hw7/data/shortestPathTest.tsv");
+		CompactGraph<String> compact = new CompactGraph<String>(graph);
+		for (String src : compact.getNodes()) {
+			for (String dest : compact.getNodes()) {
+				List<GraphEdge<String, Double>> expected = 
+						DijkstrasAlgorithm.shortestPath(graph, src, dest);
+				CompactPath<String> path = DijkstrasAlgorithm.shortestPath(compact, 
+						compact.idOf(src), compact.idOf(dest));
+				if (expected == null) {
+					assertNull(path);
+				} else {
+					assertEquals(expected.size(), path.size());
+					for (int i = 0; i < path.size(); i++) {
+						assertEquals(expected.get(i).getNode().getData(), 
+								compact.getData(path.getNode(i)));
+						assertEquals(expected.get(i).getLabel(), path.getWeight(i), 0.0);
+					}
+				}
+			}
+		}
+	}
+	
+	@Test
+	public void breadthFirstPathTest() {
+		Graph<String, Double> graph = new Graph<String, Double>();
+		GraphNode<String, Double> a = new GraphNode<String, Double>("a");
+		GraphNode<String, Double> b = new GraphNode<String, Double>("b");
+		GraphNode<String, Double> c = new GraphNode<String, Double>("c");
+		GraphNode<String, Double> d = new GraphNode<String, Double>("d");
+		graph.addNode(a);
+		graph.addEdge(a, c, 1.0);
+		graph.addEdge(a, b, 5.0);
+		graph.addEdge(b, d, 5.0);
+		graph.addEdge(c, d, 1.0);
+		graph.addEdge(a, d, 20.0);
+		CompactGraph<String> compact = new CompactGraph<String>(graph);
+		CompactPath<String> path = DijkstrasAlgorithm.breadthFirstPath(compact, 
+				compact.idOf("a"), compact.idOf("d"));
+		assertEquals(1, path.size());
+		assertEquals(20.0, path.getCost(), 0.0);
+		path = DijkstrasAlgorithm.breadthFirstPath(compact, compact.idOf("d"), compact.idOf("a"));
+		assertNull(path);
+		path = DijkstrasAlgorithm.shortestPath(compact, compact.idOf("a"), compact.idOf("d"));
+		assertEquals(2, path.size());
+		assertEquals("c", compact.getData(path.getNode(0)));
+	}
+	
+	@Test
+	public void shortestPathTreeTest() throws MalformedDataException {
+		Graph<String, Double> graph = DijkstrasAlgorithm.buildGraph("../app/src/test/"
+				+ "resources/hw7/data/shortestPathTest.tsv");
+		CompactGraph<String> compact = new CompactGraph<String>(graph);
+		for (int src = 0; src < compact.size(); src++) {
+			ShortestPathTree<String> tree = DijkstrasAlgorithm.shortestPathTree(compact, src);
+			assertEquals(src, tree.getSource());
+			assertEquals(0.0, tree.getDistance(src), 0.0);
+			assertEquals(-1, tree.getParentEdge(src));
+			for (int dest = 0; dest < compact.size(); dest++) {
+				CompactPath<String> expected = DijkstrasAlgorithm.shortestPath(compact, src, dest);
+				CompactPath<String> path = tree.getPath(dest);
+				assertEquals(expected != null, tree.isReachable(dest));
+				if (expected != null) {
+					assertEquals(expected.getCost(), tree.getDistance(dest), 1e-9);
+				}
+				assertSamePath(expected, path);
+			}
+		}
+	}
+	
+	@Test
+	public void nodeQueueTest() throws MalformedDataException {
+		Graph<String, Double> graph = DijkstrasAlgorithm.buildGraph("../app/src/test/"
+				+ "resources/hw7/data/shortestPathTest.tsv");
+		final CompactGraph<String> compact = new CompactGraph<String>(graph);
+		NodeQueue[] queues = {new IndexedDaryHeap(compact.size(), 2), 
+				new IndexedDaryHeap(compact.size(), 8), new RadixHeap(compact.size())};
+		for (final NodeQueue queue : queues) {
+			assertMatchesShortestPath(compact, new PathFinder() {
+				@Override
+				public CompactPath<String> find(int src, int dest) {
+					return DijkstrasAlgorithm.shortestPath(compact, src, dest, null, queue);
+				}
+			});
+		}
+	}
+	
+	@Test
+	public void searchWorkspaceTest() throws MalformedDataException {
+		Graph<String, Double> graph = DijkstrasAlgorithm.buildGraph("../app/src/test/"
+				+ "resources/hw7/data/shortestPathTest.tsv");
+		CompactGraph<String> compact = new CompactGraph<String>(graph);
+		ContractionHierarchy<String> hierarchy = new ContractionHierarchy<String>(compact);
+		//one workspace, larger than the graph, reused by every kind of search
+		SearchWorkspace workspace = new SearchWorkspace(compact.size() + 5);
+		for (int src = 0; src < compact.size(); src++) {
+			for (int dest = 0; dest < compact.size(); dest++) {
+				CompactPath<String> expected = DijkstrasAlgorithm.shortestPath(compact, src, 
+						dest, null, new IndexedDaryHeap(compact.size(), 4));
+				@SuppressWarnings("unchecked")
+				CompactPath<String>[] paths = new CompactPath[] {
+						DijkstrasAlgorithm.shortestPath(compact, src, dest, null, workspace),
+						DijkstrasAlgorithm.bidirectionalPath(compact, src, dest, workspace),
+						hierarchy.shortestPath(src, dest, workspace)};
+				assertSamePath(expected, paths[0]);
+				assertSamePath(expected, paths[1]);
+				for (CompactPath<String> path : paths) {
+					assertShortestPath(compact, src, dest, expected, path);
+				}
+			}
+		}
+		assertSame(SearchWorkspace.forCurrentThread(compact.size()), 
+				SearchWorkspace.forCurrentThread(compact.size() - 1));
+	}
+
+	@Test
+	public void bidirectionalPathTest() {
+		Graph<String, Double> graph = new Graph<String, Double>();
+		GraphNode<String, Double> a = new GraphNode<String, Double>("a");
+		GraphNode<String, Double> b = new GraphNode<String, Double>("b");
+		GraphNode<String, Double> c = new GraphNode<String, Double>("c");
+		GraphNode<String, Double> d = new GraphNode<String, Double>("d");
+		graph.addNode(a);
+		graph.addEdge(a, b, 1.0);
+		graph.addEdge(b, c, 1.0);
+		graph.addEdge(c, d, 1.0);
+		graph.addEdge(a, d, 4.0);
+		graph.addEdge(d, a, 1.0);
+		CompactGraph<String> compact = new CompactGraph<String>(graph);
+		CompactPath<String> path = DijkstrasAlgorithm.bidirectionalPath(compact, 
+				compact.idOf("a"), compact.idOf("d"));
+		assertEquals(3, path.size());
+		assertEquals(compact.idOf("a"), path.getStart());
+		assertEquals("b", compact.getData(path.getNode(0)));
+		assertEquals("c", compact.getData(path.getNode(1)));
+		assertEquals("d", compact.getData(path.getNode(2)));
+		path = DijkstrasAlgorithm.bidirectionalPath(compact, compact.idOf("d"), compact.idOf("c"));
+		assertEquals(3.0, path.getCost(), 0.0);
+		path = DijkstrasAlgorithm.bidirectionalPath(compact, compact.idOf("b"), compact.idOf("b"));
+		assertEquals(0, path.size());
+		graph.removeNode(a);
+		compact = new CompactGraph<String>(graph);
+		assertNull(DijkstrasAlgorithm.bidirectionalPath(compact, 
+				compact.idOf("d"), compact.idOf("b")));
+	}
+	
+	@Test
+	public void bidirectionalMatchesShortestPathTest() throws MalformedDataException {
+		String[] files = {"shortestPathTest.tsv", "staffSuperheroes.tsv"};
+		for (String file : files) {
+			Graph<String, Double> graph = DijkstrasAlgorithm.buildGraph("../app/src/test/"
+					+ "resources/hw7/data/" + file);
+			assertBidirectionalMatchesShortestPath(new CompactGraph<String>(graph));
+		}
+	}
+	
+	@Test
+	public void bidirectionalTieBreakingTest() {
+		//small directed graphs with few distinct weights, where many pairs of nodes are
+		//joined by several least cost paths and the one shortestPath picks must be found
+		for (int seed = 0; seed < 20; seed++) {
+			Random random = new Random(seed);
+			Graph<String, Double> graph = new Graph<String, Double>();
+			List<GraphNode<String, Double>> nodes = new ArrayList<GraphNode<String, Double>>();
+			for (int i = 0; i < 12; i++) {
+				nodes.add(new GraphNode<String, Double>("n" + (char) ('a' + i)));
+				graph.addNode(nodes.get(i));
+			}
+			for (int i = 0; i < 40; i++) {
+				graph.addEdge(nodes.get(random.nextInt(12)), nodes.get(random.nextInt(12)),
+						(double) (1 + random.nextInt(3)));
+			}
+			assertBidirectionalMatchesShortestPath(new CompactGraph<String>(graph));
+		}
+	}
+	
+	/**
+	 * Asserts that bidirectionalPath gives the path shortestPath does between every
+	 * pair of nodes of graph
+	 */
+	private static void assertBidirectionalMatchesShortestPath(final CompactGraph<String> graph) {
+		assertMatchesShortestPath(graph, new PathFinder() {
+			@Override
+			public CompactPath<String> find(int src, int dest) {
+				return DijkstrasAlgorithm.bidirectionalPath(graph, src, dest);
+			}
+		});
+	}
+	
+	@Test
+	public void contractionHierarchyTest() {
+		Graph<String, Double> graph = new Graph<String, Double>();
+		GraphNode<String, Double> a = new GraphNode<String, Double>("a");
+		GraphNode<String, Double> b = new GraphNode<String, Double>("b");
+		GraphNode<String, Double> c = new GraphNode<String, Double>("c");
+		GraphNode<String, Double> d = new GraphNode<String, Double>("d");
+		graph.addNode(a);
+		graph.addEdge(a, b, 1.0);
+		graph.addEdge(b, c, 1.0);
+		graph.addEdge(c, d, 1.0);
+		graph.addEdge(a, d, 4.0);
+		graph.addEdge(d, a, 1.0);
+		CompactGraph<String> compact = new CompactGraph<String>(graph);
+		ContractionHierarchy<String> hierarchy = new ContractionHierarchy<String>(compact);
+		CompactPath<String> path = hierarchy.shortestPath(compact.idOf("a"), compact.idOf("d"));
+		assertEquals(3, path.size());
+		assertEquals("b", compact.getData(path.getNode(0)));
+		assertEquals("c", compact.getData(path.getNode(1)));
+		assertEquals("d", compact.getData(path.getNode(2)));
+		path = hierarchy.shortestPath(compact.idOf("c"), compact.idOf("b"));
+		assertEquals(3, path.size());
+		assertEquals(3.0, path.getCost(), 0.0);
+		path = hierarchy.shortestPath(compact.idOf("b"), compact.idOf("b"));
+		assertEquals(0, path.size());
+		graph.removeNode(a);
+		compact = new CompactGraph<String>(graph);
+		hierarchy = new ContractionHierarchy<String>(compact);
+		assertNull(hierarchy.shortestPath(compact.idOf("d"), compact.idOf("b")));
+	}
+	
+	@Test
+	public void contractionHierarchyMatchesShortestPathTest() throws MalformedDataException {
+		Graph<String, Double> graph = DijkstrasAlgorithm.buildGraph("../app/src/test/"
+				+ "resources/hw7/data/shortestPathTest.tsv");
+		CompactGraph<String> compact = new CompactGraph<String>(graph);
+		final ContractionHierarchy<String> hierarchy = new ContractionHierarchy<String>(compact);
+		assertCostsMatchShortestPath(compact, new PathFinder() {
+			@Override
+			public CompactPath<String> find(int src, int dest) {
+				return hierarchy.shortestPath(src, dest);
+			}
+		});
+	}
+	
+	/**
+	 * Finds a path between two nodes of a CompactGraph with the search under test
+	 */
+	private interface PathFinder {
+		CompactPath<String> find(int src, int dest);
+	}
+	
+	/**
+	 * Asserts that path takes the same edges as expected, in the same order, or that
+	 * both are null
+	 */
+	private static void assertSamePath(CompactPath<String> expected, CompactPath<String> path) {
+		if (expected == null) {
+			assertNull(path);
+			return;
+		}
+		assertNotNull(path);
+		assertEquals(expected.size(), path.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.getEdge(i), path.getEdge(i));
+		}
+	}
+	
+	/**
+	 * Asserts that path is a connected path of graph from src to dest costing what
+	 * expected does, or that both are null
+	 */
+	private static void assertShortestPath(CompactGraph<String> graph, int src, int dest,
+			CompactPath<String> expected, CompactPath<String> path) {
+		if (expected == null) {
+			assertNull(path);
+			return;
+		}
+		assertEquals(expected.getCost(), path.getCost(), 1e-9);
+		int curr = src;
+		for (int i = 0; i < path.size(); i++) {
+			assertEquals(curr, graph.getSource(path.getEdge(i)));
+			curr = path.getNode(i);
+		}
+		assertEquals(dest, curr);
+	}
+	
+	/**
+	 * Asserts that finder gives the path shortestPath does between every pair of nodes
+	 * of graph
+	 */
+	private static void assertMatchesShortestPath(CompactGraph<String> graph, PathFinder finder) {
+		for (int src = 0; src < graph.size(); src++) {
+			for (int dest = 0; dest < graph.size(); dest++) {
+				assertSamePath(DijkstrasAlgorithm.shortestPath(graph, src, dest),
+						finder.find(src, dest));
+			}
+		}
+	}
+	
+	/**
+	 * Asserts that finder gives a shortest path between every pair of nodes of graph,
+	 * though not necessarily the one shortestPath gives
+	 */
+	private static void assertCostsMatchShortestPath(CompactGraph<String> graph,
+			PathFinder finder) {
+		for (int src = 0; src < graph.size(); src++) {
+			for (int dest = 0; dest < graph.size(); dest++) {
+				assertShortestPath(graph, src, dest, 
+						DijkstrasAlgorithm.shortestPath(graph, src, dest), finder.find(src, dest));
+			}
+		}
+	}
+	
+	/**
+	 * Writes the given text to a new temporary file
+	 * 
+	 * @param text The contents of the file
+	 * @return the path of the file, which is deleted when the JVM exits
+	 * @throws IOException if the file cannot be written
+	 */
+	private static String tempFile(String text) throws IOException {
+		File file = File.createTempFile("marvel", ".tsv");
+		file.deleteOnExit();
+		FileOutputStream out = new FileOutputStream(file);
+		try {
+			out.write(text.getBytes("US-ASCII"));
+		} finally {
+			out.close();
+		}
+		return file.getPath();
+	}
+	
+	@Test
+	public void parseDataTest() throws IOException, MalformedDataException {
+		Set<String> characters = new HashSet<String>();
+		Map<String, List<String>> books = new HashMap<String, List<String>>();
+		DijkstrasAlgorithm.parseData(tempFile("a\tb\n#c\td\n\"e\"\t\"b\"\r\n"
+				+ "g\th\t\t\r\"#x\"\ty\ra\th"), characters, books);
+		assertEquals(new HashSet<String>(Arrays.asList("a", "e", "g", "#x")), characters);
+		assertEquals(Arrays.asList("a", "e"), books.get("b"));
+		assertEquals(Arrays.asList("g", "a"), books.get("h"));
+		assertEquals(Arrays.asList("#x"), books.get("y"));
+		assertEquals(3, books.size());
+		//names are interned, so every record of a name shares one String
+		assertSame(books.get("b").get(0), books.get("h").get(1));
+	}
+	
+	@Test
+	public void parseDataMalformedTest() throws IOException {
+		String[] lines = {"a\tb\t\tc", "x", "\t", "a\tb\n\nc\td"};
+		String[] messages = {"a\tb\t\tc", "x", "\t", ""};
+		for (int i = 0; i < lines.length; i++) {
+			try {
+				DijkstrasAlgorithm.parseData(tempFile(lines[i]), new HashSet<String>(),
+						new HashMap<String, List<String>>());
+				fail("expected MalformedDataException for line " + i);
+			} catch (MalformedDataException e) {
+				assertEquals("Line should contain exactly one tab: " + messages[i], 
+						e.getMessage());
+			}
+		}
+	}
+	
+	@Test
+	public void coAppearanceGraphTest() {
+		Set<String> characters = new HashSet<String>(Arrays.asList("a", "b", "c", "d"));
+		Map<String, List<String>> books = new HashMap<String, List<String>>();
+		books.put("book1", Arrays.asList("a", "b", "c", "a"));
+		books.put("book2", Arrays.asList("b", "a"));
+		books.put("book3", Arrays.asList("c"));
+		CoAppearanceGraph graph = new CoAppearanceGraph(characters, books);
+		assertEquals(4, graph.size());
+		assertEquals(3, graph.bookCount());
+		assertEquals(8, graph.edgeCount());
+		assertEquals(Arrays.asList("b", "c"), graph.getChildren("a"));
+		assertEquals(Arrays.asList("book1", "book2"), graph.getSharedBooks("a", "b"));
+		assertEquals(Arrays.asList("book1"), graph.getSharedBooks("c", "a"));
+		assertTrue(graph.getSharedBooks("a", "d").isEmpty());
+		assertTrue(graph.getChildren("d").isEmpty());
+		assertNull(graph.getEdgesFromNode("d", "a"));
+		Iterator<GraphEdge<String, String>> edges = graph.getEdgesFromNode("b", "a").iterator();
+		assertEquals("book1", edges.next().getLabel());
+		GraphEdge<String, String> last = edges.next();
+		assertEquals("book2", last.getLabel());
+		assertEquals("a", last.getNode().getData());
+		assertFalse(edges.hasNext());
+	}
+	
+	@Test
+	public void mappedGraphTest() throws IOException, MalformedDataException {
+		Graph<String, Double> graph = DijkstrasAlgorithm.buildGraph(
+				"../app/src/test/resources/hw7/data/staffSuperheroes.tsv");
+		File file = File.createTempFile("staff", ".graph");
+		file.deleteOnExit();
+		MappedGraph.write(graph, file.getPath());
+		CompactGraph<String> compact = new CompactGraph<String>(graph);
+		final CompactGraph<String> mapped = MappedGraph.map(file.getPath());
+		for (String name : compact.getNodes()) {
+			assertEquals(compact.idOf(name), mapped.idOf(name));
+		}
+		//the file keeps the ids and edge numbers of the graph it was written from
+		assertMatchesShortestPath(compact, new PathFinder() {
+			@Override
+			public CompactPath<String> find(int src, int dest) {
+				return DijkstrasAlgorithm.shortestPath(mapped, src, dest);
+			}
+		});
+	}
+	
+	@Test
+	public void coAppearanceMatchesGraphTest() throws MalformedDataException {
+		String file = "../app/src/test/resources/hw7/data/staffSuperheroes.tsv";
+		Graph<String, String> graph = DijkstrasAlgorithm.buildGraphFromFile(file);
+		CoAppearanceGraph compact = DijkstrasAlgorithm.buildCoAppearanceGraph(file);
+		assertEquals(graph.size(), compact.size());
+		for (GraphNode<String, String> node : graph.getSortedNodes()) {
+			List<String> children = compact.getChildren(node.getData());
+			assertEquals(node.getChildren().size(), children.size());
+			int i = 0;
+			for (GraphNode<String, String> child : node.getChildren()) {
+				assertEquals(child.getData(), children.get(i++));
+				Iterator<GraphEdge<String, String>> expected = 
+						node.getEdgesFromNode(child).iterator();
+				for (GraphEdge<String, String> edge : 
+						compact.getEdgesFromNode(node.getData(), child.getData())) {
+					assertEquals(expected.next().getLabel(), edge.getLabel());
+				}
+				assertFalse(expected.hasNext());
+			}
+		}
+	}
+	
+	@Test
+	public void coOccurrenceBuilderTest() {
+		Set<String> characters = new HashSet<String>(Arrays.asList("a", "b", "c", "d"));
+		Map<String, List<String>> books = new HashMap<String, List<String>>();
+		books.put("book1", Arrays.asList("a", "b", "c", "a"));
+		books.put("book2", Arrays.asList("b", "a"));
+		books.put("book3", Arrays.asList("c"));
+		Graph<String, Double> graph = CoOccurrenceBuilder.buildGraph(characters, books);
+		assertEquals(4, graph.size());
+		GraphNode<String, Double> a = graph.getNode("a");
+		assertEquals(0.5, a.getEdgeFromNode(graph.getNode("b")).getLabel(), 0.0);
+		assertEquals(1.0, a.getEdgeFromNode(graph.getNode("c")).getLabel(), 0.0);
+		assertEquals(0.5, graph.getNode("b").getEdgeFromNode(a).getLabel(), 0.0);
+		assertEquals(2, a.getEdgeCount());
+		assertEquals(0, graph.getNode("d").getEdgeCount());
+	}
+	
+	@Test
+	public void parallelCoOccurrenceBuilderTest() {
+		//well over the 512 books one counting task takes on, so the books are split
+		//across several tasks whose counts are merged
+		Random random = new Random(331);
+		Set<String> characters = new HashSet<String>();
+		for (int i = 0; i < 300; i++) {
+			characters.add("character" + i);
+		}
+		Map<String, List<String>> books = new HashMap<String, List<String>>();
+		for (int b = 0; b < 5000; b++) {
+			List<String> cast = new ArrayList<String>();
+			int size = 1 + random.nextInt(12);
+			for (int i = 0; i < size; i++) {
+				//skewed towards low ids, and sometimes repeated within a book
+				cast.add("character" + random.nextInt(1 + random.nextInt(300)));
+			}
+			books.put("book" + b, cast);
+		}
+		String serial = CoOccurrenceBuilder.buildGraph(characters, books).toString();
+		for (int parallelism = 2; parallelism <= 8; parallelism *= 2) {
+			assertEquals(serial, 
+					CoOccurrenceBuilder.buildGraph(characters, books, parallelism).toString());
+		}
+	}
 }
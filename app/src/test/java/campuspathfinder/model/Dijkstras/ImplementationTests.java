@@ -14,7 +14,9 @@ import org.junit.runners.Suite.*;
 
 @RunWith(Suite.class)
 @SuiteClasses({ CheckAsserts.class,
-	DijkstrasTest.class })
+	DijkstrasTest.class,
+	IndexedDaryHeapTest.class,
+	RadixHeapTest.class })
 
 public final class ImplementationTests
 {
@@ -0,0 +1,92 @@
+package campuspathfinder.model.Dijkstras;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import campuspathfinder.model.*;
+
+/**
+ * This class contains a set of test cases that can be used to test the implementation
+ * of the IndexedDaryHeap class.
+ *
+ */
+public class IndexedDaryHeapTest {
+
+	/**
+	 * Tests that nodes come out by key and then by id
+	 */
+	@Test
+	public void testOrder() {
+		IndexedDaryHeap heap = new IndexedDaryHeap(5, 2);
+		heap.offer(3, 2.0);
+		heap.offer(4, 1.0);
+		heap.offer(1, 2.0);
+		heap.offer(0, 3.0);
+		assertEquals(4, heap.size());
+		assertEquals(4, heap.peek());
+		assertEquals(1.0, heap.peekKey(), 0.0);
+		assertEquals(4, heap.poll());
+		assertEquals(1, heap.poll());
+		assertEquals(3, heap.poll());
+		assertEquals(0, heap.poll());
+		assertTrue(heap.isEmpty());
+	}
+
+	/**
+	 * Tests that offering a node again only ever lowers its key
+	 */
+	@Test
+	public void testDecreaseKey() {
+		IndexedDaryHeap heap = new IndexedDaryHeap(3, 4);
+		heap.offer(0, 5.0);
+		heap.offer(1, 4.0);
+		heap.offer(0, 6.0);
+		assertEquals(2, heap.size());
+		assertEquals(1, heap.peek());
+		heap.offer(0, 1.0);
+		assertEquals(2, heap.size());
+		assertEquals(0, heap.poll());
+		assertEquals(1, heap.poll());
+		heap.offer(0, 2.0);
+		heap.clear();
+		assertTrue(heap.isEmpty());
+		heap.offer(2, 0.0);
+		assertEquals(2, heap.poll());
+	}
+
+	/**
+	 * Tests every arity against a simple scan for the least entry
+	 */
+	@Test
+	public void testRandomOperations() {
+		Random random = new Random(331);
+		for (int arity = 2; arity <= 8; arity++) {
+			IndexedDaryHeap heap = new IndexedDaryHeap(50, arity);
+			double[] keys = new double[50];
+			Arrays.fill(keys, Double.NaN);
+			for (int step = 0; step < 5000; step++) {
+				if (random.nextInt(3) > 0) {
+					int node = random.nextInt(50);
+					double key = random.nextInt(20);
+					heap.offer(node, key);
+					if (Double.isNaN(keys[node]) || key < keys[node]) {
+						keys[node] = key;
+					}
+				} else if (!heap.isEmpty()) {
+					int min = -1;
+					for (int node = 0; node < 50; node++) {
+						if (!Double.isNaN(keys[node]) && (min == -1 || keys[node] < keys[min])) {
+							min = node;
+						}
+					}
+					assertEquals(min, heap.poll());
+					keys[min] = Double.NaN;
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,90 @@
+package campuspathfinder.model.Dijkstras;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import campuspathfinder.model.*;
+
+/**
+ * This class contains a set of test cases that can be used to test the implementation
+ * of the RadixHeap class.
+ *
+ */
+public class RadixHeapTest {
+
+	/**
+	 * Tests that nodes come out by key and then by id, including equal keys
+	 */
+	@Test
+	public void testOrder() {
+		RadixHeap heap = new RadixHeap(6);
+		heap.offer(5, 0.5);
+		heap.offer(3, 0.25);
+		heap.offer(4, 0.25);
+		heap.offer(1, 0.5);
+		heap.offer(2, 1.0 / 3);
+		heap.offer(0, 0.0);
+		assertEquals(0, heap.poll());
+		assertEquals(3, heap.peek());
+		assertEquals(0.25, heap.peekKey(), 0.0);
+		assertEquals(3, heap.poll());
+		heap.offer(0, 0.25);
+		assertEquals(0, heap.poll());
+		assertEquals(4, heap.poll());
+		assertEquals(2, heap.poll());
+		assertEquals(1, heap.poll());
+		assertEquals(5, heap.poll());
+		assertTrue(heap.isEmpty());
+	}
+
+	/**
+	 * Tests that keys below the last key removed are refused, until the heap is cleared
+	 */
+	@Test
+	public void testMonotone() {
+		RadixHeap heap = new RadixHeap(3);
+		heap.offer(0, 2.0);
+		heap.offer(1, 4.0);
+		assertEquals(0, heap.poll());
+		try {
+			heap.offer(2, 1.0);
+			fail("accepted a key below the last key removed");
+		} catch (IllegalArgumentException e) {
+			//expected
+		}
+		heap.offer(1, 3.0);
+		heap.offer(1, 5.0);
+		assertEquals(3.0, heap.peekKey(), 0.0);
+		heap.clear();
+		assertTrue(heap.isEmpty());
+		heap.offer(2, -0.0);
+		assertEquals(2, heap.poll());
+	}
+
+	/**
+	 * Tests that a monotone run gives the same nodes as an IndexedDaryHeap
+	 */
+	@Test
+	public void testMatchesDaryHeap() {
+		Random random = new Random(331);
+		RadixHeap radix = new RadixHeap(100);
+		IndexedDaryHeap dary = new IndexedDaryHeap(100, 2);
+		double last = 0.0;
+		for (int step = 0; step < 20000; step++) {
+			if (random.nextInt(3) > 0) {
+				int node = random.nextInt(100);
+				double key = last + random.nextInt(8) / 4.0 + random.nextDouble() * 0.01;
+				radix.offer(node, key);
+				dary.offer(node, key);
+			} else if (!dary.isEmpty()) {
+				last = dary.peekKey();
+				assertEquals(last, radix.peekKey(), 0.0);
+				assertEquals(dary.poll(), radix.poll());
+			}
+			assertEquals(dary.size(), radix.size());
+		}
+	}
+}
@@ -0,0 +1,168 @@
+package campuspathfinder.model.GraphADT;
+
+import static org.junit.Assert.*;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import org.junit.Before;
+import org.junit.Test;
+import campuspathfinder.model.*;
+
+/**
+ * This class contains a set of test cases that can be used to test the implementation
+ * of the CompactGraph&lt;String&gt; class.
+ *
+ */
+public class CompactGraphTest {
+
+	private Graph<String, Double> graph;
+
+	private GraphNode<String, Double> a;
+
+	private GraphNode<String, Double> b;
+
+	private GraphNode<String, Double> c;
+
+	@Before
+	public void setUp() {
+		graph = new Graph<String, Double>();
+		c = new GraphNode<String, Double>("c");
+		a = new GraphNode<String, Double>("a");
+		b = new GraphNode<String, Double>("b");
+		graph.addNode(c);
+		graph.addNode(a);
+		graph.addNode(b);
+		graph.addEdge(a, c, 2.0);
+		graph.addEdge(a, b, 3.0);
+		graph.addEdge(a, b, 1.0);
+		graph.addEdge(c, a, 4.0);
+	}
+
+	/**
+	 * Tests that ids are given in ascending order of node data
+	 */
+	@Test
+	public void testIds() {
+		CompactGraph<String> compact = new CompactGraph<String>(graph);
+		assertEquals(3, compact.size());
+		assertEquals(0, compact.idOf("a"));
+		assertEquals(1, compact.idOf("b"));
+		assertEquals(2, compact.idOf("c"));
+		assertEquals(-1, compact.idOf("d"));
+		assertEquals("b", compact.getData(1));
+	}
+
+	/**
+	 * Tests that edges are sorted by target and then by weight
+	 */
+	@Test
+	public void testEdges() {
+		CompactGraph<String> compact = new CompactGraph<String>(graph);
+		assertEquals(4, compact.edgeCount());
+		assertEquals(0, compact.getEdgeStart(0));
+		assertEquals(3, compact.getEdgeEnd(0));
+		assertEquals(1, compact.getTarget(0));
+		assertEquals(1.0, compact.getWeight(0), 0.0);
+		assertEquals(1, compact.getTarget(1));
+		assertEquals(3.0, compact.getWeight(1), 0.0);
+		assertEquals(2, compact.getTarget(2));
+		assertEquals(compact.getEdgeStart(1), compact.getEdgeEnd(1));
+		assertEquals(0, compact.getTarget(3));
+	}
+
+	/**
+	 * Tests that later changes to the graph do not show in the snapshot
+	 */
+	@Test
+	public void testSnapshot() {
+		CompactGraph<String> compact = new CompactGraph<String>(graph);
+		graph.addEdge(b, c, 1.0);
+		graph.addNode(new GraphNode<String, Double>("d"));
+		assertEquals(3, compact.size());
+		assertEquals(4, compact.edgeCount());
+	}
+
+	/**
+	 * Tests that edges to removed nodes are left out
+	 */
+	@Test
+	public void testRemovedNode() {
+		graph.removeNode(c);
+		CompactGraph<String> compact = new CompactGraph<String>(graph);
+		assertEquals(2, compact.size());
+		assertEquals(2, compact.edgeCount());
+	}
+	
+	/**
+	 * Tests that edges into each node are listed in ascending order of source
+	 */
+	@Test
+	public void testReverseEdges() {
+		CompactGraph<String> compact = new CompactGraph<String>(graph);
+		assertEquals(0, compact.getReverseEdgeStart(0));
+		assertEquals(1, compact.getReverseEdgeEnd(0));
+		assertEquals(3, compact.getReverseEdge(0));
+		assertEquals(2, compact.getSource(3));
+		assertEquals(3, compact.getReverseEdgeEnd(1));
+		assertEquals(0, compact.getReverseEdge(1));
+		assertEquals(1, compact.getReverseEdge(2));
+		assertEquals(0, compact.getSource(1));
+		assertEquals(4, compact.getReverseEdgeEnd(2));
+		assertEquals(2, compact.getReverseEdge(3));
+	}
+	
+	/**
+	 * Tests that a graph written and mapped back has the same nodes and edges
+	 */
+	@Test
+	public void testMapped() throws IOException {
+		graph.addNode(new GraphNode<String, Double>("\u00e9clair"));
+		CompactGraph<String> compact = new CompactGraph<String>(graph);
+		File file = File.createTempFile("compact", ".graph");
+		file.deleteOnExit();
+		MappedGraph.write(graph, file.getPath());
+		CompactGraph<String> mapped = MappedGraph.map(file.getPath());
+		assertEquals(compact.getNodes(), mapped.getNodes());
+		assertEquals(compact.edgeCount(), mapped.edgeCount());
+		for (String name : compact.getNodes()) {
+			assertEquals(compact.idOf(name), mapped.idOf(name));
+		}
+		assertEquals(-1, mapped.idOf("d"));
+		for (int i = 0; i < compact.size(); i++) {
+			assertEquals(compact.getEdgeStart(i), mapped.getEdgeStart(i));
+			assertEquals(compact.getEdgeEnd(i), mapped.getEdgeEnd(i));
+			assertEquals(compact.getReverseEdgeStart(i), mapped.getReverseEdgeStart(i));
+			assertEquals(compact.getReverseEdgeEnd(i), mapped.getReverseEdgeEnd(i));
+		}
+		for (int e = 0; e < compact.edgeCount(); e++) {
+			assertEquals(compact.getTarget(e), mapped.getTarget(e));
+			assertEquals(compact.getSource(e), mapped.getSource(e));
+			assertEquals(compact.getWeight(e), mapped.getWeight(e), 0.0);
+			assertEquals(compact.getReverseEdge(e), mapped.getReverseEdge(e));
+		}
+	}
+	
+	/**
+	 * Tests that a file that is not a graph of this version is rejected
+	 */
+	@Test
+	public void testMappedRejected() throws IOException {
+		File file = File.createTempFile("compact", ".graph");
+		file.deleteOnExit();
+		MappedGraph.write(graph, file.getPath());
+		RandomAccessFile raw = new RandomAccessFile(file, "rw");
+		try {
+			raw.seek(4);
+			raw.writeInt(MappedGraph.VERSION + 1);
+		} finally {
+			raw.close();
+		}
+		try {
+			MappedGraph.map(file.getPath());
+			fail("mapped a file of another version");
+		} catch (IOException e) {
+			// expected
+		}
+	}
+}
@@ -69,4 +69,30 @@ public class GraphEdgeTest {
 		two = new GraphEdge<String, String>("alpha", new GraphNode<String, String>("data"));
 		assertEquals(-1, two.compareTo(one));
 	}
+	
+	//Weighted edge tests
+	
+	/**
+	 * Tests that a WeightedEdge reads as a GraphEdge labeled with its weight
+	 */
+	@Test
+	public void testWeightedEdge() {
+		GraphNode<String, Double> node = new GraphNode<String, Double>("data");
+		WeightedEdge<String> weighted = new WeightedEdge<String>(2.5, node);
+		GraphEdge<String, Double> boxed = new GraphEdge<String, Double>(2.5, node);
+		assertEquals(2.5, weighted.getWeight(), 0.0);
+		assertEquals(Double.valueOf(2.5), weighted.getLabel());
+		assertEquals(node, weighted.getNode());
+		assertEquals(2.5, WeightedEdge.weightOf(boxed), 0.0);
+		assertEquals(0, weighted.compareTo(boxed));
+		assertTrue(new WeightedEdge<String>(1.0, node).compareTo(weighted) < 0);
+	}
+	
+	/**
+	 * Tests that a WeightedEdge rejects a NaN weight
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testWeightedEdgeNaN() {
+		new WeightedEdge<String>(Double.NaN, new GraphNode<String, Double>("data"));
+	}
 }
@@ -242,6 +242,60 @@ public class GraphNodeTest {
 				set2Itr.next().getData());
 	}
 	
+	//Edge access test
+	
+	/**
+	 * Tests getEdgeCount(), getEdge() and getSortedEdge()
+	 */
+	@Test
+	public void testEdgeAccess() {
+		GraphNode<String, String> node = new GraphNode<String, String>("node");
+		two = new GraphNode<String, String>("beta");
+		GraphNode<String, String> three = new GraphNode<String, String>("alpha");
+		GraphEdge<String, String> edge1 = new GraphEdge<String, String>("b", two);
+		GraphEdge<String, String> edge2 = new GraphEdge<String, String>("z", three);
+		GraphEdge<String, String> edge3 = new GraphEdge<String, String>("a", two);
+		node.addEdge(edge1);
+		node.addEdge(edge2);
+		node.addEdge(edge3);
+		assertEquals(3, node.getEdgeCount());
+		Set<GraphEdge<String, String>> seen = new HashSet<GraphEdge<String, String>>();
+		for (int i = 0; i < node.getEdgeCount(); i++) {
+			seen.add(node.getEdge(i));
+		}
+		assertEquals(3, seen.size());
+		assertEquals(2, node.getEdgeCountToNode(two));
+		assertEquals(edge2, node.getSortedEdge(0));
+		assertEquals(edge3, node.getSortedEdge(1));
+		assertEquals(edge1, node.getSortedEdge(2));
+		node.removeEdge(edge2);
+		assertEquals(2, node.getEdgeCount());
+		assertEquals(edge3, node.getSortedEdge(0));
+		assertEquals(edge1, node.getSortedEdge(1));
+		assertFalse(node.getChildren().contains(three));
+		assertEquals(0, node.getEdgeCountToNode(three));
+		assertNull(node.getEdgesFromNode(three));
+		node.removeEdge(edge3);
+		assertEquals(1, node.getEdgeCountToNode(two));
+		assertEquals(edge1, node.getEdgeFromNode(two));
+	}
+	
+	/**
+	 * Tests that sets returned before a change do not show the change
+	 */
+	@Test
+	public void testReturnedSetsUnchanged() {
+		one = new GraphNode<String, String>("data");
+		two = new GraphNode<String, String>("beta");
+		Set<GraphEdge<String, String>> edges = one.getEdges();
+		Set<GraphNode<String, String>> children = one.getChildren();
+		one.addEdge(new GraphEdge<String, String>("label", two));
+		assertEquals(0, edges.size());
+		assertEquals(0, children.size());
+		assertEquals(1, one.getEdges().size());
+		assertEquals(1, one.getChildren().size());
+	}
+	
 	//To String test
 	
 	/**
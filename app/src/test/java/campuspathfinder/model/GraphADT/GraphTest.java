@@ -320,4 +320,52 @@ public class GraphTest {
 		assertEquals(node3, one.getNode("alpha"));
 		assertEquals(null, one.getNode("omega"));
 	}
+	
+	//Node id tests
+	
+	/**
+	 * Tests that nodes are given dense ids in order of insertion
+	 */
+	@Test
+	public void testIds() {
+		one = new Graph<String, String>();
+		GraphNode<String, String> node1 = new GraphNode<String, String>("data");
+		GraphNode<String, String> node2 = new GraphNode<String, String>("beta");
+		GraphNode<String, String> node3 = new GraphNode<String, String>("alpha");
+		one.addNode(node1);
+		one.addEdge(node1, node2, "edge");
+		one.addNode(node3);
+		one.addNode(new GraphNode<String, String>("data"));
+		assertEquals(3, one.idBound());
+		assertEquals(0, one.idOf(node1));
+		assertEquals(1, one.idOf(node2));
+		assertEquals(2, one.idOf(node3));
+		assertEquals(node2, one.getNodeById(1));
+		assertEquals(-1, one.idOf(new GraphNode<String, String>("omega")));
+	}
+	
+	/**
+	 * Tests that removing nodes leaves gaps in the ids until they are compacted
+	 */
+	@Test
+	public void testCompactIds() {
+		one = new Graph<String, String>();
+		GraphNode<String, String> node1 = new GraphNode<String, String>("data");
+		GraphNode<String, String> node2 = new GraphNode<String, String>("beta");
+		GraphNode<String, String> node3 = new GraphNode<String, String>("alpha");
+		one.addNode(node1);
+		one.addNode(node2);
+		one.addNode(node3);
+		one.removeNode(node1);
+		assertEquals(-1, one.idOf(node1));
+		assertNull(one.getNodeById(0));
+		assertEquals(2, one.idOf(node3));
+		one.compactIds();
+		assertEquals(2, one.idBound());
+		assertEquals(0, one.idOf(node2));
+		assertEquals(1, one.idOf(node3));
+		assertEquals(node3, one.getNodeById(1));
+		one.addNode(node1);
+		assertEquals(2, one.idOf(node1));
+	}
 }
@@ -16,7 +16,8 @@ import org.junit.runners.Suite.SuiteClasses;
 @SuiteClasses({ CheckAsserts.class,
 	GraphTest.class,
 	GraphNodeTest.class,
-	GraphEdgeTest.class})
+	GraphEdgeTest.class,
+	CompactGraphTest.class})
 
 public final class ImplementationTests
 {